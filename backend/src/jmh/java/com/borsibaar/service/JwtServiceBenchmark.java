@@ -0,0 +1,91 @@
+package com.borsibaar.service;
+
+import com.borsibaar.entity.Role;
+import com.borsibaar.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the authentication path: verifying and parsing the session token
+ * that comes with every request, and issuing one.
+ * <p>
+ * {@link #parseWithNewParser} is how tokens were parsed before the key and
+ * parser were built once, kept as the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-for-jwt-at-least-256-bits-long";
+    private static final String PREVIOUS_SECRET = "previous-secret-key-for-jwt-at-least-256-bits-long";
+
+    private JwtService jwtService;
+    private User user;
+    private String token;
+    private String tokenOfPreviousKey;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(SECRET, List.of(PREVIOUS_SECRET), 3600, 86400);
+        user = User.builder()
+                .id(UUID.randomUUID())
+                .email("bartender@example.com")
+                .name("Bartender")
+                .organizationId(1L)
+                .role(Role.builder().id(1L).name("USER").build())
+                .build();
+        token = jwtService.generateToken(user);
+        tokenOfPreviousKey = new JwtService(PREVIOUS_SECRET, List.of(), 3600, 86400).generateToken(user);
+    }
+
+    @Benchmark
+    public Claims parse() {
+        return jwtService.parseToken(token);
+    }
+
+    @Benchmark
+    public Claims parseTokenOfPreviousKey() {
+        return jwtService.parseToken(tokenOfPreviousKey);
+    }
+
+    @Benchmark
+    public User parseToPrincipal() {
+        return jwtService.toPrincipal(jwtService.parseToken(token));
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public Claims parseWithNewParser() {
+        return Jwts.parser()
+                .setSigningKey(SECRET.getBytes(StandardCharsets.UTF_8))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtService.generateToken(user);
+    }
+}
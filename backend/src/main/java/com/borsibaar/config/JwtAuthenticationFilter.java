@@ -1,9 +1,9 @@
 package com.borsibaar.config;
 
 import com.borsibaar.entity.User;
-import com.borsibaar.repository.UserRepository;
 import com.borsibaar.service.JwtService;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -33,7 +33,17 @@ import java.util.Optional;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
+
+    /**
+     * The public display tree never authenticates. The filter only runs inside
+     * the main security chain (see {@link SecurityConfig#jwtFilterRegistration}),
+     * so this is a second line of defence.
+     */
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return applicationPath(request).startsWith("/api/public/");
+    }
 
     @Override
     protected void doFilterInternal(
@@ -43,7 +53,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         // Skip JWT authentication for OAuth2 and auth login endpoints
         // But allow JWT authentication for /auth/logout
-        String requestPath = request.getRequestURI();
+        String requestPath = applicationPath(request);
         if (requestPath.startsWith("/oauth2/") ||
                 requestPath.startsWith("/login/oauth2/") ||
                 (requestPath.startsWith("/auth/") && !requestPath.equals("/auth/logout"))) {
@@ -63,37 +73,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         try {
             // Parse and validate JWT token
-            Claims claims = jwtService.parseToken(token);
-            String email = claims.getSubject();
-
-            // Load user from database and set JWT authentication
-            // This replaces any existing OAuth2 session authentication
-            if (email != null) {
-                // Use findByEmailWithRole to eagerly fetch role and avoid
-                // LazyInitializationException
-                Optional<User> userOptional = userRepository.findByEmailWithRole(email);
-
-                if (userOptional.isPresent()) {
-                    User user = userOptional.get();
-                    // Create authentication token with user details and role
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            user, // Principal - the authenticated user
-                            null, // Credentials - not needed after authentication
-                            user.getRole() != null
-                                    ? Collections.singletonList(
-                                            new SimpleGrantedAuthority("ROLE_" + user.getRole().getName()))
-                                    : Collections.emptyList());
-
-                    // Set additional details (IP address, session ID, etc.)
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-
-                    // Set authentication in SecurityContext (replaces OAuth2 authentication if
-                    // present)
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                    logger.debug("JWT authentication set in SecurityContext for user: " + email);
-                } else {
-                    logger.warn("User not found in database for email: " + email);
-                }
+            Optional<User> userOptional = authenticate(token, response);
+
+            // Set JWT authentication. This replaces any existing OAuth2 session authentication
+            if (userOptional.isPresent()) {
+                User user = userOptional.get();
+                // Create authentication token with user details and role
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        user, // Principal - the authenticated user
+                        null, // Credentials - not needed after authentication
+                        user.getRole() != null
+                                ? Collections.singletonList(
+                                        new SimpleGrantedAuthority("ROLE_" + user.getRole().getName()))
+                                : Collections.emptyList());
+
+                // Set additional details (IP address, session ID, etc.)
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+                // Set authentication in SecurityContext (replaces OAuth2 authentication if
+                // present)
+                SecurityContextHolder.getContext().setAuthentication(authToken);
+                logger.debug("JWT authentication set in SecurityContext for user: " + user.getEmail());
             }
         } catch (Exception e) {
             // If token is invalid, log and continue without authentication
@@ -105,6 +105,49 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Resolves the user a token was issued for.
+     * <p>
+     * A current token with claims is trusted as is, without touching the
+     * database. An expired one is exchanged for a fresh token built from the
+     * current user (set as the new cookie) while its session lasts, so role
+     * and organization changes show up within one token lifetime. Tokens that
+     * only carry a subject are looked up through the principal cache.
+     */
+    private Optional<User> authenticate(String token, HttpServletResponse response) {
+        Claims claims;
+        try {
+            claims = jwtService.parseToken(token);
+        } catch (ExpiredJwtException e) {
+            // The signature was verified before the expiry was checked
+            Claims expired = e.getClaims();
+            if (expired.getSubject() == null || !jwtService.isRefreshable(expired)) {
+                throw e;
+            }
+            Optional<User> user = loadUser(expired.getSubject());
+            user.ifPresent(u -> response.addCookie(jwtService.createCookie(jwtService.refreshToken(u, expired))));
+            return user;
+        }
+
+        if (jwtService.hasPrincipalClaims(claims)) {
+            return Optional.of(jwtService.toPrincipal(claims));
+        }
+        return claims.getSubject() != null ? loadUser(claims.getSubject()) : Optional.empty();
+    }
+
+    private Optional<User> loadUser(String email) {
+        Optional<User> user = principalCache.find(email);
+        if (user.isEmpty()) {
+            logger.warn("User not found in database for email: " + email);
+        }
+        return user;
+    }
+
+    /** The request path without the servlet context path ({@code /sb} in production). */
+    private static String applicationPath(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
     /**
      * Extracts JWT token from the "jwt" cookie.
      *
@@ -117,7 +160,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         for (Cookie cookie : request.getCookies()) {
-            if ("jwt".equals(cookie.getName())) {
+            if (JwtService.COOKIE_NAME.equals(cookie.getName())) {
                 return cookie.getValue();
             }
         }
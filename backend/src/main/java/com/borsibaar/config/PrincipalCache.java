@@ -0,0 +1,129 @@
+package com.borsibaar.config;
+
+import com.borsibaar.entity.Role;
+import com.borsibaar.entity.User;
+import com.borsibaar.event.UserChangedEvent;
+import com.borsibaar.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the user behind each JWT subject for a short while, so authenticating
+ * a request is a map lookup instead of a user and role query.
+ * <p>
+ * Entries are immutable snapshots of what requests need (id, organization,
+ * role, name, email); every request gets its own {@link User} built from one,
+ * so nothing mutable is shared between requests. An entry lives for
+ * {@code app.auth.principal-cache.ttl-seconds} and is dropped as soon as a
+ * {@link UserChangedEvent} commits, so onboarding or a role change is visible
+ * on the very next request. At most {@code app.auth.principal-cache.max-entries}
+ * users are kept; beyond that, lookups go to the database until entries
+ * expire.
+ */
+@Component
+public class PrincipalCache {
+
+    private final UserRepository userRepository;
+    private final Duration ttl;
+    private final int maxEntries;
+    private final Clock clock;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Autowired
+    public PrincipalCache(UserRepository userRepository,
+            @Value("${app.auth.principal-cache.ttl-seconds:60}") long ttlSeconds,
+            @Value("${app.auth.principal-cache.max-entries:10000}") int maxEntries) {
+        this(userRepository, Duration.ofSeconds(ttlSeconds), maxEntries, Clock.systemUTC());
+    }
+
+    PrincipalCache(UserRepository userRepository, Duration ttl, int maxEntries, Clock clock) {
+        this.userRepository = userRepository;
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    /** The user with this email, with its role, or empty if there is none. */
+    public Optional<User> find(String email) {
+        Instant now = clock.instant();
+        Entry entry = entries.get(email);
+        if (entry != null && now.isBefore(entry.expiresAt())) {
+            return Optional.of(entry.principal().toUser());
+        }
+
+        // A change committed while the user is loaded must not be overwritten
+        // by the now stale result
+        long seen = invalidations.get();
+        Optional<Principal> loaded = userRepository.findByEmailWithRole(email).map(Principal::of);
+        loaded.ifPresent(principal -> store(email, principal, now, seen));
+        return loaded.map(Principal::toUser);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        invalidate(event.email());
+    }
+
+    public void invalidate(String email) {
+        invalidations.incrementAndGet();
+        entries.remove(email);
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void store(String email, Principal principal, Instant now, long seen) {
+        if (entries.size() >= maxEntries) {
+            entries.values().removeIf(stale -> !now.isBefore(stale.expiresAt()));
+            if (entries.size() >= maxEntries) {
+                return;
+            }
+        }
+        entries.put(email, new Entry(principal, now.plus(ttl)));
+        if (invalidations.get() != seen) {
+            entries.remove(email);
+        }
+    }
+
+    private record Entry(Principal principal, Instant expiresAt) {
+    }
+
+    private record Principal(UUID id, String email, String name, Long organizationId, Long roleId,
+            String roleName) {
+
+        static Principal of(User user) {
+            Role role = user.getRole();
+            return new Principal(user.getId(), user.getEmail(), user.getName(), user.getOrganizationId(),
+                    role != null ? role.getId() : null, role != null ? role.getName() : null);
+        }
+
+        User toUser() {
+            return User.builder()
+                    .id(id)
+                    .email(email)
+                    .name(name)
+                    .organizationId(organizationId)
+                    .role(roleName != null ? Role.builder().id(roleId).name(roleName).build() : null)
+                    .build();
+        }
+    }
+}
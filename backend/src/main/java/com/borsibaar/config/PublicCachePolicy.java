@@ -0,0 +1,36 @@
+package com.borsibaar.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Cache-Control for anonymous display reads (the {@code /api/public} tree and
+ * the older {@code ?organizationId=} reads).
+ * <p>
+ * Browsers revalidate every time, which is cheap with an ETag; a shared cache
+ * (nginx, see {@code nginx/snippets/borsibaar-public-cache.conf}) keeps a
+ * response for {@code app.public-cache.s-maxage-seconds} and serves it stale
+ * for {@code app.public-cache.stale-while-revalidate-seconds} while it
+ * refreshes, so a room full of screens costs one backend request per interval.
+ */
+@Component
+public class PublicCachePolicy {
+
+    private final CacheControl cacheControl;
+
+    public PublicCachePolicy(
+            @Value("${app.public-cache.s-maxage-seconds:2}") long sMaxAgeSeconds,
+            @Value("${app.public-cache.stale-while-revalidate-seconds:10}") long staleWhileRevalidateSeconds) {
+        this.cacheControl = CacheControl.maxAge(Duration.ZERO)
+                .cachePublic()
+                .sMaxAge(Duration.ofSeconds(sMaxAgeSeconds))
+                .staleWhileRevalidate(Duration.ofSeconds(staleWhileRevalidateSeconds));
+    }
+
+    public CacheControl cacheControl() {
+        return cacheControl;
+    }
+}
@@ -0,0 +1,29 @@
+package com.borsibaar.config;
+
+import com.borsibaar.websocket.PriceSocketHandler;
+import com.borsibaar.websocket.PriceSocketHandshakeInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+@RequiredArgsConstructor
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final PriceSocketHandler priceSocketHandler;
+    private final PriceSocketHandshakeInterceptor priceSocketHandshakeInterceptor;
+
+    @Value("${app.cors.allowed-origins}")
+    private String[] allowedOrigins;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(priceSocketHandler, "/ws/organizations/*", "/ws/organizations/*/stations/*")
+                .addInterceptors(priceSocketHandshakeInterceptor)
+                .setAllowedOrigins(allowedOrigins);
+    }
+}
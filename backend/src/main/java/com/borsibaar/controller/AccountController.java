@@ -2,10 +2,14 @@ package com.borsibaar.controller;
 
 import com.borsibaar.entity.Role;
 import com.borsibaar.entity.User;
+import com.borsibaar.event.UserChangedEvent;
 import com.borsibaar.repository.RoleRepository;
 import com.borsibaar.repository.UserRepository;
+import com.borsibaar.service.JwtService;
 import com.borsibaar.util.SecurityUtils;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
@@ -17,6 +21,8 @@ import org.springframework.web.server.ResponseStatusException;
 public class AccountController {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JwtService jwtService;
 
     public record MeResponse(String email, String name, String role, Long organizationId, boolean needsOnboarding) {
     }
@@ -50,13 +56,17 @@ public class AccountController {
 
     @PostMapping("/onboarding")
     @Transactional
-    public ResponseEntity<Void> finish(@RequestBody onboardingRequest req) {
+    public ResponseEntity<Void> finish(@RequestBody onboardingRequest req, HttpServletResponse response) {
         try {
             if (req.organizationId() == null || !req.acceptTerms())
                 return ResponseEntity.badRequest().build();
 
             // Allow users without organization (that's the point of onboarding)
-            User user = SecurityUtils.getCurrentUser(false);
+            User principal = SecurityUtils.getCurrentUser(false);
+            // The principal is a detached snapshot; change the stored user itself
+            User user = userRepository.findById(principal.getId())
+                    .orElseThrow(() -> new ResponseStatusException(
+                            org.springframework.http.HttpStatus.UNAUTHORIZED, "User no longer exists"));
 
             Role adminRole = roleRepository.findByName("ADMIN")
                     .orElseThrow(() -> new IllegalArgumentException("Admin role ADMIN not found"));
@@ -69,9 +79,11 @@ public class AccountController {
                 }
                 user.setOrganizationId(req.organizationId());
                 userRepository.save(user);
+                eventPublisher.publishEvent(new UserChangedEvent(user.getEmail()));
+                // The current token still says "no organization"
+                response.addCookie(jwtService.createCookie(jwtService.generateToken(user)));
             }
 
-            // If later you add orgId to JWT, re-issue token here.
             return ResponseEntity.noContent().build();
         } catch (ResponseStatusException e) {
             throw e; // Re-throw to be handled by exception handler
@@ -1,6 +1,7 @@
 package com.borsibaar.controller;
 
 import com.borsibaar.service.AuthService;
+import com.borsibaar.service.JwtService;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -17,11 +18,13 @@ import java.io.IOException;
 @RequestMapping("/auth")
 public class AuthController {
     private final AuthService authService;
+    private final JwtService jwtService;
     @Value("${app.frontend.url}")
     private String frontendUrl;
 
-    public AuthController(AuthService authService) {
+    public AuthController(AuthService authService, JwtService jwtService) {
         this.authService = authService;
+        this.jwtService = jwtService;
     }
 
     @GetMapping("/login/success")
@@ -29,12 +32,7 @@ public class AuthController {
         try {
             var result = authService.processOAuthLogin(auth);
 
-            Cookie cookie = new Cookie("jwt", result.dto().token());
-            cookie.setHttpOnly(true);
-            cookie.setSecure(true); // Should be true for production/HTTPS
-            cookie.setPath("/");
-            cookie.setMaxAge(24 * 60 * 60); // 1 day
-            response.addCookie(cookie);
+            response.addCookie(jwtService.createCookie(result.dto().token()));
 
             String redirect = result.needsOnboarding() ? "/onboarding" : "/dashboard";
             response.sendRedirect(frontendUrl + redirect);
@@ -59,7 +57,7 @@ public class AuthController {
         SecurityContextHolder.clearContext();
 
         // Clear the JWT cookie
-        Cookie jwtCookie = new Cookie("jwt", "");
+        Cookie jwtCookie = new Cookie(JwtService.COOKIE_NAME, "");
         jwtCookie.setHttpOnly(true);
         jwtCookie.setSecure(true); // HTTPS enabled with domain
         jwtCookie.setPath("/");
@@ -1,5 +1,6 @@
 package com.borsibaar.controller;
 
+import com.borsibaar.config.PublicCachePolicy;
 import com.borsibaar.dto.CategoryRequestDto;
 import com.borsibaar.dto.CategoryResponseDto;
 import com.borsibaar.entity.User;
@@ -7,6 +8,7 @@ import com.borsibaar.service.CategoryService;
 import com.borsibaar.util.SecurityUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -16,6 +18,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class CategoryController {
     private final CategoryService categoryService;
+    private final PublicCachePolicy publicCachePolicy;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -25,17 +28,15 @@ public class CategoryController {
     }
 
     @GetMapping
-    public List<CategoryResponseDto> getAll(@RequestParam(required = false) Long organizationId) {
-        // If organizationId is provided, use it (for public access)
+    public ResponseEntity<List<CategoryResponseDto>> getAll(@RequestParam(required = false) Long organizationId) {
+        // If organizationId is provided, use it (for public access, shared-cacheable)
         // Otherwise, get from authenticated user
-        Long orgId;
         if (organizationId != null) {
-            orgId = organizationId;
-        } else {
-            User user = SecurityUtils.getCurrentUser();
-            orgId = user.getOrganizationId();
+            return ResponseEntity.ok().cacheControl(publicCachePolicy.cacheControl())
+                    .body(categoryService.getAllByOrg(organizationId));
         }
-        return categoryService.getAllByOrg(orgId);
+        User user = SecurityUtils.getCurrentUser();
+        return ResponseEntity.ok(categoryService.getAllByOrg(user.getOrganizationId()));
     }
 
     @GetMapping("/{id}")
@@ -1,14 +1,19 @@
 package com.borsibaar.controller;
 
+import com.borsibaar.config.PublicCachePolicy;
 import com.borsibaar.dto.*;
 import com.borsibaar.entity.User;
 import com.borsibaar.service.InventoryService;
+import com.borsibaar.service.PriceSeriesService;
 import com.borsibaar.util.SecurityUtils;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 
 @RestController
@@ -17,21 +22,21 @@ import java.util.List;
 public class InventoryController {
 
     private final InventoryService inventoryService;
+    private final PriceSeriesService priceSeriesService;
+    private final PublicCachePolicy publicCachePolicy;
 
     @GetMapping
-    public List<InventoryResponseDto> getOrganizationInventory(
+    public ResponseEntity<List<InventoryResponseDto>> getOrganizationInventory(
             @RequestParam(required = false) Long categoryId,
             @RequestParam(required = false) Long organizationId) {
-        // If organizationId is provided, use it (for public access)
+        // If organizationId is provided, use it (for public access, shared-cacheable)
         // Otherwise, get from authenticated user
-        Long orgId;
         if (organizationId != null) {
-            orgId = organizationId;
-        } else {
-            User user = SecurityUtils.getCurrentUser();
-            orgId = user.getOrganizationId();
+            return ResponseEntity.ok().cacheControl(publicCachePolicy.cacheControl())
+                    .body(inventoryService.getByOrganization(organizationId, categoryId));
         }
-        return inventoryService.getByOrganization(orgId, categoryId);
+        User user = SecurityUtils.getCurrentUser();
+        return ResponseEntity.ok(inventoryService.getByOrganization(user.getOrganizationId(), categoryId));
     }
 
     @GetMapping("/product/{productId}")
@@ -64,20 +69,38 @@ public class InventoryController {
     }
 
     @GetMapping("/product/{productId}/history")
-    public List<InventoryTransactionResponseDto> getTransactionHistory(@PathVariable Long productId) {
+    public InventoryTransactionPageResponseDto getTransactionHistory(
+            @PathVariable Long productId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime since,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        User user = SecurityUtils.getCurrentUser();
+        return inventoryService.getTransactionHistory(productId, user.getOrganizationId(), since, cursor, limit);
+    }
+
+    @GetMapping("/product/{productId}/price-series")
+    public PriceSeriesResponseDto getPriceSeries(
+            @PathVariable Long productId,
+            @RequestParam(required = false) String resolution,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to) {
         User user = SecurityUtils.getCurrentUser();
-        return inventoryService.getTransactionHistory(productId, user.getOrganizationId());
+        return priceSeriesService.getPriceSeries(productId, user.getOrganizationId(), resolution, from, to);
     }
 
     @GetMapping("/sales-stats")
-    public List<UserSalesStatsResponseDto> getUserSalesStats() {
+    public List<UserSalesStatsResponseDto> getUserSalesStats(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to) {
         User user = SecurityUtils.getCurrentUser();
-        return inventoryService.getUserSalesStats(user.getOrganizationId());
+        return inventoryService.getUserSalesStats(user.getOrganizationId(), from, to);
     }
 
     @GetMapping("/station-sales-stats")
-    public List<StationSalesStatsResponseDto> getStationSalesStats() {
+    public List<StationSalesStatsResponseDto> getStationSalesStats(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to) {
         User user = SecurityUtils.getCurrentUser();
-        return inventoryService.getStationSalesStats(user.getOrganizationId());
+        return inventoryService.getStationSalesStats(user.getOrganizationId(), from, to);
     }
 }
@@ -2,11 +2,19 @@ package com.borsibaar.controller;
 
 import com.borsibaar.dto.OrganizationRequestDto;
 import com.borsibaar.dto.OrganizationResponseDto;
+import com.borsibaar.dto.PriceBoardResponseDto;
+import com.borsibaar.service.BoardStreamService;
+import com.borsibaar.service.InventoryService;
 import com.borsibaar.service.OrganizationService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -16,6 +24,8 @@ import java.util.List;
 public class OrganizationController {
 
     private final OrganizationService organizationService;
+    private final InventoryService inventoryService;
+    private final BoardStreamService boardStreamService;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -28,6 +38,31 @@ public class OrganizationController {
         return organizationService.getById(id);
     }
 
+    /**
+     * Public price board: all categories with their products and prices in one
+     * response. Displays send the last version back as If-None-Match and get a
+     * 304 while nothing has changed.
+     */
+    @GetMapping("/{id}/board")
+    public ResponseEntity<PriceBoardResponseDto> getBoard(@PathVariable Long id, WebRequest request) {
+        PriceBoardResponseDto board = inventoryService.getBoard(id);
+        if (request.checkNotModified(board.version())) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(board.version()).body(board);
+    }
+
+    /**
+     * Live price board: a "snapshot" event on every (re)connect, then "delta"
+     * events as sales and price corrections are committed.
+     */
+    @GetMapping(path = "/{id}/board/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBoard(@PathVariable Long id, HttpServletResponse response) {
+        // Tell nginx not to buffer the stream
+        response.setHeader("X-Accel-Buffering", "no");
+        return boardStreamService.subscribe(id);
+    }
+
     @GetMapping
     public List<OrganizationResponseDto> getAll() {
         return organizationService.getAll();
@@ -0,0 +1,91 @@
+package com.borsibaar.controller;
+
+import com.borsibaar.config.PublicCachePolicy;
+import com.borsibaar.dto.CategoryResponseDto;
+import com.borsibaar.dto.InventoryResponseDto;
+import com.borsibaar.dto.PriceBoardResponseDto;
+import com.borsibaar.dto.PriceSeriesResponseDto;
+import com.borsibaar.service.BoardStreamService;
+import com.borsibaar.service.CategoryService;
+import com.borsibaar.service.InventoryService;
+import com.borsibaar.service.PriceSeriesService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+/**
+ * Read-only data for the public price displays, under {@code /api/public}.
+ * <p>
+ * This tree has its own security filter chain with no authentication at all
+ * (no cookie or JWT handling, no session), and every response may be cached
+ * by a shared cache ({@link PublicCachePolicy}). URLs only take parameters
+ * that select data, never "now"-relative ones, so identical screens send
+ * identical requests.
+ */
+@RestController
+@RequestMapping("/api/public/organizations/{organizationId}")
+public class PublicDisplayController {
+
+    private final InventoryService inventoryService;
+    private final CategoryService categoryService;
+    private final PriceSeriesService priceSeriesService;
+    private final BoardStreamService boardStreamService;
+    private final CacheControl cacheControl;
+
+    public PublicDisplayController(InventoryService inventoryService,
+            CategoryService categoryService,
+            PriceSeriesService priceSeriesService,
+            BoardStreamService boardStreamService,
+            PublicCachePolicy publicCachePolicy) {
+        this.inventoryService = inventoryService;
+        this.categoryService = categoryService;
+        this.priceSeriesService = priceSeriesService;
+        this.boardStreamService = boardStreamService;
+        this.cacheControl = publicCachePolicy.cacheControl();
+    }
+
+    @GetMapping("/board")
+    public ResponseEntity<PriceBoardResponseDto> getBoard(@PathVariable Long organizationId, WebRequest request) {
+        PriceBoardResponseDto board = inventoryService.getBoard(organizationId);
+        if (request.checkNotModified(board.version())) {
+            return ResponseEntity.status(304).cacheControl(cacheControl).eTag(board.version()).build();
+        }
+        return ResponseEntity.ok().cacheControl(cacheControl).eTag(board.version()).body(board);
+    }
+
+    /** Live variant of {@link #getBoard}; never cached. */
+    @GetMapping(path = "/board/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBoard(@PathVariable Long organizationId, HttpServletResponse response) {
+        // Tell nginx not to buffer the stream
+        response.setHeader("X-Accel-Buffering", "no");
+        return boardStreamService.subscribe(organizationId);
+    }
+
+    @GetMapping("/inventory")
+    public ResponseEntity<List<InventoryResponseDto>> getInventory(@PathVariable Long organizationId,
+            @RequestParam(required = false) Long categoryId) {
+        return ResponseEntity.ok().cacheControl(cacheControl)
+                .body(inventoryService.getByOrganization(organizationId, categoryId));
+    }
+
+    @GetMapping("/categories")
+    public ResponseEntity<List<CategoryResponseDto>> getCategories(@PathVariable Long organizationId) {
+        return ResponseEntity.ok().cacheControl(cacheControl)
+                .body(categoryService.getAllByOrg(organizationId));
+    }
+
+    /** The default window ending now, so the URL stays the same for every screen. */
+    @GetMapping("/products/{productId}/price-series")
+    public ResponseEntity<PriceSeriesResponseDto> getPriceSeries(@PathVariable Long organizationId,
+            @PathVariable Long productId,
+            @RequestParam(required = false) String resolution) {
+        return ResponseEntity.ok().cacheControl(cacheControl)
+                .body(priceSeriesService.getPriceSeries(productId, organizationId, resolution, null, null));
+    }
+}
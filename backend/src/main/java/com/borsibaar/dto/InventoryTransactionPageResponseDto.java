@@ -0,0 +1,13 @@
+package com.borsibaar.dto;
+
+import java.util.List;
+
+/**
+ * One page of a product's transaction history, newest first. Pass
+ * {@code nextCursor} back as {@code cursor} to get the next (older) page; it is
+ * null on the last page.
+ */
+public record InventoryTransactionPageResponseDto(
+                List<InventoryTransactionResponseDto> items,
+                String nextCursor) {
+}
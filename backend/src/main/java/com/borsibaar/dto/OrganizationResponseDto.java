@@ -9,5 +9,7 @@ public record OrganizationResponseDto(
                 OffsetDateTime createdAt,
                 OffsetDateTime updatedAt,
                 BigDecimal priceIncreaseStep,
-                BigDecimal priceDecreaseStep) {
+                BigDecimal priceDecreaseStep,
+                Integer priceDecayIntervalSeconds,
+                boolean lazyPriceDecay) {
 }
@@ -0,0 +1,10 @@
+package com.borsibaar.dto;
+
+import java.util.List;
+
+public record PriceBoardCategoryDto(
+        Long id,
+        String name,
+        Boolean dynamicPricing,
+        List<InventoryResponseDto> products) {
+}
@@ -0,0 +1,11 @@
+package com.borsibaar.dto;
+
+import java.math.BigDecimal;
+
+public record PriceBoardDeltaDto(
+        Long inventoryId,
+        Long productId,
+        BigDecimal quantity,
+        BigDecimal unitPrice,
+        String updatedAt) {
+}
@@ -0,0 +1,22 @@
+package com.borsibaar.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * @param pricesChangeAt when the first lazily decaying price on the board
+ *                       drops next, or null when prices only change through
+ *                       sales and stock updates; not sent to clients
+ */
+public record PriceBoardResponseDto(
+        Long organizationId,
+        String version,
+        List<PriceBoardCategoryDto> categories,
+        @JsonIgnore OffsetDateTime pricesChangeAt) {
+
+    public PriceBoardResponseDto(Long organizationId, String version, List<PriceBoardCategoryDto> categories) {
+        this(organizationId, version, categories, null);
+    }
+}
@@ -0,0 +1,18 @@
+package com.borsibaar.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Price of a product over one bucket of a price series. {@code open} is the
+ * price when the bucket began and {@code close} the price when it ended;
+ * {@code changes} is the number of price-affecting transactions inside it, 0
+ * for a bucket that only carries the previous price forward.
+ */
+public record PriceBucketDto(
+                String start,
+                BigDecimal open,
+                BigDecimal high,
+                BigDecimal low,
+                BigDecimal close,
+                long changes) {
+}
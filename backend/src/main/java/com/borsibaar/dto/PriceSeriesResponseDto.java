@@ -0,0 +1,11 @@
+package com.borsibaar.dto;
+
+import java.util.List;
+
+public record PriceSeriesResponseDto(
+                Long productId,
+                String resolution,
+                String from,
+                String to,
+                List<PriceBucketDto> buckets) {
+}
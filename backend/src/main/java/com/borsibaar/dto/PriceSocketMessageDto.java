@@ -0,0 +1,24 @@
+package com.borsibaar.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+
+/**
+ * Message pushed to POS terminals and displays over the price WebSocket.
+ * {@code type} is "inventory" for a quantity/price change of one product and
+ * "catalog" when products were added or removed and the list must be
+ * reloaded. {@code seq} grows per organization, so clients can drop updates
+ * that arrive after a newer one for the same product.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PriceSocketMessageDto(
+        String type,
+        Long organizationId,
+        long seq,
+        Long inventoryId,
+        Long productId,
+        BigDecimal quantity,
+        BigDecimal unitPrice,
+        String updatedAt) {
+}
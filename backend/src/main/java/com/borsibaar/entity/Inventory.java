@@ -19,7 +19,8 @@ import java.util.Set;
 @AllArgsConstructor
 public class Inventory {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_seq")
+    @SequenceGenerator(name = "inventory_seq", sequenceName = "inventory_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -44,7 +45,23 @@ public class Inventory {
     @Column(name = "adjusted_price", precision = 19, scale = 4)
     private BigDecimal adjustedPrice;
 
-    @OneToOne(fetch = FetchType.EAGER)
+    /** When {@code adjustedPrice} was last set by a sale or a decay; lazy decay counts from here. */
+    @Column(name = "price_anchored_at")
+    private OffsetDateTime priceAnchoredAt;
+
+    /** When the product was last sold; the decay job lowers products that went unsold for its interval. */
+    @Column(name = "last_sold_at")
+    private OffsetDateTime lastSoldAt;
+
+    /**
+     * Guards against lost updates: a write based on a stale read fails instead
+     * of silently overwriting a concurrent sale or price change.
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id")
     private Product product;
 
@@ -59,5 +76,6 @@ public class Inventory {
         this.adjustedPrice = adjustedPrice;
         this.createdAt = OffsetDateTime.now();
         this.updatedAt = OffsetDateTime.now();
+        this.priceAnchoredAt = this.createdAt;
     }
 }
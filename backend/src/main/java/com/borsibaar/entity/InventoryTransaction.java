@@ -18,7 +18,8 @@ import java.util.UUID;
 @AllArgsConstructor
 public class InventoryTransaction {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_transactions_seq")
+    @SequenceGenerator(name = "inventory_transactions_seq", sequenceName = "inventory_transactions_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "inventory_id", nullable = false, insertable = false, updatable = false)
@@ -30,4 +30,18 @@ public class Organization {
 
     @Column(name = "price_decrease_step", precision = 19, scale = 4)
     private BigDecimal priceDecreaseStep;
+
+    @Column(name = "price_decay_interval_seconds", nullable = false)
+    private Integer priceDecayIntervalSeconds = 60;
+
+    /**
+     * Prices decay at read time from each product's anchor price instead of
+     * being lowered by the decay job, so an idle bar causes no writes.
+     */
+    @Column(name = "lazy_price_decay", nullable = false)
+    private boolean lazyPriceDecay;
+
+    /** Owned by the price decay scheduler; never written through the entity. */
+    @Column(name = "price_decay_next_run_at", insertable = false, updatable = false)
+    private OffsetDateTime priceDecayNextRunAt;
 }
@@ -0,0 +1,49 @@
+package com.borsibaar.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * An automatic price change of one inventory (the new price), written by
+ * {@code PriceCorrectionJob}. Kept apart from {@link InventoryTransaction}
+ * so the transaction table only holds stock movements and manual changes;
+ * history and chart queries merge the two.
+ */
+@Entity
+@Table(name = "price_ticks")
+@IdClass(PriceTick.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceTick {
+
+    @Id
+    @Column(name = "inventory_id")
+    private Long inventoryId;
+
+    @Id
+    @Column(name = "ts")
+    private OffsetDateTime ts;
+
+    @Column(name = "price", nullable = false, precision = 19, scale = 4)
+    private BigDecimal price;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private Long inventoryId;
+        private OffsetDateTime ts;
+    }
+}
@@ -0,0 +1,63 @@
+package com.borsibaar.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Sale count and revenue of one user at one bar station within one hour,
+ * maintained by {@code SalesService} in the same transaction as the sale.
+ */
+@Entity
+@Table(name = "sales_rollups")
+@IdClass(SalesRollup.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+public class SalesRollup {
+
+    /** Stored instead of NULL for sales made without a bar station, so it can be part of the key. */
+    public static final long NO_STATION = 0L;
+
+    @Id
+    @Column(name = "organization_id")
+    private Long organizationId;
+
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Id
+    @Column(name = "bar_station_id")
+    private Long barStationId;
+
+    @Id
+    @Column(name = "bucket_start")
+    private OffsetDateTime bucketStart;
+
+    @Column(name = "sale_count", nullable = false)
+    private long saleCount;
+
+    @Column(name = "revenue", nullable = false, precision = 19, scale = 4)
+    private BigDecimal revenue;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private Long organizationId;
+        private UUID userId;
+        private Long barStationId;
+        private OffsetDateTime bucketStart;
+    }
+}
@@ -0,0 +1,8 @@
+package com.borsibaar.event;
+
+/**
+ * Published when products are added to or removed from an organization's
+ * board, so cached boards can be rebuilt.
+ */
+public record CatalogChangedEvent(Long organizationId) {
+}
@@ -0,0 +1,30 @@
+package com.borsibaar.event;
+
+import com.borsibaar.entity.Inventory;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * Published whenever an inventory row's quantity or current price changes.
+ * Listeners that push updates to clients consume it after the surrounding
+ * transaction has committed.
+ */
+public record InventoryChangedEvent(
+        Long organizationId,
+        Long inventoryId,
+        Long productId,
+        BigDecimal quantity,
+        BigDecimal unitPrice,
+        OffsetDateTime updatedAt) {
+
+    public static InventoryChangedEvent of(Inventory inventory, BigDecimal unitPrice) {
+        return new InventoryChangedEvent(
+                inventory.getOrganizationId(),
+                inventory.getId(),
+                inventory.getProduct() != null ? inventory.getProduct().getId() : inventory.getProductId(),
+                inventory.getQuantity(),
+                unitPrice,
+                inventory.getUpdatedAt());
+    }
+}
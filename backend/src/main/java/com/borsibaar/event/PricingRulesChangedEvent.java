@@ -0,0 +1,8 @@
+package com.borsibaar.event;
+
+/**
+ * Published when an organization's price steps change, so cached pricing
+ * rules are reloaded.
+ */
+public record PricingRulesChangedEvent(Long organizationId) {
+}
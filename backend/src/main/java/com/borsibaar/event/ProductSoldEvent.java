@@ -0,0 +1,8 @@
+package com.borsibaar.event;
+
+/**
+ * Published for every sold line, so in-memory sale counters only count
+ * sales that committed.
+ */
+public record ProductSoldEvent(Long organizationId, Long productId) {
+}
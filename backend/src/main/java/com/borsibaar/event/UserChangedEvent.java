@@ -0,0 +1,8 @@
+package com.borsibaar.event;
+
+/**
+ * Published when a user's organization, role or profile changes, so cached
+ * principals for that user are dropped.
+ */
+public record UserChangedEvent(String email) {
+}
@@ -5,6 +5,7 @@ import jakarta.validation.ConstraintViolationException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.ErrorResponseException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -107,6 +108,16 @@ public class ApiExceptionHandler {
                                 request.getRequestURI());
         }
 
+        @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+        public ProblemDetail handleOptimisticLock(ObjectOptimisticLockingFailureException exception,
+                        HttpServletRequest request) {
+                return buildProblemDetail(
+                                HttpStatus.CONFLICT,
+                                "Concurrent update",
+                                "The resource was changed by another request. Please retry.",
+                                request.getRequestURI());
+        }
+
         @ExceptionHandler(ResponseStatusException.class)
         public ProblemDetail handleResponseStatus(ResponseStatusException exception,
                         HttpServletRequest request) {
@@ -1,90 +1,146 @@
 package com.borsibaar.jobs;
 
-import com.borsibaar.entity.Inventory;
-import com.borsibaar.entity.InventoryTransaction;
-import com.borsibaar.entity.Product;
-import com.borsibaar.repository.*;
+import com.borsibaar.entity.Organization;
+import com.borsibaar.event.InventoryChangedEvent;
+import com.borsibaar.repository.InventoryRepository;
+import com.borsibaar.repository.InventoryRepository.PriceReduction;
+import com.borsibaar.repository.OrganizationRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.List;
-import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
 
+/**
+ * Lowers the price of products that stop selling, on each organization's own
+ * schedule ({@code Organization.priceDecayIntervalSeconds}): a product that
+ * went unsold for a whole interval while its organization kept selling drops
+ * one {@code priceDecreaseStep}.
+ * <p>
+ * The schedule lives in {@code organizations.price_decay_next_run_at}, so it
+ * is shared by every replica: a replica runs an organization only after it
+ * has claimed the due run with a conditional update, which exactly one
+ * replica wins. Nothing is assigned to a node, so when a replica dies the
+ * others simply claim its organizations on their next poll.
+ * <p>
+ * Claimed runs go to a worker shard picked by organization id, so a slow
+ * organization only delays the others on its shard. An organization is never
+ * run twice at once by the same replica, and every next run is pushed back by
+ * a random jitter so organizations with the same interval do not all hit the
+ * database in the same second.
+ */
+@Slf4j
 @Service
 public class PriceCorrectionJob {
 
     private final InventoryRepository inventoryRepository;
-    private final InventoryTransactionRepository inventoryTransactionRepository;
-    private final ProductRepository productRepository;
+    private final OrganizationRepository organizationRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final List<ExecutorService> shards;
+    private final long maxJitterMs;
+    private final Clock clock;
 
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+
+    @Autowired
     public PriceCorrectionJob(InventoryRepository inventoryRepository,
-            InventoryTransactionRepository inventoryTransactionRepository,
-            ProductRepository productRepository) {
-        this.inventoryRepository = inventoryRepository;
-        this.inventoryTransactionRepository = inventoryTransactionRepository;
-        this.productRepository = productRepository;
+            OrganizationRepository organizationRepository,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${app.price-decay.workers:4}") int workers,
+            @Value("${app.price-decay.max-jitter-ms:2000}") long maxJitterMs) {
+        this(inventoryRepository, organizationRepository, eventPublisher,
+                IntStream.range(0, workers)
+                        .mapToObj(i -> Executors.newSingleThreadExecutor(
+                                Thread.ofVirtual().name("price-decay-" + i).factory()))
+                        .toList(),
+                maxJitterMs, Clock.systemDefaultZone());
     }
 
-    @Scheduled(cron = "0 * * * * *")
-    public void adjustPrices() {
-        System.out.println("Running price reduction job");
-        List<Product> inactiveProducts = productRepository.findByActiveOrgAndInactiveSalesLastMinute();
-
-        if (inactiveProducts.isEmpty()) {
-            System.out.println("No product prices to update automatically");
-            return;
-        }
-
-        int updatedCount = 0;
-        for (Product product : inactiveProducts) {
-            Inventory inventory = Optional.ofNullable(product.getInventory())
-                    .orElseGet(() -> {
-                        Inventory newInv = new Inventory();
-                        newInv.setOrganizationId(product.getOrganizationId());
-                        newInv.setProduct(product);
-                        newInv.setQuantity(BigDecimal.ZERO);
-                        newInv.setAdjustedPrice(product.getBasePrice());
-                        newInv.setCreatedAt(OffsetDateTime.now());
-                        newInv.setUpdatedAt(OffsetDateTime.now());
-                        return newInv;
-                    });
+    PriceCorrectionJob(InventoryRepository inventoryRepository,
+            OrganizationRepository organizationRepository,
+            ApplicationEventPublisher eventPublisher,
+            List<ExecutorService> shards, long maxJitterMs, Clock clock) {
+        this.inventoryRepository = inventoryRepository;
+        this.organizationRepository = organizationRepository;
+        this.eventPublisher = eventPublisher;
+        this.shards = shards;
+        this.maxJitterMs = maxJitterMs;
+        this.clock = clock;
+    }
 
-            BigDecimal decreaseAmount = product.getOrganization().getPriceDecreaseStep();
-            BigDecimal minPrice = Optional.ofNullable(product.getMinPrice()).orElse(decreaseAmount);
-            BigDecimal currentPrice = Optional.ofNullable(inventory.getAdjustedPrice()).orElse(product.getBasePrice());
-            BigDecimal newPrice = currentPrice.subtract(decreaseAmount);
-            if (newPrice.compareTo(minPrice) < 0) {
-                newPrice = minPrice;
+    @Scheduled(initialDelayString = "${app.price-decay.poll-ms:1000}",
+            fixedDelayString = "${app.price-decay.poll-ms:1000}")
+    public void dispatch() {
+        OffsetDateTime now = OffsetDateTime.now(clock);
+        for (Organization organization : organizationRepository.findDueForPriceDecay(now)) {
+            Long organizationId = organization.getId();
+            if (running.contains(organizationId)) {
+                continue;
             }
-
-            if (newPrice.compareTo(currentPrice) == 0) {
-                // already at lowest price
+            int intervalSeconds = organization.getPriceDecayIntervalSeconds();
+            OffsetDateTime nextRunAt = now.plusSeconds(intervalSeconds).plus(Duration.ofMillis(jitter()));
+            // Whoever moves the schedule forward owns this run; other replicas update 0 rows
+            if (organizationRepository.claimPriceDecayRun(organizationId, now, nextRunAt) == 0) {
                 continue;
             }
+            running.add(organizationId);
+            shards.get(Math.floorMod(organizationId, shards.size())).execute(() -> {
+                try {
+                    adjustPrices(organizationId, intervalSeconds);
+                } catch (RuntimeException e) {
+                    log.error("Price reduction failed for organization {}", organizationId, e);
+                } finally {
+                    running.remove(organizationId);
+                }
+            });
+        }
+    }
 
-            inventory.setAdjustedPrice(newPrice);
-            inventory.setUpdatedAt(OffsetDateTime.now());
-            inventory = inventoryRepository.save(inventory);
-
-            // Create price reduction transaction
-            InventoryTransaction transaction = new InventoryTransaction();
-            transaction.setInventory(inventory);
-            transaction.setTransactionType("ADJUSTMENT");
-            transaction.setQuantityChange(BigDecimal.ZERO);
-            transaction.setQuantityBefore(inventory.getQuantity());
-            transaction.setQuantityAfter(inventory.getQuantity());
-            transaction.setPriceBefore(currentPrice);
-            transaction.setPriceAfter(newPrice);
-            transaction.setReferenceId("REDUCE-" + System.currentTimeMillis());
-            transaction.setNotes("PriceCorrectionJob");
-            transaction.setCreatedBy(null);
-            transaction.setCreatedAt(OffsetDateTime.now());
-            inventoryTransactionRepository.save(transaction);
+    /**
+     * Lowers the price of every product of the organization that went unsold
+     * for the last {@code lookbackSeconds}, in one set-based statement. Each
+     * reduction is recorded as a price tick stamped with the run's time.
+     */
+    public int adjustPrices(Long organizationId, int lookbackSeconds) {
+        OffsetDateTime now = OffsetDateTime.now(clock);
+        List<PriceReduction> reductions = inventoryRepository.applyPriceDecay(organizationId,
+                now.minusSeconds(lookbackSeconds), now);
 
-            updatedCount++;
+        // The statement has committed; push the new prices to connected clients
+        for (PriceReduction reduction : reductions) {
+            eventPublisher.publishEvent(new InventoryChangedEvent(
+                    reduction.getOrganizationId(),
+                    reduction.getInventoryId(),
+                    reduction.getProductId(),
+                    reduction.getQuantity(),
+                    reduction.getUnitPrice(),
+                    now));
+        }
+        if (!reductions.isEmpty()) {
+            log.info("Updated prices of {} products for organization {}", reductions.size(), organizationId);
         }
-        System.out.println("Updated prices of " + updatedCount + " products.");
+        return reductions.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shards.forEach(ExecutorService::shutdownNow);
+    }
+
+    private long jitter() {
+        return maxJitterMs > 0 ? ThreadLocalRandom.current().nextLong(maxJitterMs + 1) : 0;
     }
 }
@@ -0,0 +1,64 @@
+package com.borsibaar.jobs;
+
+import com.borsibaar.repository.InventoryTransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * Keeps monthly partitions of {@code inventory_transactions} ready ahead of
+ * time: the current month and the next {@code app.transaction-partitions.months-ahead}.
+ * Runs at startup and once a day, so a partition exists long before its first
+ * row arrives. Rows without one go to the default partition; the database
+ * function moves them into their month's partition when it creates it, which
+ * locks the whole table for the move, so failures are logged as errors.
+ * <p>
+ * Every replica runs it; the database function serializes them and skips
+ * partitions that already exist. Months are UTC, like the partition bounds.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.transaction-partitions.enabled", havingValue = "true", matchIfMissing = true)
+public class TransactionPartitionJob {
+
+    private final InventoryTransactionRepository inventoryTransactionRepository;
+    private final int monthsAhead;
+    private final Clock clock;
+
+    @Autowired
+    public TransactionPartitionJob(InventoryTransactionRepository inventoryTransactionRepository,
+            @Value("${app.transaction-partitions.months-ahead:3}") int monthsAhead) {
+        this(inventoryTransactionRepository, monthsAhead, Clock.systemUTC());
+    }
+
+    TransactionPartitionJob(InventoryTransactionRepository inventoryTransactionRepository, int monthsAhead,
+            Clock clock) {
+        this.inventoryTransactionRepository = inventoryTransactionRepository;
+        this.monthsAhead = monthsAhead;
+        this.clock = clock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.transaction-partitions.cron:0 17 3 * * *}", zone = "UTC")
+    public void createUpcomingPartitions() {
+        LocalDate today = LocalDate.now(clock.withZone(ZoneOffset.UTC));
+        try {
+            int created = inventoryTransactionRepository.createMonthlyPartitions(today, today.plusMonths(monthsAhead));
+            if (created > 0) {
+                log.info("Created {} inventory transaction partition(s) up to {}", created,
+                        today.plusMonths(monthsAhead).withDayOfMonth(1));
+            }
+        } catch (RuntimeException e) {
+            log.error("Creating inventory transaction partitions failed; new rows go to the default partition", e);
+        }
+    }
+}
@@ -17,6 +17,9 @@ public interface OrganizationMapper {
     @Mapping(target = "updatedAt", ignore = true) // set in service
     @Mapping(target = "priceIncreaseStep", source = "priceIncreaseStep")
     @Mapping(target = "priceDecreaseStep", source = "priceDecreaseStep")
+    @Mapping(target = "priceDecayIntervalSeconds", source = "priceDecayIntervalSeconds", defaultValue = "60")
+    @Mapping(target = "lazyPriceDecay", source = "lazyPriceDecay", defaultValue = "false")
+    @Mapping(target = "priceDecayNextRunAt", ignore = true)
     Organization toEntity(OrganizationRequestDto request);
 
     OrganizationResponseDto toResponse(Organization organization);
@@ -27,5 +30,6 @@ public interface OrganizationMapper {
     @Mapping(target = "updatedAt", ignore = true)
     @Mapping(target = "priceIncreaseStep", source = "priceIncreaseStep")
     @Mapping(target = "priceDecreaseStep", source = "priceDecreaseStep")
+    @Mapping(target = "priceDecayNextRunAt", ignore = true)
     void updateEntity(@MappingTarget Organization target, OrganizationRequestDto source);
 }
@@ -12,6 +12,8 @@ public interface BarStationRepository extends JpaRepository<BarStation, Long> {
     List<BarStation> findByOrganizationId(Long organizationId);
     
     Optional<BarStation> findByOrganizationIdAndId(Long organizationId, Long id);
+
+    boolean existsByOrganizationIdAndId(Long organizationId, Long id);
     
     List<BarStation> findByOrganizationIdAndIsActiveTrue(Long organizationId);
 }
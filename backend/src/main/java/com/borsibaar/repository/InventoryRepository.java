@@ -1,11 +1,17 @@
 package com.borsibaar.repository;
 
 import com.borsibaar.entity.Inventory;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,10 +21,121 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long> {
 
     List<Inventory> findByOrganizationId(Long organizationId);
 
-    @Query("SELECT i FROM Inventory i JOIN Product p ON i.productId = p.id " +
-            "WHERE i.organizationId = :organizationId AND p.categoryId = :categoryId")
-    List<Inventory> findByOrganizationIdAndCategoryId(@Param("organizationId") Long organizationId,
+    /**
+     * Loads the organization's board in a single statement: inventory rows with
+     * their active product, category and organization fetch-joined, so mapping
+     * the result never triggers a per-row lookup.
+     */
+    @Query("""
+            SELECT i FROM Inventory i
+            JOIN FETCH i.product p
+            JOIN FETCH p.category
+            JOIN FETCH p.organization
+            WHERE i.organizationId = :organizationId
+            AND p.isActive = true
+            """)
+    List<Inventory> findBoardByOrganizationId(@Param("organizationId") Long organizationId);
+
+    @Query("""
+            SELECT i FROM Inventory i
+            JOIN FETCH i.product p
+            JOIN FETCH p.category
+            JOIN FETCH p.organization
+            WHERE i.organizationId = :organizationId
+            AND p.categoryId = :categoryId
+            AND p.isActive = true
+            """)
+    List<Inventory> findBoardByOrganizationIdAndCategoryId(@Param("organizationId") Long organizationId,
             @Param("categoryId") Long categoryId);
 
     boolean existsByProductId(Long productId);
+
+    /**
+     * Reads the products' inventory rows with {@code SELECT ... FOR UPDATE}, so
+     * concurrent sales of the same product queue up on the row instead of
+     * overwriting each other's quantity and price. Rows are locked in id order,
+     * which keeps baskets with overlapping products from deadlocking. Must be
+     * called before the rows are loaded any other way in the same transaction,
+     * otherwise the already-managed (possibly stale) instances are returned.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Inventory i WHERE i.productId IN :productIds ORDER BY i.id")
+    List<Inventory> findAllByProductIdInForUpdate(@Param("productIds") Collection<Long> productIds);
+
+    /**
+     * Applies one decay step to every dynamically priced product of the
+     * organization that went unsold since {@code since} while the organization
+     * itself kept selling, in a single statement: the new price is clamped to
+     * the product's minimum (or to one step when no minimum is set), the rows
+     * are bumped like any other versioned update, and a price tick is written
+     * for each changed row. Rows are locked in id order, the same order sales
+     * use. Organizations with lazy decay are left alone: their prices decay
+     * when they are read.
+     * <p>
+     * "Unsold" is read from {@code inventory.last_sold_at}, which every sale
+     * stamps on the row it already locks, so eligibility never scans the
+     * transaction history. It stays in the database rather than in per-instance
+     * sale counters because the run may be claimed by any replica.
+     * <p>
+     * PostgreSQL only (data-modifying CTE). Returns the rows that changed.
+     */
+    @Transactional
+    @Query(value = """
+            WITH eligible AS (
+              SELECT inv.id,
+                     COALESCE(inv.adjusted_price, p.base_price) AS price_before,
+                     GREATEST(COALESCE(inv.adjusted_price, p.base_price) - o.price_decrease_step,
+                              COALESCE(p.min_price, o.price_decrease_step)) AS price_after
+              FROM inventory inv
+              JOIN products p ON p.id = inv.product_id
+              JOIN categories cat ON cat.id = p.category_id
+              JOIN organizations o ON o.id = p.organization_id
+              WHERE inv.organization_id = :organizationId
+                AND cat.dynamic_pricing = TRUE
+                AND o.lazy_price_decay = FALSE
+                AND (inv.last_sold_at IS NULL OR inv.last_sold_at < :since)
+                AND EXISTS (SELECT 1 FROM inventory sold
+                            WHERE sold.organization_id = :organizationId
+                              AND sold.last_sold_at >= :since)
+              ORDER BY inv.id
+              FOR UPDATE OF inv
+            ),
+            updated AS (
+              UPDATE inventory inv
+              SET adjusted_price = e.price_after,
+                  price_anchored_at = :now,
+                  updated_at = :now,
+                  version = inv.version + 1
+              FROM eligible e
+              WHERE inv.id = e.id
+                AND e.price_after <> e.price_before
+              RETURNING inv.id, inv.organization_id, inv.product_id, inv.quantity, e.price_before, e.price_after
+            ),
+            ticked AS (
+              INSERT INTO price_ticks (inventory_id, ts, price)
+              SELECT id, :now, price_after
+              FROM updated
+            )
+            SELECT id AS "inventoryId",
+                   organization_id AS "organizationId",
+                   product_id AS "productId",
+                   quantity AS "quantity",
+                   price_after AS "unitPrice"
+            FROM updated
+            """, nativeQuery = true)
+    List<PriceReduction> applyPriceDecay(@Param("organizationId") Long organizationId,
+            @Param("since") OffsetDateTime since,
+            @Param("now") OffsetDateTime now);
+
+    interface PriceReduction {
+        Long getInventoryId();
+
+        Long getOrganizationId();
+
+        Long getProductId();
+
+        BigDecimal getQuantity();
+
+        BigDecimal getUnitPrice();
+    }
 }
@@ -1,38 +1,221 @@
 package com.borsibaar.repository;
 
 import com.borsibaar.entity.InventoryTransaction;
+import com.borsibaar.repository.SalesRollupRepository.SalesTotals;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.util.List;
-import java.util.Optional;
+import java.util.UUID;
 
+/**
+ * {@code inventory_transactions} is range partitioned by month of
+ * {@code created_at}: every query here is bounded by time, so PostgreSQL only
+ * reads the partitions of the months it asks for, however much history there is.
+ */
 @Repository
 public interface InventoryTransactionRepository extends JpaRepository<InventoryTransaction, Long> {
 
-    List<InventoryTransaction> findByInventoryIdOrderByCreatedAtDesc(Long inventoryId);
+    /** Newest transactions of an inventory created at or after {@code since}. */
+    @Query("""
+            SELECT it.id AS id, it.inventoryId AS inventoryId, it.transactionType AS transactionType,
+                   it.quantityChange AS quantityChange, it.quantityBefore AS quantityBefore,
+                   it.quantityAfter AS quantityAfter, it.priceBefore AS priceBefore,
+                   it.priceAfter AS priceAfter, it.referenceId AS referenceId, it.notes AS notes,
+                   it.createdBy AS createdBy, it.createdAt AS createdAt
+            FROM InventoryTransaction it
+            WHERE it.inventoryId = :inventoryId
+            AND it.createdAt >= :since
+            ORDER BY it.createdAt DESC, it.id DESC
+            """)
+    List<HistoryEntry> findHistory(@Param("inventoryId") Long inventoryId,
+            @Param("since") OffsetDateTime since,
+            Pageable page);
+
+    /** Same as {@link #findHistory}, continuing after the last entry of the previous page. */
+    @Query("""
+            SELECT it.id AS id, it.inventoryId AS inventoryId, it.transactionType AS transactionType,
+                   it.quantityChange AS quantityChange, it.quantityBefore AS quantityBefore,
+                   it.quantityAfter AS quantityAfter, it.priceBefore AS priceBefore,
+                   it.priceAfter AS priceAfter, it.referenceId AS referenceId, it.notes AS notes,
+                   it.createdBy AS createdBy, it.createdAt AS createdAt
+            FROM InventoryTransaction it
+            WHERE it.inventoryId = :inventoryId
+            AND it.createdAt >= :since
+            AND (it.createdAt < :beforeCreatedAt
+                 OR (it.createdAt = :beforeCreatedAt AND it.id < :beforeId))
+            ORDER BY it.createdAt DESC, it.id DESC
+            """)
+    List<HistoryEntry> findHistoryBefore(@Param("inventoryId") Long inventoryId,
+            @Param("since") OffsetDateTime since,
+            @Param("beforeCreatedAt") OffsetDateTime beforeCreatedAt,
+            @Param("beforeId") Long beforeId,
+            Pageable page);
 
-    Optional<InventoryTransaction> findFirstByInventoryIdOrderByCreatedAtDesc(Long inventoryId);
+    /**
+     * OHLC price buckets of an inventory in {@code [from, to)}, one row per
+     * non-empty bucket, over its transactions and price ticks. A bucket is
+     * identified by {@code floor(epoch seconds / bucketSeconds)}. The open is
+     * the price before the bucket's first change, or null when that change is
+     * a price tick (which does not keep it).
+     */
+    @Query(value = """
+            SELECT b.bucket AS "bucket",
+                   MAX(CASE WHEN b.first_in_bucket = 1 THEN b.price_before END) AS "open",
+                   MAX(GREATEST(COALESCE(b.price_before, b.price_after), b.price_after)) AS "high",
+                   MIN(LEAST(COALESCE(b.price_before, b.price_after), b.price_after)) AS "low",
+                   MAX(CASE WHEN b.last_in_bucket = 1 THEN b.price_after END) AS "close",
+                   COUNT(*) AS "changes"
+            FROM (
+                SELECT FLOOR(EXTRACT(EPOCH FROM c.ts) / :bucketSeconds) AS bucket,
+                       c.price_before,
+                       c.price_after,
+                       ROW_NUMBER() OVER (PARTITION BY FLOOR(EXTRACT(EPOCH FROM c.ts) / :bucketSeconds)
+                                          ORDER BY c.ts, c.id) AS first_in_bucket,
+                       ROW_NUMBER() OVER (PARTITION BY FLOOR(EXTRACT(EPOCH FROM c.ts) / :bucketSeconds)
+                                          ORDER BY c.ts DESC, c.id DESC) AS last_in_bucket
+                FROM (
+                    SELECT it.created_at AS ts, it.id, it.price_before, it.price_after
+                    FROM inventory_transactions it
+                    WHERE it.inventory_id = :inventoryId
+                      AND it.created_at >= :from
+                      AND it.created_at < :to
+                    UNION ALL
+                    SELECT pt.ts, 0, NULL, pt.price
+                    FROM price_ticks pt
+                    WHERE pt.inventory_id = :inventoryId
+                      AND pt.ts >= :from
+                      AND pt.ts < :to
+                ) c
+            ) b
+            GROUP BY b.bucket
+            ORDER BY b.bucket
+            """, nativeQuery = true)
+    List<PriceBucket> findPriceBuckets(@Param("inventoryId") Long inventoryId,
+            @Param("from") OffsetDateTime from,
+            @Param("to") OffsetDateTime to,
+            @Param("bucketSeconds") long bucketSeconds);
 
-    List<InventoryTransaction> findByReferenceId(String referenceId);
+    /**
+     * Newest prices before {@code before}, from transactions and price ticks.
+     * Unbounded towards the past, but with a page of one each side stops at
+     * its newest row.
+     */
+    @Query(value = """
+            SELECT p.price FROM (
+                (SELECT it.price_after AS price, it.created_at AS ts, it.id AS id
+                 FROM inventory_transactions it
+                 WHERE it.inventory_id = :inventoryId
+                   AND it.created_at < :before
+                 ORDER BY it.created_at DESC, it.id DESC
+                 LIMIT 1)
+                UNION ALL
+                (SELECT pt.price, pt.ts, 0
+                 FROM price_ticks pt
+                 WHERE pt.inventory_id = :inventoryId
+                   AND pt.ts < :before
+                 ORDER BY pt.ts DESC
+                 LIMIT 1)
+            ) p
+            ORDER BY p.ts DESC, p.id DESC
+            """, nativeQuery = true)
+    List<BigDecimal> findPricesBefore(@Param("inventoryId") Long inventoryId,
+            @Param("before") OffsetDateTime before,
+            Pageable page);
 
+    /**
+     * Sale count and charged revenue per user and bar station (0 = none) for
+     * sales in {@code [from, to)}, aggregated by the database.
+     */
     @Query("""
-            SELECT it FROM InventoryTransaction it
-            JOIN Inventory i ON it.inventoryId = i.id
+            SELECT it.createdBy AS userId,
+                   COALESCE(it.barStationId, 0) AS barStationId,
+                   COUNT(DISTINCT it.referenceId) AS saleCount,
+                   COALESCE(SUM(it.priceBefore * -it.quantityChange), 0) AS revenue
+            FROM InventoryTransaction it
+            JOIN Inventory i ON i.id = it.inventoryId
             WHERE i.organizationId = :organizationId
             AND it.transactionType = 'SALE'
-            ORDER BY it.createdAt DESC
+            AND it.createdBy IS NOT NULL
+            AND it.createdAt >= :from
+            AND it.createdAt < :to
+            GROUP BY it.createdBy, it.barStationId
             """)
-    List<InventoryTransaction> findSaleTransactionsByOrganizationId(@Param("organizationId") Long organizationId);
+    List<SalesTotals> sumSalesByUserAndStation(@Param("organizationId") Long organizationId,
+            @Param("from") OffsetDateTime from,
+            @Param("to") OffsetDateTime to);
 
-    @Query(value = """
-              SELECT DISTINCT i.organizationId
-              FROM InventoryTransaction it
-              JOIN Inventory i ON i.id = it.inventoryId
-              WHERE it.transactionType = 'SALE'
-                AND it.createdAt >= (CURRENT_TIMESTAMP - 60 SECOND)
+    @Query("""
+            SELECT it.barStationId AS barStationId,
+                   COUNT(DISTINCT it.referenceId) AS saleCount,
+                   COALESCE(SUM(it.priceBefore * -it.quantityChange), 0) AS revenue
+            FROM InventoryTransaction it
+            JOIN Inventory i ON i.id = it.inventoryId
+            WHERE i.organizationId = :organizationId
+            AND it.transactionType = 'SALE'
+            AND it.barStationId IS NOT NULL
+            AND it.createdAt >= :from
+            AND it.createdAt < :to
+            GROUP BY it.barStationId
             """)
-    List<Long> findOrganizationIdsWithSalesInLastMinute();
+    List<SalesTotals> sumSalesByStation(@Param("organizationId") Long organizationId,
+            @Param("from") OffsetDateTime from,
+            @Param("to") OffsetDateTime to);
+
+    /**
+     * Creates the missing monthly partitions from the month of {@code fromDate}
+     * through the month of {@code toDate}; returns how many it created. Rows
+     * of a created month that sat in the default partition are moved into it.
+     * PostgreSQL only.
+     */
+    @Transactional
+    @Query(value = "SELECT create_inventory_transaction_partitions(:fromDate, :toDate)", nativeQuery = true)
+    int createMonthlyPartitions(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    interface HistoryEntry {
+        Long getId();
+
+        Long getInventoryId();
+
+        String getTransactionType();
+
+        BigDecimal getQuantityChange();
+
+        BigDecimal getQuantityBefore();
+
+        BigDecimal getQuantityAfter();
+
+        BigDecimal getPriceBefore();
+
+        BigDecimal getPriceAfter();
+
+        String getReferenceId();
+
+        String getNotes();
+
+        UUID getCreatedBy();
+
+        OffsetDateTime getCreatedAt();
+    }
+
+    interface PriceBucket {
+        Long getBucket();
+
+        BigDecimal getOpen();
+
+        BigDecimal getHigh();
+
+        BigDecimal getLow();
+
+        BigDecimal getClose();
+
+        Long getChanges();
+    }
 }
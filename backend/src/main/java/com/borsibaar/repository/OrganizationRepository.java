@@ -2,6 +2,39 @@ package com.borsibaar.repository;
 
 import com.borsibaar.entity.Organization;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
 
 public interface OrganizationRepository extends JpaRepository<Organization, Long> {
+
+    /** Organizations whose decay job is due; lazily decaying ones never are. */
+    @Query("""
+            SELECT o FROM Organization o
+            WHERE o.lazyPriceDecay = false
+            AND (o.priceDecayNextRunAt IS NULL OR o.priceDecayNextRunAt <= :now)
+            """)
+    List<Organization> findDueForPriceDecay(@Param("now") OffsetDateTime now);
+
+    /**
+     * Moves the organization's decay schedule forward if the run is still due.
+     * Only one caller can win a given run: replicas racing for it see 0 rows
+     * updated once the first one has pushed {@code price_decay_next_run_at}
+     * into the future.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE organizations
+            SET price_decay_next_run_at = :nextRunAt
+            WHERE id = :organizationId
+              AND (price_decay_next_run_at IS NULL OR price_decay_next_run_at <= :now)
+            """, nativeQuery = true)
+    int claimPriceDecayRun(@Param("organizationId") Long organizationId,
+            @Param("now") OffsetDateTime now,
+            @Param("nextRunAt") OffsetDateTime nextRunAt);
 }
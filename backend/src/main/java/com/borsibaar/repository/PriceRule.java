@@ -0,0 +1,136 @@
+package com.borsibaar.repository;
+
+import com.borsibaar.entity.Inventory;
+import com.borsibaar.entity.Organization;
+import com.borsibaar.entity.Product;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+/**
+ * Everything a sale needs to know about a product to validate the line and
+ * price it, flattened from the product, its category and its organization.
+ * Loaded by {@link ProductRepository#findPriceRulesByOrganizationId}.
+ */
+public record PriceRule(
+        Long productId,
+        String name,
+        boolean active,
+        boolean dynamicPricing,
+        BigDecimal basePrice,
+        BigDecimal maxPrice,
+        BigDecimal increaseStep,
+        BigDecimal minPrice,
+        BigDecimal decreaseStep,
+        Integer decayIntervalSeconds,
+        boolean lazyDecay) {
+
+    /** A rule for an organization whose prices are lowered by the decay job. */
+    public PriceRule(Long productId, String name, boolean active, boolean dynamicPricing,
+            BigDecimal basePrice, BigDecimal maxPrice, BigDecimal increaseStep) {
+        this(productId, name, active, dynamicPricing, basePrice, maxPrice, increaseStep, null, null, null, false);
+    }
+
+    public BigDecimal currentPrice(BigDecimal adjustedPrice) {
+        return adjustedPrice != null ? adjustedPrice : basePrice;
+    }
+
+    /**
+     * The price at {@code now}. With lazy decay the stored price is only an
+     * anchor, lowered here by the time that passed since {@code anchoredAt}.
+     */
+    public BigDecimal currentPrice(BigDecimal adjustedPrice, OffsetDateTime anchoredAt, OffsetDateTime now) {
+        BigDecimal price = currentPrice(adjustedPrice);
+        if (!lazyDecay || !dynamicPricing) {
+            return price;
+        }
+        return decayedPrice(price, anchoredAt, now, decreaseStep, decayIntervalSeconds, minPrice);
+    }
+
+    /**
+     * The current price of a product's inventory row, from the product with
+     * its category and organization; the same evaluation a sale prices with.
+     */
+    public static BigDecimal currentPrice(Inventory inventory, Product product, OffsetDateTime now) {
+        BigDecimal price = inventory.getAdjustedPrice() != null ? inventory.getAdjustedPrice() : product.getBasePrice();
+        Organization organization = product.getOrganization();
+        if (organization == null || !organization.isLazyPriceDecay()
+                || product.getCategory() == null || !product.getCategory().isDynamicPricing()) {
+            return price;
+        }
+        return decayedPrice(price, inventory.getPriceAnchoredAt(), now, organization.getPriceDecreaseStep(),
+                organization.getPriceDecayIntervalSeconds(), product.getMinPrice());
+    }
+
+    /**
+     * Lazy price decay: one {@code decreaseStep} off the anchor price for
+     * every full {@code intervalSeconds} since it was anchored, stopping at
+     * the floor the decay job stops at (the min price, or one step when there
+     * is none). A price already at or below the floor stays where it is.
+     */
+    public static BigDecimal decayedPrice(BigDecimal anchorPrice, OffsetDateTime anchoredAt, OffsetDateTime now,
+            BigDecimal decreaseStep, Integer intervalSeconds, BigDecimal minPrice) {
+        if (anchoredAt == null || decreaseStep == null || decreaseStep.signum() <= 0
+                || intervalSeconds == null || intervalSeconds <= 0) {
+            return anchorPrice;
+        }
+        long steps = Duration.between(anchoredAt, now).getSeconds() / intervalSeconds;
+        BigDecimal floor = minPrice != null ? minPrice : decreaseStep;
+        if (steps <= 0 || anchorPrice.compareTo(floor) <= 0) {
+            return anchorPrice;
+        }
+        return anchorPrice.subtract(decreaseStep.multiply(BigDecimal.valueOf(steps))).max(floor);
+    }
+
+    /**
+     * When the price of a product's inventory row next drops by itself, i.e.
+     * its next lazy decay step; null when it only changes through writes.
+     */
+    public static OffsetDateTime nextPriceChange(Inventory inventory, Product product, OffsetDateTime now) {
+        Organization organization = product.getOrganization();
+        if (organization == null || !organization.isLazyPriceDecay()
+                || product.getCategory() == null || !product.getCategory().isDynamicPricing()) {
+            return null;
+        }
+        BigDecimal price = inventory.getAdjustedPrice() != null ? inventory.getAdjustedPrice() : product.getBasePrice();
+        return nextDecayAt(price, inventory.getPriceAnchoredAt(), now, organization.getPriceDecreaseStep(),
+                organization.getPriceDecayIntervalSeconds(), product.getMinPrice());
+    }
+
+    /**
+     * The end of the decay interval {@code now} falls in, when
+     * {@link #decayedPrice} will take the next step off; null once the price
+     * has reached the floor.
+     */
+    public static OffsetDateTime nextDecayAt(BigDecimal anchorPrice, OffsetDateTime anchoredAt, OffsetDateTime now,
+            BigDecimal decreaseStep, Integer intervalSeconds, BigDecimal minPrice) {
+        if (anchoredAt == null || decreaseStep == null || decreaseStep.signum() <= 0
+                || intervalSeconds == null || intervalSeconds <= 0) {
+            return null;
+        }
+        BigDecimal floor = minPrice != null ? minPrice : decreaseStep;
+        if (decayedPrice(anchorPrice, anchoredAt, now, decreaseStep, intervalSeconds, minPrice).compareTo(floor) <= 0) {
+            return null;
+        }
+        long steps = Math.max(0, Duration.between(anchoredAt, now).getSeconds() / intervalSeconds);
+        return anchoredAt.plusSeconds((steps + 1) * intervalSeconds);
+    }
+
+    /** Dynamic products go up one step per sold line, capped at the max price. */
+    public BigDecimal priceAfterSale(BigDecimal priceBefore) {
+        return priceAfterSale(priceBefore, 0);
+    }
+
+    /** Like {@link #priceAfterSale(BigDecimal)}, with {@code extraSteps} more steps for a fast-selling product. */
+    public BigDecimal priceAfterSale(BigDecimal priceBefore, int extraSteps) {
+        if (!dynamicPricing) {
+            return priceBefore;
+        }
+        BigDecimal priceAfter = priceBefore.add(increaseStep.multiply(BigDecimal.valueOf(1L + extraSteps)));
+        if (maxPrice != null && priceAfter.compareTo(maxPrice) > 0) {
+            return maxPrice;
+        }
+        return priceAfter;
+    }
+}
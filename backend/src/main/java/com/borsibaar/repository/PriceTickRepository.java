@@ -0,0 +1,44 @@
+package com.borsibaar.repository;
+
+import com.borsibaar.entity.PriceTick;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@Repository
+public interface PriceTickRepository extends JpaRepository<PriceTick, PriceTick.Key> {
+
+    /** Newest price ticks of an inventory at or after {@code since}. */
+    @Query("""
+            SELECT pt FROM PriceTick pt
+            WHERE pt.inventoryId = :inventoryId
+            AND pt.ts >= :since
+            ORDER BY pt.ts DESC
+            """)
+    List<PriceTick> findHistory(@Param("inventoryId") Long inventoryId,
+            @Param("since") OffsetDateTime since,
+            Pageable page);
+
+    /**
+     * Same as {@link #findHistory}, continuing after the last entry of the
+     * previous history page. A tick sorts after the transactions made at the
+     * same instant, so it is still due when that entry was a transaction.
+     */
+    @Query("""
+            SELECT pt FROM PriceTick pt
+            WHERE pt.inventoryId = :inventoryId
+            AND pt.ts >= :since
+            AND (pt.ts < :beforeTs OR (pt.ts = :beforeTs AND :includeBeforeTs = TRUE))
+            ORDER BY pt.ts DESC
+            """)
+    List<PriceTick> findHistoryBefore(@Param("inventoryId") Long inventoryId,
+            @Param("since") OffsetDateTime since,
+            @Param("beforeTs") OffsetDateTime beforeTs,
+            @Param("includeBeforeTs") boolean includeBeforeTs,
+            Pageable page);
+}
@@ -0,0 +1,77 @@
+package com.borsibaar.repository;
+
+import com.borsibaar.entity.SalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, SalesRollup.Key> {
+
+    /**
+     * Makes sure the bucket row exists. Concurrent first sales of a bucket
+     * wait for each other here instead of failing on the primary key.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO sales_rollups (organization_id, user_id, bar_station_id, bucket_start, sale_count, revenue)
+            VALUES (:organizationId, :userId, :barStationId, :bucketStart, 0, 0)
+            ON CONFLICT DO NOTHING
+            """, nativeQuery = true)
+    void createBucketIfAbsent(@Param("organizationId") Long organizationId,
+            @Param("userId") UUID userId,
+            @Param("barStationId") Long barStationId,
+            @Param("bucketStart") OffsetDateTime bucketStart);
+
+    @Modifying
+    @Query(value = """
+            UPDATE sales_rollups
+            SET sale_count = sale_count + 1,
+                revenue = revenue + :revenue
+            WHERE organization_id = :organizationId
+              AND user_id = :userId
+              AND bar_station_id = :barStationId
+              AND bucket_start = :bucketStart
+            """, nativeQuery = true)
+    void addSale(@Param("organizationId") Long organizationId,
+            @Param("userId") UUID userId,
+            @Param("barStationId") Long barStationId,
+            @Param("bucketStart") OffsetDateTime bucketStart,
+            @Param("revenue") BigDecimal revenue);
+
+    @Query("""
+            SELECT r.userId AS userId, r.barStationId AS barStationId,
+                   SUM(r.saleCount) AS saleCount, SUM(r.revenue) AS revenue
+            FROM SalesRollup r
+            WHERE r.organizationId = :organizationId
+            GROUP BY r.userId, r.barStationId
+            """)
+    List<SalesTotals> sumByUserAndStation(@Param("organizationId") Long organizationId);
+
+    @Query("""
+            SELECT r.barStationId AS barStationId,
+                   SUM(r.saleCount) AS saleCount, SUM(r.revenue) AS revenue
+            FROM SalesRollup r
+            WHERE r.organizationId = :organizationId
+            AND r.barStationId <> 0
+            GROUP BY r.barStationId
+            """)
+    List<SalesTotals> sumByStation(@Param("organizationId") Long organizationId);
+
+    interface SalesTotals {
+        UUID getUserId();
+
+        Long getBarStationId();
+
+        Long getSaleCount();
+
+        BigDecimal getRevenue();
+    }
+}
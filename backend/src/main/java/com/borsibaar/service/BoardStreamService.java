@@ -0,0 +1,305 @@
+package com.borsibaar.service;
+
+import com.borsibaar.dto.PriceBoardDeltaDto;
+import com.borsibaar.dto.PriceBoardResponseDto;
+import com.borsibaar.event.CatalogChangedEvent;
+import com.borsibaar.event.InventoryChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes price board changes to connected displays over Server-Sent Events.
+ * <p>
+ * Every subscriber gets a full snapshot on connect (including reconnects with
+ * {@code Last-Event-ID}), then "delta" events carrying the latest quantity and
+ * price of each changed product. Deltas are queued per subscriber and
+ * coalesced by product, so a slow client only ever receives the newest value;
+ * once its queue exceeds {@code app.board-stream.max-pending} the queue is
+ * dropped and the client is sent a fresh snapshot instead.
+ * <p>
+ * Snapshots are cached per organization and rebuilt at most once per change,
+ * so viewers do not read the database themselves. With lazy decay prices also
+ * drop without any change being published; such a snapshot expires when its
+ * first price drops, and open streams are then sent a fresh one.
+ */
+@Slf4j
+@Service
+public class BoardStreamService {
+
+    private final InventoryService inventoryService;
+    private final ExecutorService sender;
+    private final long emitterTimeoutMs;
+    private final int maxPendingDeltas;
+    private final Clock clock;
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Map<Long, PriceBoardResponseDto> snapshots = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLong> sequences = new ConcurrentHashMap<>();
+    /** When each organization's last snapshot said its first lazily decaying price drops. */
+    private final Map<Long, OffsetDateTime> pricesChangeAt = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BoardStreamService(InventoryService inventoryService,
+            @Value("${app.board-stream.timeout-ms:1800000}") long emitterTimeoutMs,
+            @Value("${app.board-stream.max-pending:256}") int maxPendingDeltas) {
+        this(inventoryService, Executors.newVirtualThreadPerTaskExecutor(), emitterTimeoutMs, maxPendingDeltas,
+                Clock.systemUTC());
+    }
+
+    BoardStreamService(InventoryService inventoryService, ExecutorService sender,
+            long emitterTimeoutMs, int maxPendingDeltas, Clock clock) {
+        this.inventoryService = inventoryService;
+        this.sender = sender;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.maxPendingDeltas = maxPendingDeltas;
+        this.clock = clock;
+    }
+
+    public SseEmitter subscribe(Long organizationId) {
+        SseEmitter emitter = createEmitter();
+        Subscriber subscriber = new Subscriber(organizationId, emitter);
+        subscribers.compute(organizationId, (id, orgSubscribers) -> {
+            Set<Subscriber> result = orgSubscribers != null ? orgSubscribers : ConcurrentHashMap.newKeySet();
+            result.add(subscriber);
+            return result;
+        });
+
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> unsubscribe(subscriber));
+
+        subscriber.requestSnapshot();
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        Long organizationId = event.organizationId();
+        long eventId = sequence(organizationId).incrementAndGet();
+        snapshots.remove(organizationId);
+
+        Set<Subscriber> orgSubscribers = subscribers.get(organizationId);
+        if (orgSubscribers == null || orgSubscribers.isEmpty()) {
+            return;
+        }
+        PriceBoardDeltaDto delta = new PriceBoardDeltaDto(
+                event.inventoryId(),
+                event.productId(),
+                event.quantity(),
+                event.unitPrice(),
+                event.updatedAt() != null ? event.updatedAt().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME) : null);
+        for (Subscriber subscriber : orgSubscribers) {
+            subscriber.offer(delta, eventId);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        Long organizationId = event.organizationId();
+        sequence(organizationId).incrementAndGet();
+        snapshots.remove(organizationId);
+
+        Set<Subscriber> orgSubscribers = subscribers.get(organizationId);
+        if (orgSubscribers != null) {
+            orgSubscribers.forEach(Subscriber::requestSnapshot);
+        }
+    }
+
+    /**
+     * Sends a fresh snapshot to the streams of every organization whose
+     * lazily decayed prices dropped since its snapshot was built. Costs one
+     * board read per drop, shared by all of the organization's streams.
+     */
+    @Scheduled(fixedRateString = "${app.board-stream.decay-check-ms:1000}")
+    public void refreshDecayedBoards() {
+        OffsetDateTime now = OffsetDateTime.now(clock);
+        for (Map.Entry<Long, OffsetDateTime> entry : pricesChangeAt.entrySet()) {
+            Long organizationId = entry.getKey();
+            if (entry.getValue().isAfter(now) || !pricesChangeAt.remove(organizationId, entry.getValue())) {
+                continue;
+            }
+            sequence(organizationId).incrementAndGet();
+            snapshots.remove(organizationId);
+
+            Set<Subscriber> orgSubscribers = subscribers.get(organizationId);
+            if (orgSubscribers != null) {
+                orgSubscribers.forEach(Subscriber::requestSnapshot);
+            }
+        }
+    }
+
+    /**
+     * Keeps idle connections open through proxies that drop silent streams.
+     */
+    @Scheduled(fixedRateString = "${app.board-stream.heartbeat-ms:20000}")
+    public void heartbeat() {
+        subscribers.values().forEach(orgSubscribers -> orgSubscribers.forEach(Subscriber::requestHeartbeat));
+    }
+
+    public int subscriberCount(Long organizationId) {
+        Set<Subscriber> orgSubscribers = subscribers.get(organizationId);
+        return orgSubscribers != null ? orgSubscribers.size() : 0;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(orgSubscribers -> orgSubscribers.forEach(s -> s.emitter.complete()));
+        subscribers.clear();
+        sender.shutdownNow();
+    }
+
+    SseEmitter createEmitter() {
+        return new SseEmitter(emitterTimeoutMs);
+    }
+
+    private PriceBoardResponseDto snapshot(Long organizationId) {
+        PriceBoardResponseDto cached = snapshots.get(organizationId);
+        if (cached != null && (cached.pricesChangeAt() == null
+                || cached.pricesChangeAt().isAfter(OffsetDateTime.now(clock)))) {
+            return cached;
+        }
+        // Only cache the board if no change was committed while it was being read
+        long sequenceBefore = sequence(organizationId).get();
+        PriceBoardResponseDto board = inventoryService.getBoard(organizationId);
+        if (sequence(organizationId).get() == sequenceBefore) {
+            if (cached != null) {
+                snapshots.replace(organizationId, cached, board);
+            } else {
+                snapshots.putIfAbsent(organizationId, board);
+            }
+        }
+        if (board.pricesChangeAt() != null) {
+            pricesChangeAt.merge(organizationId, board.pricesChangeAt(),
+                    (current, next) -> next.isBefore(current) ? next : current);
+        }
+        return board;
+    }
+
+    private AtomicLong sequence(Long organizationId) {
+        return sequences.computeIfAbsent(organizationId, id -> new AtomicLong());
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.organizationId, (id, orgSubscribers) -> {
+            orgSubscribers.remove(subscriber);
+            return orgSubscribers.isEmpty() ? null : orgSubscribers;
+        });
+    }
+
+    /**
+     * One connected display. Producers only touch the pending map under the
+     * subscriber's monitor; the actual writes happen on the sender executor,
+     * at most one drain per subscriber at a time.
+     */
+    private final class Subscriber {
+        private final Long organizationId;
+        private final SseEmitter emitter;
+        private final Map<Long, PriceBoardDeltaDto> pending = new LinkedHashMap<>();
+        private long lastEventId;
+        private boolean snapshotRequired;
+        private boolean heartbeatDue;
+        private boolean draining;
+
+        private Subscriber(Long organizationId, SseEmitter emitter) {
+            this.organizationId = organizationId;
+            this.emitter = emitter;
+        }
+
+        synchronized void offer(PriceBoardDeltaDto delta, long eventId) {
+            lastEventId = Math.max(lastEventId, eventId);
+            if (!snapshotRequired) {
+                // Re-insert so the product moves to the end of the batch
+                pending.remove(delta.productId());
+                pending.put(delta.productId(), delta);
+                if (pending.size() > maxPendingDeltas) {
+                    pending.clear();
+                    snapshotRequired = true;
+                }
+            }
+            scheduleDrain();
+        }
+
+        synchronized void requestSnapshot() {
+            pending.clear();
+            snapshotRequired = true;
+            scheduleDrain();
+        }
+
+        synchronized void requestHeartbeat() {
+            heartbeatDue = true;
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (!draining) {
+                draining = true;
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                boolean sendSnapshot;
+                boolean sendHeartbeat;
+                List<PriceBoardDeltaDto> batch;
+                long eventId;
+                synchronized (this) {
+                    if (!snapshotRequired && pending.isEmpty() && !heartbeatDue) {
+                        draining = false;
+                        return;
+                    }
+                    sendSnapshot = snapshotRequired;
+                    sendHeartbeat = heartbeatDue;
+                    batch = new ArrayList<>(pending.values());
+                    eventId = lastEventId;
+                    snapshotRequired = false;
+                    heartbeatDue = false;
+                    pending.clear();
+                }
+
+                try {
+                    if (sendSnapshot) {
+                        // Read the sequence first: anything newer is queued behind this snapshot
+                        long snapshotId = Math.max(eventId, sequence(organizationId).get());
+                        emitter.send(SseEmitter.event()
+                                .id(Long.toString(snapshotId))
+                                .name("snapshot")
+                                .data(snapshot(organizationId)));
+                    } else if (!batch.isEmpty()) {
+                        emitter.send(SseEmitter.event()
+                                .id(Long.toString(eventId))
+                                .name("delta")
+                                .data(batch));
+                    } else if (sendHeartbeat) {
+                        emitter.send(SseEmitter.event().comment("keepalive"));
+                    }
+                } catch (IOException | RuntimeException e) {
+                    log.debug("Dropping board subscriber for organization {}: {}", organizationId, e.getMessage());
+                    unsubscribe(this);
+                    emitter.completeWithError(e);
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -2,25 +2,46 @@ package com.borsibaar.service;
 
 import com.borsibaar.dto.*;
 import com.borsibaar.entity.BarStation;
+import com.borsibaar.entity.Category;
 import com.borsibaar.entity.Inventory;
 import com.borsibaar.entity.InventoryTransaction;
+import com.borsibaar.entity.PriceTick;
 import com.borsibaar.entity.Product;
+import com.borsibaar.entity.SalesRollup;
 import com.borsibaar.entity.User;
+import com.borsibaar.event.InventoryChangedEvent;
 import com.borsibaar.mapper.InventoryMapper;
 import com.borsibaar.repository.BarStationRepository;
 import com.borsibaar.repository.InventoryRepository;
 import com.borsibaar.repository.InventoryTransactionRepository;
+import com.borsibaar.repository.InventoryTransactionRepository.HistoryEntry;
+import com.borsibaar.repository.PriceRule;
+import com.borsibaar.repository.PriceTickRepository;
 import com.borsibaar.repository.ProductRepository;
+import com.borsibaar.repository.SalesRollupRepository;
+import com.borsibaar.repository.SalesRollupRepository.SalesTotals;
 import com.borsibaar.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -33,7 +54,16 @@ public class InventoryService {
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
     private final BarStationRepository barStationRepository;
+    private final SalesRollupRepository salesRollupRepository;
+    private final PriceTickRepository priceTickRepository;
     private final InventoryMapper inventoryMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final int DEFAULT_HISTORY_PAGE_SIZE = 100;
+    private static final int MAX_HISTORY_PAGE_SIZE = 500;
+    /** What the history showed for automatic price changes when they were transactions. */
+    private static final String PRICE_TICK_NOTES = "PriceCorrectionJob";
+    private static final ObjectMapper BOARD_JSON = JsonMapper.builder().findAndAddModules().build();
 
     @Transactional(readOnly = true)
     public List<InventoryResponseDto> getByOrganization(Long organizationId) {
@@ -44,46 +74,106 @@ public class InventoryService {
     public List<InventoryResponseDto> getByOrganization(Long organizationId, Long categoryId) {
         List<Inventory> inventories;
 
+        // Product, category and organization arrive fetch-joined with the inventory
+        // rows, so the board costs one query regardless of catalog size
         if (categoryId != null) {
-            inventories = inventoryRepository.findByOrganizationIdAndCategoryId(organizationId, categoryId);
+            inventories = inventoryRepository.findBoardByOrganizationIdAndCategoryId(organizationId, categoryId);
         } else {
-            inventories = inventoryRepository.findByOrganizationId(organizationId);
+            inventories = inventoryRepository.findBoardByOrganizationId(organizationId);
         }
 
+        OffsetDateTime now = OffsetDateTime.now();
         return inventories.stream()
-                .map(inv -> {
-                    InventoryResponseDto base = inventoryMapper.toResponse(inv);
-                    Product product = productRepository.findById(inv.getProductId())
-                            .orElse(null);
-
-                    if (product == null)
-                        return null;
-                    if (!product.isActive()) {
-                        return null;
-                    }
-
-                    String productName = product.getName();
-                    BigDecimal unitPrice = Optional.ofNullable(inv.getAdjustedPrice())
-                            .orElse(product.getBasePrice());
-
-                    return new InventoryResponseDto(
-                            base.id(),
-                            base.organizationId(),
-                            base.productId(),
-                            productName,
-                            base.quantity(),
-                            unitPrice,
-                            product.getDescription(),
-                            product.getBasePrice(),
-                            product.getMinPrice(),
-                            product.getMaxPrice(),
-                            base.updatedAt());
-                })
+                .map(inventory -> toBoardResponse(inventory, now))
                 .filter(Objects::nonNull)
                 .sorted(Comparator.comparing(InventoryResponseDto::productName))
                 .toList();
     }
 
+    /**
+     * Builds the whole public price board (every category that has active
+     * products, with current and base prices) from the same single query as
+     * {@link #getByOrganization(Long)}. The version is a content digest, so
+     * clients can send it back as an ETag and skip unchanged boards. With lazy
+     * decay the board also says when its first price will drop, so caches of
+     * it know when they go stale even though no write happens then.
+     */
+    @Transactional(readOnly = true)
+    public PriceBoardResponseDto getBoard(Long organizationId) {
+        Map<Long, Category> categories = new TreeMap<>();
+        Map<Long, List<InventoryResponseDto>> productsByCategory = new HashMap<>();
+        OffsetDateTime now = OffsetDateTime.now();
+        OffsetDateTime pricesChangeAt = null;
+
+        for (Inventory inventory : inventoryRepository.findBoardByOrganizationId(organizationId)) {
+            InventoryResponseDto dto = toBoardResponse(inventory, now);
+            if (dto == null) {
+                continue;
+            }
+            OffsetDateTime priceChangeAt = PriceRule.nextPriceChange(inventory, inventory.getProduct(), now);
+            if (priceChangeAt != null && (pricesChangeAt == null || priceChangeAt.isBefore(pricesChangeAt))) {
+                pricesChangeAt = priceChangeAt;
+            }
+            Category category = inventory.getProduct().getCategory();
+            categories.putIfAbsent(category.getId(), category);
+            productsByCategory.computeIfAbsent(category.getId(), id -> new ArrayList<>()).add(dto);
+        }
+
+        List<PriceBoardCategoryDto> boardCategories = categories.values().stream()
+                .map(category -> new PriceBoardCategoryDto(
+                        category.getId(),
+                        category.getName(),
+                        category.isDynamicPricing(),
+                        productsByCategory.get(category.getId()).stream()
+                                .sorted(Comparator.comparing(InventoryResponseDto::productName))
+                                .toList()))
+                .toList();
+
+        return new PriceBoardResponseDto(organizationId, boardVersion(boardCategories), boardCategories,
+                pricesChangeAt);
+    }
+
+    /**
+     * First 128 bits of the SHA-256 of the board as JSON. Displays skip boards
+     * whose version matches theirs, so unlike a hash code it must not collide.
+     */
+    private static String boardVersion(List<PriceBoardCategoryDto> boardCategories) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(BOARD_JSON.writeValueAsBytes(boardCategories));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private InventoryResponseDto toBoardResponse(Inventory inv, OffsetDateTime now) {
+        InventoryResponseDto base = inventoryMapper.toResponse(inv);
+        Product product = inv.getProduct();
+
+        if (product == null)
+            return null;
+        if (!product.isActive()) {
+            return null;
+        }
+
+        String productName = product.getName();
+        BigDecimal unitPrice = PriceRule.currentPrice(inv, product, now);
+
+        return new InventoryResponseDto(
+                base.id(),
+                base.organizationId(),
+                base.productId(),
+                productName,
+                base.quantity(),
+                unitPrice,
+                product.getDescription(),
+                product.getBasePrice(),
+                product.getMinPrice(),
+                product.getMaxPrice(),
+                base.updatedAt());
+    }
+
     @Transactional(readOnly = true)
     public InventoryResponseDto getByProductAndOrganization(Long productId, Long organizationId) {
         Inventory inventory = inventoryRepository
@@ -100,8 +190,7 @@ public class InventoryService {
         }
 
         String productName = product.getName();
-        BigDecimal unitPrice = Optional.ofNullable(inventory.getAdjustedPrice())
-                .orElse(product.getBasePrice());
+        BigDecimal unitPrice = PriceRule.currentPrice(inventory, product, OffsetDateTime.now());
         BigDecimal basePrice = product.getBasePrice();
 
         return new InventoryResponseDto(
@@ -133,6 +222,7 @@ public class InventoryService {
                     newInv.setAdjustedPrice(product.getBasePrice());
                     newInv.setCreatedAt(OffsetDateTime.now());
                     newInv.setUpdatedAt(OffsetDateTime.now());
+                    newInv.setPriceAnchoredAt(newInv.getCreatedAt());
                     return inventoryRepository.save(newInv);
                 });
 
@@ -143,12 +233,12 @@ public class InventoryService {
         inventory.setUpdatedAt(OffsetDateTime.now());
         inventory = inventoryRepository.save(inventory);
 
-        BigDecimal currentPrice = Optional.ofNullable(inventory.getAdjustedPrice())
-                .orElse(product.getBasePrice());
+        BigDecimal currentPrice = PriceRule.currentPrice(inventory, product, OffsetDateTime.now());
 
         // Create transaction record
         createTransaction(inventory, "PURCHASE", request.quantity(),
                 oldQuantity, newQuantity, currentPrice, currentPrice, null, request.notes(), userId);
+        eventPublisher.publishEvent(InventoryChangedEvent.of(inventory, currentPrice));
 
         InventoryResponseDto base = inventoryMapper.toResponse(inventory);
         return new InventoryResponseDto(
@@ -187,13 +277,13 @@ public class InventoryService {
         inventory.setUpdatedAt(OffsetDateTime.now());
         inventory = inventoryRepository.save(inventory);
 
-        BigDecimal currentPrice = Optional.ofNullable(inventory.getAdjustedPrice())
-                .orElse(product.getBasePrice());
+        BigDecimal currentPrice = PriceRule.currentPrice(inventory, product, OffsetDateTime.now());
 
         // Create transaction record (negative quantity change)
         createTransaction(inventory, "ADJUSTMENT", request.quantity().negate(),
                 oldQuantity, newQuantity, currentPrice, currentPrice, request.referenceId(),
                 request.notes(), userId);
+        eventPublisher.publishEvent(InventoryChangedEvent.of(inventory, currentPrice));
 
         InventoryResponseDto base = inventoryMapper.toResponse(inventory);
         return new InventoryResponseDto(
@@ -225,13 +315,13 @@ public class InventoryService {
         inventory.setUpdatedAt(OffsetDateTime.now());
         inventory = inventoryRepository.save(inventory);
 
-        BigDecimal currentPrice = Optional.ofNullable(inventory.getAdjustedPrice())
-                .orElse(product.getBasePrice());
+        BigDecimal currentPrice = PriceRule.currentPrice(inventory, product, OffsetDateTime.now());
 
         // Create transaction record
         createTransaction(inventory, "ADJUSTMENT", quantityChange,
                 oldQuantity, request.newQuantity(), currentPrice, currentPrice, null, request.notes(),
                 userId);
+        eventPublisher.publishEvent(InventoryChangedEvent.of(inventory, currentPrice));
 
         InventoryResponseDto base = inventoryMapper.toResponse(inventory);
         return new InventoryResponseDto(
@@ -247,19 +337,61 @@ public class InventoryService {
                 base.updatedAt());
     }
 
+    /**
+     * One page of a product's transactions and automatic price changes
+     * (price ticks), newest first, optionally limited to those made at or
+     * after {@code since}. Pages are keyed on (created_at, id), with a tick
+     * counting as id 0, so a page costs the same however deep it is.
+     */
     @Transactional(readOnly = true)
-    public List<InventoryTransactionResponseDto> getTransactionHistory(Long productId, Long organizationId) {
+    public InventoryTransactionPageResponseDto getTransactionHistory(Long productId, Long organizationId,
+                                                                      OffsetDateTime since, String cursor,
+                                                                      Integer limit) {
         Inventory inventory = inventoryRepository
                 .findByOrganizationIdAndProductId(organizationId, productId)
                 .orElseThrow(() -> new ResponseStatusException(
                         HttpStatus.NOT_FOUND, "No inventory found for this product"));
 
-        List<InventoryTransaction> transactions = inventoryTransactionRepository
-                .findByInventoryIdOrderByCreatedAtDesc(inventory.getId());
+        int pageSize = limit != null
+                ? Math.clamp(limit, 1, MAX_HISTORY_PAGE_SIZE)
+                : DEFAULT_HISTORY_PAGE_SIZE;
+        OffsetDateTime from = since != null ? since : OffsetDateTime.ofInstant(Instant.EPOCH, ZoneOffset.UTC);
+        // One extra row tells whether there is a next page
+        Pageable page = PageRequest.of(0, pageSize + 1);
+
+        List<HistoryEntry> transactions;
+        List<PriceTick> ticks;
+        if (cursor == null) {
+            transactions = inventoryTransactionRepository.findHistory(inventory.getId(), from, page);
+            ticks = priceTickRepository.findHistory(inventory.getId(), from, page);
+        } else {
+            HistoryCursor after = HistoryCursor.decode(cursor);
+            transactions = inventoryTransactionRepository.findHistoryBefore(inventory.getId(), from,
+                    after.createdAt(), after.id(), page);
+            ticks = priceTickRepository.findHistoryBefore(inventory.getId(), from,
+                    after.createdAt(), after.id() > 0, page);
+        }
+
+        // Both lists are newest first; a tick sorts after transactions made at the same instant
+        List<HistoryRow> rows = new ArrayList<>(transactions.size() + ticks.size());
+        transactions.forEach(entry -> rows.add(new HistoryRow(entry.getCreatedAt(), entry.getId(), entry, null)));
+        ticks.forEach(tick -> rows.add(new HistoryRow(tick.getTs(), 0L, null, tick)));
+        rows.sort(Comparator.comparing((HistoryRow row) -> row.createdAt().toInstant())
+                .thenComparingLong(HistoryRow::id)
+                .reversed());
+
+        String nextCursor = null;
+        List<HistoryRow> pageRows = rows;
+        if (rows.size() > pageSize) {
+            pageRows = rows.subList(0, pageSize);
+            HistoryRow last = pageRows.get(pageSize - 1);
+            nextCursor = new HistoryCursor(last.createdAt(), last.id()).encode();
+        }
 
         // Get all unique user IDs (filter out nulls)
-        List<UUID> userIds = transactions.stream()
-                .map(InventoryTransaction::getCreatedBy)
+        List<UUID> userIds = pageRows.stream()
+                .filter(row -> row.transaction() != null)
+                .map(row -> row.transaction().getCreatedBy())
                 .filter(Objects::nonNull)
                 .distinct()
                 .toList();
@@ -269,101 +401,95 @@ public class InventoryService {
                 .collect(Collectors.toMap(User::getId, user -> user));
 
         // Map transactions with user information
-        return transactions.stream()
-                .map(transaction -> {
-                    User user = userMap.get(transaction.getCreatedBy());
-                    return new InventoryTransactionResponseDto(
-                            transaction.getId(),
-                            transaction.getInventoryId(),
-                            transaction.getTransactionType(),
-                            transaction.getQuantityChange(),
-                            transaction.getQuantityBefore(),
-                            transaction.getQuantityAfter(),
-                            transaction.getPriceBefore(),
-                            transaction.getPriceAfter(),
-                            transaction.getReferenceId(),
-                            transaction.getNotes(),
-                            transaction.getCreatedBy() != null
-                                    ? transaction.getCreatedBy().toString()
-                                    : null,
-                            user != null ? user.getName() : null,
-                            user != null ? user.getEmail() : null,
-                            transaction.getCreatedAt() != null ? transaction.getCreatedAt()
-                                    .format(DateTimeFormatter.ISO_OFFSET_DATE_TIME)
-                                    : null);
-                })
+        List<InventoryTransactionResponseDto> items = pageRows.stream()
+                .map(row -> row.transaction() != null
+                        ? toHistoryItem(row.transaction(), userMap.get(row.transaction().getCreatedBy()))
+                        : toHistoryItem(row.tick()))
                 .toList();
+        return new InventoryTransactionPageResponseDto(items, nextCursor);
     }
 
-    @Transactional(readOnly = true)
-    public List<UserSalesStatsResponseDto> getUserSalesStats(Long organizationId) {
-        // Get all sale transactions for the organization
-        List<InventoryTransaction> saleTransactions = inventoryTransactionRepository
-                .findSaleTransactionsByOrganizationId(organizationId);
-
-        // Group transactions by user and station
-        Map<String, List<InventoryTransaction>> transactionsByUserAndStation = saleTransactions.stream()
-                .filter(t -> t.getCreatedBy() != null)
-                .collect(Collectors.groupingBy(transaction -> {
-                    UUID userId = transaction.getCreatedBy();
-                    Long stationId = transaction.getBarStationId();
-                    return userId.toString() + "|"
-                            + (stationId != null ? stationId.toString() : "null");
-                }));
-
-        // Get all unique user IDs and station IDs
-        Set<UUID> userIds = saleTransactions.stream()
-                .map(InventoryTransaction::getCreatedBy)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toSet());
+    private static InventoryTransactionResponseDto toHistoryItem(HistoryEntry entry, User user) {
+        return new InventoryTransactionResponseDto(
+                entry.getId(),
+                entry.getInventoryId(),
+                entry.getTransactionType(),
+                entry.getQuantityChange(),
+                entry.getQuantityBefore(),
+                entry.getQuantityAfter(),
+                entry.getPriceBefore(),
+                entry.getPriceAfter(),
+                entry.getReferenceId(),
+                entry.getNotes(),
+                entry.getCreatedBy() != null
+                        ? entry.getCreatedBy().toString()
+                        : null,
+                user != null ? user.getName() : null,
+                user != null ? user.getEmail() : null,
+                entry.getCreatedAt() != null ? entry.getCreatedAt()
+                        .format(DateTimeFormatter.ISO_OFFSET_DATE_TIME)
+                        : null);
+    }
 
-        Set<Long> stationIds = saleTransactions.stream()
-                .map(InventoryTransaction::getBarStationId)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toSet());
+    /**
+     * A price tick as the ADJUSTMENT it replaces. Ticks keep only the new
+     * price, so there is no id, stock level or price before.
+     */
+    private static InventoryTransactionResponseDto toHistoryItem(PriceTick tick) {
+        return new InventoryTransactionResponseDto(
+                null,
+                tick.getInventoryId(),
+                "ADJUSTMENT",
+                BigDecimal.ZERO,
+                null,
+                null,
+                null,
+                tick.getPrice(),
+                null,
+                PRICE_TICK_NOTES,
+                null,
+                null,
+                null,
+                tick.getTs().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+    }
+
+    /**
+     * Sales per user and bar station. Without a window the all-time totals
+     * come from the rollups; with {@code from} and/or {@code to} the database
+     * aggregates only the sales in {@code [from, to)}.
+     */
+    @Transactional(readOnly = true)
+    public List<UserSalesStatsResponseDto> getUserSalesStats(Long organizationId,
+                                                             OffsetDateTime from, OffsetDateTime to) {
+        List<SalesTotals> totals = from == null && to == null
+                ? salesRollupRepository.sumByUserAndStation(organizationId)
+                : inventoryTransactionRepository.sumSalesByUserAndStation(organizationId,
+                        windowStart(from, to), windowEnd(to));
 
         // Fetch all users and stations at once
-        Map<UUID, User> userMap = userRepository.findAllById(new ArrayList<>(userIds)).stream()
+        Map<UUID, User> userMap = userRepository.findAllById(totals.stream()
+                .map(SalesTotals::getUserId)
+                .distinct()
+                .toList()).stream()
                 .collect(Collectors.toMap(User::getId, user -> user));
 
-        Map<Long, BarStation> stationMap = barStationRepository.findAllById(new ArrayList<>(stationIds))
-                .stream()
-                .collect(Collectors.toMap(BarStation::getId, station -> station));
+        Map<Long, BarStation> stationMap = findStations(totals);
 
-        // Calculate statistics for each user-station combination
-        return transactionsByUserAndStation.entrySet().stream()
-                .map(entry -> {
-                    String[] parts = entry.getKey().split("\\|");
-                    UUID userId = UUID.fromString(parts[0]);
-                    Long stationId = null;
-                    if (parts.length > 1 && !parts[1].equals("null")) {
-                        try {
-                            stationId = Long.parseLong(parts[1]);
-                        } catch (NumberFormatException e) {
-                            stationId = null;
-                        }
-                    }
-
-                    List<InventoryTransaction> userStationTransactions = entry.getValue();
+        return totals.stream()
+                .map(total -> {
+                    UUID userId = total.getUserId();
                     User user = userMap.get(userId);
+                    Long stationId = total.getBarStationId() != SalesRollup.NO_STATION
+                            ? total.getBarStationId()
+                            : null;
                     BarStation station = stationId != null ? stationMap.get(stationId) : null;
 
-                    // Count unique sales (by referenceId)
-                    long salesCount = userStationTransactions.stream()
-                            .map(InventoryTransaction::getReferenceId)
-                            .filter(Objects::nonNull)
-                            .distinct()
-                            .count();
-
-                    // Calculate total revenue by getting all products and their prices
-                    BigDecimal totalRevenue = calculateTotalRevenue(userStationTransactions);
-
                     return new UserSalesStatsResponseDto(
                             userId.toString(),
                             user != null ? user.getName() : "Unknown User",
                             user != null ? user.getEmail() : "unknown@email.com",
-                            salesCount,
-                            totalRevenue,
+                            total.getSaleCount(),
+                            total.getRevenue(),
                             stationId,
                             station != null ? station.getName() : null);
                 })
@@ -373,52 +499,52 @@ public class InventoryService {
     }
 
     @Transactional(readOnly = true)
-    public List<StationSalesStatsResponseDto> getStationSalesStats(Long organizationId) {
-        // Get all sale transactions for the organization
-        List<InventoryTransaction> saleTransactions = inventoryTransactionRepository
-                .findSaleTransactionsByOrganizationId(organizationId);
-
-        // Group transactions by station
-        Map<Long, List<InventoryTransaction>> transactionsByStation = saleTransactions.stream()
-                .filter(t -> t.getBarStationId() != null)
-                .collect(Collectors.groupingBy(InventoryTransaction::getBarStationId));
-
-        // Get all unique station IDs
-        Set<Long> stationIds = transactionsByStation.keySet();
-
-        // Fetch all stations at once
-        Map<Long, BarStation> stationMap = barStationRepository.findAllById(new ArrayList<>(stationIds))
-                .stream()
-                .collect(Collectors.toMap(BarStation::getId, station -> station));
-
-        // Calculate statistics for each station
-        return transactionsByStation.entrySet().stream()
-                .map(entry -> {
-                    Long stationId = entry.getKey();
-                    List<InventoryTransaction> stationTransactions = entry.getValue();
-                    BarStation station = stationMap.get(stationId);
-
-                    // Count unique sales (by referenceId)
-                    long salesCount = stationTransactions.stream()
-                            .map(InventoryTransaction::getReferenceId)
-                            .filter(Objects::nonNull)
-                            .distinct()
-                            .count();
-
-                    // Calculate total revenue by getting all products and their prices
-                    BigDecimal totalRevenue = calculateTotalRevenue(stationTransactions);
-
+    public List<StationSalesStatsResponseDto> getStationSalesStats(Long organizationId,
+                                                                   OffsetDateTime from, OffsetDateTime to) {
+        List<SalesTotals> totals = from == null && to == null
+                ? salesRollupRepository.sumByStation(organizationId)
+                : inventoryTransactionRepository.sumSalesByStation(organizationId,
+                        windowStart(from, to), windowEnd(to));
+        Map<Long, BarStation> stationMap = findStations(totals);
+
+        return totals.stream()
+                .map(total -> {
+                    BarStation station = stationMap.get(total.getBarStationId());
                     return new StationSalesStatsResponseDto(
-                            stationId,
+                            total.getBarStationId(),
                             station != null ? station.getName() : null,
-                            salesCount,
-                            totalRevenue);
+                            total.getSaleCount(),
+                            total.getRevenue());
                 })
                 .sorted((a, b) -> Long.compare(b.salesCount(), a.salesCount())) // Sort by sales count
                 // desc
                 .toList();
     }
 
+    private OffsetDateTime windowStart(OffsetDateTime from, OffsetDateTime to) {
+        if (from == null) {
+            return OffsetDateTime.ofInstant(Instant.EPOCH, ZoneOffset.UTC);
+        }
+        if (to != null && !from.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must be before 'to'");
+        }
+        return from;
+    }
+
+    private OffsetDateTime windowEnd(OffsetDateTime to) {
+        return to != null ? to : OffsetDateTime.now();
+    }
+
+    private Map<Long, BarStation> findStations(List<SalesTotals> totals) {
+        List<Long> stationIds = totals.stream()
+                .map(SalesTotals::getBarStationId)
+                .filter(stationId -> stationId != SalesRollup.NO_STATION)
+                .distinct()
+                .toList();
+        return barStationRepository.findAllById(stationIds).stream()
+                .collect(Collectors.toMap(BarStation::getId, station -> station));
+    }
+
     private void createTransaction(Inventory inventory, String type, BigDecimal quantityChange,
                                    BigDecimal quantityBefore, BigDecimal quantityAfter,
                                    BigDecimal priceBefore, BigDecimal priceAfter,
@@ -454,27 +580,28 @@ public class InventoryService {
         return product;
     }
 
+    /** A history entry: a transaction or a price tick, which has no id and sorts as 0. */
+    private record HistoryRow(OffsetDateTime createdAt, long id, HistoryEntry transaction, PriceTick tick) {
+    }
 
-    private BigDecimal calculateTotalRevenue(List<InventoryTransaction> userStationTransactions) {
-        return userStationTransactions.stream()
-                .map(transaction -> {
-                    // Get inventory to find product
-                    return inventoryRepository
-                            .findById(transaction.getInventoryId())
-                            .flatMap(inventory -> productRepository
-                                    .findById(inventory
-                                            .getProductId()))
-                            .map(product -> {
-                                // Calculate revenue for this
-                                // transaction
-                                BigDecimal quantitySold = transaction
-                                        .getQuantityChange()
-                                        .abs();
-                                return product.getBasePrice()
-                                        .multiply(quantitySold);
-                            })
-                            .orElse(BigDecimal.ZERO);
-                })
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    /** Position after the last entry of a history page, opaque to clients. */
+    private record HistoryCursor(OffsetDateTime createdAt, Long id) {
+
+        String encode() {
+            String raw = createdAt.toInstant() + "_" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static HistoryCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf('_');
+                return new HistoryCursor(
+                        OffsetDateTime.ofInstant(Instant.parse(raw.substring(0, separator)), ZoneOffset.UTC),
+                        Long.parseLong(raw.substring(separator + 1)));
+            } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+        }
     }
 }
@@ -1,34 +1,186 @@
 package com.borsibaar.service;
 
+import com.borsibaar.entity.Role;
+import com.borsibaar.entity.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.http.Cookie;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
+/**
+ * Issues and parses the session JWT.
+ * <p>
+ * Tokens issued for a user carry everything a request needs to be authorized
+ * (user id, organization, role and name), so authenticating one needs no
+ * database access. In exchange they are short-lived ({@code jwt.access-ttl-seconds});
+ * an expired token is refreshed from the current user for as long as the
+ * session ({@code jwt.session-ttl-seconds}, counted from login) lasts, which
+ * is how role and organization changes reach existing sessions.
+ * <p>
+ * Keys are derived once and tokens name theirs in the {@code kid} header, so
+ * {@code jwt.secret} can be rotated: the old secret goes to
+ * {@code jwt.previous-secrets} and keeps verifying tokens until they run out.
+ */
 @Service
 public class JwtService {
-    @Value("${jwt.secret}")
-    private String secretKey;
-    private final long expirationMs = 86400000; // 24h
+    public static final String COOKIE_NAME = "jwt";
 
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_ORGANIZATION_ID = "org";
+    static final String CLAIM_ROLE = "role";
+    static final String CLAIM_NAME = "name";
+    static final String CLAIM_AUTH_TIME = "auth_time";
+
+    private final SecretKey signingKey;
+    private final String signingKeyId;
+    private final JwtParser parser;
+    private final long accessTtlSeconds;
+    private final long sessionTtlSeconds;
+
+    /**
+     * @param secret          signs new tokens and verifies them
+     * @param previousSecrets still verify tokens signed before a key rotation
+     */
+    public JwtService(@Value("${jwt.secret}") String secret,
+            @Value("${jwt.previous-secrets:}") List<String> previousSecrets,
+            @Value("${jwt.access-ttl-seconds:900}") long accessTtlSeconds,
+            @Value("${jwt.session-ttl-seconds:86400}") long sessionTtlSeconds) {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.signingKeyId = keyId(secret);
+        this.accessTtlSeconds = accessTtlSeconds;
+        this.sessionTtlSeconds = sessionTtlSeconds;
+
+        Map<String, SecretKey> verificationKeys = new HashMap<>();
+        for (String previous : previousSecrets) {
+            if (!previous.isBlank()) {
+                verificationKeys.put(keyId(previous), Keys.hmacShaKeyFor(previous.getBytes(StandardCharsets.UTF_8)));
+            }
+        }
+        verificationKeys.put(signingKeyId, signingKey);
+        Map<String, SecretKey> keysById = Map.copyOf(verificationKeys);
+
+        // Immutable and thread-safe: one parser serves every request
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        // Tokens from before key ids were added are signed with the current key
+                        return header.getKeyId() != null ? keysById.get(header.getKeyId()) : signingKey;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * A token that only names the user; the user is looked up on every
+     * request. Kept for tokens issued before claims were added.
+     */
     public String generateToken(String subject) {
         return Jwts.builder()
+                .header().keyId(signingKeyId).and()
                 .subject(subject)
                 .issuedAt(new Date())
-                .expiration(new Date(System.currentTimeMillis() + expirationMs))
-                .signWith(SignatureAlgorithm.HS256, secretKey.getBytes(StandardCharsets.UTF_8))
+                .expiration(new Date(System.currentTimeMillis() + sessionTtlSeconds * 1000))
+                .signWith(signingKey, Jwts.SIG.HS256)
                 .compact();
     }
 
+    /** A token for a freshly logged in user; starts a new session. */
+    public String generateToken(User user) {
+        return generateToken(user, System.currentTimeMillis() / 1000);
+    }
+
+    /** A token with the user's current claims, in the session of an expired token. */
+    public String refreshToken(User user, Claims expired) {
+        return generateToken(user, sessionStart(expired));
+    }
+
     public Claims parseToken(String token) {
-        return Jwts.parser()
-                .setSigningKey(secretKey.getBytes(StandardCharsets.UTF_8))
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    /** Whether the token says who the user is, so it can be authorized without a lookup. */
+    public boolean hasPrincipalClaims(Claims claims) {
+        return claims.get(CLAIM_USER_ID) != null;
+    }
+
+    /** The user a token was issued for, as it was when the token was issued. */
+    public User toPrincipal(Claims claims) {
+        String role = claims.get(CLAIM_ROLE, String.class);
+        Number organizationId = claims.get(CLAIM_ORGANIZATION_ID, Number.class);
+        return User.builder()
+                .id(UUID.fromString(claims.get(CLAIM_USER_ID, String.class)))
+                .email(claims.getSubject())
+                .name(claims.get(CLAIM_NAME, String.class))
+                .organizationId(organizationId != null ? organizationId.longValue() : null)
+                .role(role != null ? Role.builder().name(role).build() : null)
+                .build();
+    }
+
+    /** Whether an expired (but validly signed) token's session still allows a refresh. */
+    public boolean isRefreshable(Claims expired) {
+        return System.currentTimeMillis() / 1000 < sessionStart(expired) + sessionTtlSeconds;
+    }
+
+    /** The cookie that carries a token; it lives as long as a session can. */
+    public Cookie createCookie(String token) {
+        Cookie cookie = new Cookie(COOKIE_NAME, token);
+        cookie.setHttpOnly(true);
+        cookie.setSecure(true); // Should be true for production/HTTPS
+        cookie.setPath("/");
+        cookie.setMaxAge((int) sessionTtlSeconds);
+        return cookie;
+    }
+
+    private String generateToken(User user, long authTime) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .header().keyId(signingKeyId).and()
+                .subject(user.getEmail())
+                .claim(CLAIM_USER_ID, user.getId().toString())
+                .claim(CLAIM_ORGANIZATION_ID, user.getOrganizationId())
+                .claim(CLAIM_ROLE, user.getRole() != null ? user.getRole().getName() : null)
+                .claim(CLAIM_NAME, user.getName())
+                .claim(CLAIM_AUTH_TIME, authTime)
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + accessTtlSeconds * 1000))
+                .signWith(signingKey, Jwts.SIG.HS256)
+                .compact();
+    }
+
+    /** Names a key in the token header without revealing it, the same on every replica. */
+    private static String keyId(String secret) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long sessionStart(Claims claims) {
+        Number authTime = claims.get(CLAIM_AUTH_TIME, Number.class);
+        if (authTime != null) {
+            return authTime.longValue();
+        }
+        return claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() / 1000 : 0;
     }
 }
@@ -2,26 +2,40 @@ package com.borsibaar.service;
 
 import com.borsibaar.dto.OrganizationRequestDto;
 import com.borsibaar.dto.OrganizationResponseDto;
+import com.borsibaar.entity.Inventory;
 import com.borsibaar.entity.Organization;
+import com.borsibaar.event.PricingRulesChangedEvent;
 import com.borsibaar.mapper.OrganizationMapper;
+import com.borsibaar.repository.InventoryRepository;
 import com.borsibaar.repository.OrganizationRepository;
+import com.borsibaar.repository.PriceRule;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.math.BigDecimal;
 import java.time.OffsetDateTime;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 @Service
 public class OrganizationService {
 
     private final OrganizationRepository organizationRepository;
     private final OrganizationMapper organizationMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final InventoryRepository inventoryRepository;
 
-    public OrganizationService(OrganizationRepository organizationRepository, OrganizationMapper organizationMapper) {
+    public OrganizationService(OrganizationRepository organizationRepository, OrganizationMapper organizationMapper,
+            ApplicationEventPublisher eventPublisher, InventoryRepository inventoryRepository) {
         this.organizationRepository = organizationRepository;
         this.organizationMapper = organizationMapper;
+        this.eventPublisher = eventPublisher;
+        this.inventoryRepository = inventoryRepository;
     }
 
     @Transactional
@@ -53,9 +67,47 @@ public class OrganizationService {
     public OrganizationResponseDto update(Long id, OrganizationRequestDto request) {
         Organization organization = organizationRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Organization not found: " + id));
+        OffsetDateTime now = OffsetDateTime.now();
+        boolean wasLazy = organization.isLazyPriceDecay();
+        BigDecimal decreaseStep = organization.getPriceDecreaseStep();
+        Integer decayInterval = organization.getPriceDecayIntervalSeconds();
+        // Lazy prices are derived from the decay settings, so take them before the settings change
+        Map<Inventory, BigDecimal> prices = wasLazy || Boolean.TRUE.equals(request.lazyPriceDecay())
+                ? currentPrices(id, now)
+                : Map.of();
+
         organizationMapper.updateEntity(organization, request);
-        organization.setUpdatedAt(OffsetDateTime.now());
+        organization.setUpdatedAt(now);
         Organization saved = organizationRepository.save(organization);
+
+        boolean decayChanged = wasLazy != saved.isLazyPriceDecay()
+                || (wasLazy && (!Objects.equals(decreaseStep, saved.getPriceDecreaseStep())
+                        || !Objects.equals(decayInterval, saved.getPriceDecayIntervalSeconds())));
+        if (decayChanged) {
+            reanchorPrices(prices, now);
+        }
+        eventPublisher.publishEvent(new PricingRulesChangedEvent(id));
         return organizationMapper.toResponse(saved);
     }
+
+    private Map<Inventory, BigDecimal> currentPrices(Long organizationId, OffsetDateTime now) {
+        Map<Inventory, BigDecimal> prices = new IdentityHashMap<>();
+        for (Inventory inventory : inventoryRepository.findBoardByOrganizationId(organizationId)) {
+            prices.put(inventory, PriceRule.currentPrice(inventory, inventory.getProduct(), now));
+        }
+        return prices;
+    }
+
+    /**
+     * Stores the prices shown right before a decay setting changed and lets
+     * lazy decay count from now: leaving lazy decay keeps what it had
+     * lowered, and entering it or changing its step or interval does not
+     * reprice the time that already passed.
+     */
+    private void reanchorPrices(Map<Inventory, BigDecimal> prices, OffsetDateTime now) {
+        prices.forEach((inventory, price) -> {
+            inventory.setAdjustedPrice(price);
+            inventory.setPriceAnchoredAt(now);
+        });
+    }
 }
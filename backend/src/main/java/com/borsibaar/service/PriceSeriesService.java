@@ -0,0 +1,146 @@
+package com.borsibaar.service;
+
+import com.borsibaar.dto.PriceBucketDto;
+import com.borsibaar.dto.PriceSeriesResponseDto;
+import com.borsibaar.entity.Inventory;
+import com.borsibaar.repository.InventoryRepository;
+import com.borsibaar.repository.InventoryTransactionRepository;
+import com.borsibaar.repository.InventoryTransactionRepository.PriceBucket;
+import com.borsibaar.repository.PriceRule;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Downsampled price history for charts. The database folds a window of
+ * transactions and price ticks into one OHLC row per bucket; empty buckets
+ * are then filled with the last known price, so a response always has exactly
+ * {@code (to - from) / resolution} buckets however busy or old the product is.
+ */
+@Service
+public class PriceSeriesService {
+
+    static final int MAX_BUCKETS = 1440;
+    private static final int DEFAULT_BUCKETS = 60;
+    private static final Map<String, Long> RESOLUTION_SECONDS = Map.of(
+            "1m", 60L,
+            "5m", 300L,
+            "1h", 3600L);
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryTransactionRepository inventoryTransactionRepository;
+    private final Clock clock;
+
+    @Autowired
+    public PriceSeriesService(InventoryRepository inventoryRepository,
+            InventoryTransactionRepository inventoryTransactionRepository) {
+        this(inventoryRepository, inventoryTransactionRepository, Clock.systemUTC());
+    }
+
+    PriceSeriesService(InventoryRepository inventoryRepository,
+            InventoryTransactionRepository inventoryTransactionRepository, Clock clock) {
+        this.inventoryRepository = inventoryRepository;
+        this.inventoryTransactionRepository = inventoryTransactionRepository;
+        this.clock = clock;
+    }
+
+    /**
+     * {@code from} and {@code to} are rounded down to bucket boundaries. By
+     * default the series ends with the bucket holding now and spans
+     * {@value #DEFAULT_BUCKETS} buckets.
+     */
+    @Transactional(readOnly = true)
+    public PriceSeriesResponseDto getPriceSeries(Long productId, Long organizationId, String resolution,
+                                                 OffsetDateTime from, OffsetDateTime to) {
+        String bucketName = resolution != null ? resolution : "1m";
+        Long bucketSeconds = RESOLUTION_SECONDS.get(bucketName);
+        if (bucketSeconds == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Unsupported resolution: " + resolution + ". Use 1m, 5m or 1h");
+        }
+
+        long endBucket = to != null
+                ? Math.floorDiv(to.toEpochSecond(), bucketSeconds)
+                : Math.floorDiv(clock.instant().getEpochSecond(), bucketSeconds) + 1;
+        long startBucket = from != null
+                ? Math.floorDiv(from.toEpochSecond(), bucketSeconds)
+                : endBucket - DEFAULT_BUCKETS;
+        long bucketCount = endBucket - startBucket;
+        if (bucketCount <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must be before 'to'");
+        }
+        if (bucketCount > MAX_BUCKETS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Window too large: at most " + MAX_BUCKETS + " buckets per request");
+        }
+
+        Inventory inventory = inventoryRepository
+                .findByOrganizationIdAndProductId(organizationId, productId)
+                .orElseThrow(() -> new ResponseStatusException(
+                        HttpStatus.NOT_FOUND, "No inventory found for this product"));
+
+        OffsetDateTime windowStart = bucketTime(startBucket, bucketSeconds);
+        OffsetDateTime windowEnd = bucketTime(endBucket, bucketSeconds);
+        List<PriceBucket> rows = inventoryTransactionRepository.findPriceBuckets(
+                inventory.getId(), windowStart, windowEnd, bucketSeconds);
+        Map<Long, PriceBucket> rowsByBucket = rows.stream()
+                .collect(Collectors.toMap(PriceBucket::getBucket, Function.identity()));
+
+        // The price going into the window: the last change before it, else the
+        // price before the first change inside it, else the current price
+        BigDecimal price = inventoryTransactionRepository
+                .findPricesBefore(inventory.getId(), windowStart, PageRequest.of(0, 1)).stream()
+                .findFirst()
+                .orElseGet(() -> rows.isEmpty() ? currentPrice(inventory) : firstPrice(rows.get(0)));
+
+        List<PriceBucketDto> buckets = new ArrayList<>((int) bucketCount);
+        for (long bucket = startBucket; bucket < endBucket; bucket++) {
+            String start = bucketTime(bucket, bucketSeconds).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+            PriceBucket row = rowsByBucket.get(bucket);
+            if (row == null) {
+                buckets.add(new PriceBucketDto(start, price, price, price, price, 0));
+            } else {
+                // Price ticks do not keep the price before them; the carried price is that price
+                BigDecimal open = row.getOpen() != null ? row.getOpen() : price;
+                buckets.add(new PriceBucketDto(start, open, row.getHigh().max(open), row.getLow().min(open),
+                        row.getClose(), row.getChanges()));
+                price = row.getClose();
+            }
+        }
+
+        return new PriceSeriesResponseDto(
+                productId,
+                bucketName,
+                windowStart.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME),
+                windowEnd.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME),
+                buckets);
+    }
+
+    private static OffsetDateTime bucketTime(long bucket, long bucketSeconds) {
+        return OffsetDateTime.ofInstant(Instant.ofEpochSecond(bucket * bucketSeconds), ZoneOffset.UTC);
+    }
+
+    /** The earliest price a bucket knows: its open, or its close when it opens with a price tick. */
+    private static BigDecimal firstPrice(PriceBucket row) {
+        return row.getOpen() != null ? row.getOpen() : row.getClose();
+    }
+
+    private BigDecimal currentPrice(Inventory inventory) {
+        return PriceRule.currentPrice(inventory, inventory.getProduct(), OffsetDateTime.now(clock));
+    }
+}
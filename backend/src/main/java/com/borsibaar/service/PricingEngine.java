@@ -0,0 +1,104 @@
+package com.borsibaar.service;
+
+import com.borsibaar.event.CatalogChangedEvent;
+import com.borsibaar.event.PricingRulesChangedEvent;
+import com.borsibaar.repository.PriceRule;
+import com.borsibaar.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps each organization's pricing rules (activity, dynamic pricing, base and
+ * max price, increase step, decay settings) in memory, keyed by product id, so
+ * pricing a sale line is a map lookup instead of loading the product with its
+ * category, organization and inventory.
+ * <p>
+ * An organization's rules are loaded with one query on first use and dropped
+ * whenever its catalog or price steps change on this instance. Changes made
+ * through another replica do not reach this one as events, so cached rules
+ * also expire after {@code app.pricing.rules-ttl-ms}: that is how long a
+ * product deactivated or repriced elsewhere can keep its old rule here. A
+ * product missing from the cached rules, such as one just created elsewhere,
+ * makes the organization's rules reload once before it is reported unknown. The
+ * current price itself is not cached: it lives on the locked inventory row,
+ * which stays the single source of truth for concurrent sales.
+ */
+@Service
+public class PricingEngine {
+
+    private final ProductRepository productRepository;
+    private final long ttlMillis;
+    private final Clock clock;
+
+    private final Map<Long, CachedRules> rules = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PricingEngine(ProductRepository productRepository,
+            @Value("${app.pricing.rules-ttl-ms:5000}") long ttlMillis) {
+        this(productRepository, ttlMillis, Clock.systemUTC());
+    }
+
+    PricingEngine(ProductRepository productRepository, long ttlMillis, Clock clock) {
+        this.productRepository = productRepository;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    public Optional<PriceRule> find(Long organizationId, Long productId) {
+        CachedRules cached = rules.get(organizationId);
+        if (cached != null) {
+            PriceRule rule = cached.rules().get(productId);
+            if (rule != null && clock.millis() < cached.expiresAt()) {
+                return Optional.of(rule);
+            }
+            // Expired, or the product was created through another replica after these rules were read
+            rules.remove(organizationId, cached);
+        }
+        return Optional.ofNullable(load(organizationId).get(productId));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        invalidate(event.organizationId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPricingRulesChanged(PricingRulesChangedEvent event) {
+        invalidate(event.organizationId());
+    }
+
+    private void invalidate(Long organizationId) {
+        generation(organizationId).incrementAndGet();
+        rules.remove(organizationId);
+    }
+
+    private Map<Long, PriceRule> load(Long organizationId) {
+        long now = clock.millis();
+        // Only cache the rules if nothing was invalidated while they were being read
+        long generationBefore = generation(organizationId).get();
+        Map<Long, PriceRule> loaded = productRepository.findPriceRulesByOrganizationId(organizationId).stream()
+                .collect(Collectors.toUnmodifiableMap(PriceRule::productId, Function.identity()));
+        if (generation(organizationId).get() == generationBefore) {
+            rules.putIfAbsent(organizationId, new CachedRules(loaded, now + ttlMillis));
+        }
+        return loaded;
+    }
+
+    private AtomicLong generation(Long organizationId) {
+        return generations.computeIfAbsent(organizationId, id -> new AtomicLong());
+    }
+
+    private record CachedRules(Map<Long, PriceRule> rules, long expiresAt) {
+    }
+}
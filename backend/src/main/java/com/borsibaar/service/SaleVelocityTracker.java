@@ -0,0 +1,51 @@
+package com.borsibaar.service;
+
+import com.borsibaar.event.ProductSoldEvent;
+import com.borsibaar.util.SlidingWindowCounter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * How fast each product is selling right now: sold lines over the last
+ * minute, kept in memory per product in a {@link SlidingWindowCounter}, so
+ * pricing can read a product's velocity without touching the database.
+ * <p>
+ * Counts are per instance: with several replicas each one sees the sales it
+ * processed. That is fine for shaping price increases, but nothing that has
+ * to agree across replicas (such as which products the decay job lowers) may
+ * be decided from it.
+ */
+@Service
+public class SaleVelocityTracker {
+
+    static final int WINDOW_SECONDS = 60;
+
+    private final Map<Long, SlidingWindowCounter> counters = new ConcurrentHashMap<>();
+    private final Clock clock;
+
+    @Autowired
+    public SaleVelocityTracker() {
+        this(Clock.systemUTC());
+    }
+
+    SaleVelocityTracker(Clock clock) {
+        this.clock = clock;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductSold(ProductSoldEvent event) {
+        counters.computeIfAbsent(event.productId(), id -> new SlidingWindowCounter(WINDOW_SECONDS))
+                .increment(clock.instant().getEpochSecond());
+    }
+
+    /** Lines of the product sold over the last minute. */
+    public long salesPerMinute(Long productId) {
+        SlidingWindowCounter counter = counters.get(productId);
+        return counter != null ? counter.sum(clock.instant().getEpochSecond()) : 0;
+    }
+}
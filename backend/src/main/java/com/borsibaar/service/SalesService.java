@@ -1,14 +1,19 @@
 package com.borsibaar.service;
 
 import com.borsibaar.dto.*;
-import com.borsibaar.entity.Category;
 import com.borsibaar.entity.Inventory;
 import com.borsibaar.entity.InventoryTransaction;
-import com.borsibaar.entity.Product;
+import com.borsibaar.entity.SalesRollup;
+import com.borsibaar.event.InventoryChangedEvent;
+import com.borsibaar.event.ProductSoldEvent;
 import com.borsibaar.repository.InventoryRepository;
 import com.borsibaar.repository.InventoryTransactionRepository;
+import com.borsibaar.repository.PriceRule;
 import com.borsibaar.repository.ProductRepository;
+import com.borsibaar.repository.SalesRollupRepository;
+import com.borsibaar.util.ReferenceIdGenerator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,8 +21,13 @@ import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -28,23 +38,43 @@ public class SalesService {
         private final InventoryRepository inventoryRepository;
         private final InventoryTransactionRepository inventoryTransactionRepository;
         private final ProductRepository productRepository;
+        private final ApplicationEventPublisher eventPublisher;
+        private final ReferenceIdGenerator referenceIdGenerator;
+        private final PricingEngine pricingEngine;
+        private final SalesRollupRepository salesRollupRepository;
+        private final VelocityPricingPolicy velocityPricingPolicy;
 
         @Transactional
         public SaleResponseDto processSale(SaleRequestDto request, UUID userId, Long organizationId) {
                 // Generate unique sale reference ID
-                String saleId = "SALE-" + System.currentTimeMillis();
+                String saleId = referenceIdGenerator.next("SALE");
 
                 List<SaleItemResponseDto> saleItems = new ArrayList<>();
                 BigDecimal totalAmount = BigDecimal.ZERO;
 
+                List<SaleItemRequestDto> items = mergeDuplicateLines(request.items());
+
+                // Lock every inventory row of the basket up front, in inventory id
+                // order, so two baskets with the same products in a different order
+                // cannot deadlock. This must happen before the rows are loaded any other
+                // way, so the rest of the sale sees their current state
+                Map<Long, Inventory> lockedInventories = new HashMap<>();
+                for (Inventory inventory : inventoryRepository.findAllByProductIdInForUpdate(
+                                items.stream().map(SaleItemRequestDto::productId).toList())) {
+                        lockedInventories.put(inventory.getProductId(), inventory);
+                }
+
                 // Process each item in the sale
-                for (SaleItemRequestDto item : request.items()) {
-                        SaleItemResponseDto saleItem = processSaleItem(item, userId, organizationId, saleId,
-                                        request.barStationId());
+                for (SaleItemRequestDto item : items) {
+                        SaleItemResponseDto saleItem = processSaleItem(item,
+                                        Optional.ofNullable(lockedInventories.get(item.productId())),
+                                        userId, organizationId, saleId, request.barStationId());
                         saleItems.add(saleItem);
                         totalAmount = totalAmount.add(saleItem.totalPrice());
                 }
 
+                recordSaleRollup(organizationId, userId, request.barStationId(), totalAmount);
+
                 return new SaleResponseDto(
                                 saleId,
                                 saleItems,
@@ -53,35 +83,56 @@ public class SalesService {
                                 OffsetDateTime.now());
         }
 
-        private SaleItemResponseDto processSaleItem(SaleItemRequestDto item, UUID userId, Long organizationId,
-                        String saleId, Long barStationId) {
-                // Verify product exists and belongs to organization
-                Product product = productRepository.findById(item.productId())
-                                .orElseThrow(() -> new ResponseStatusException(
-                                                HttpStatus.NOT_FOUND, "Product not found: " + item.productId()));
+        /**
+         * Adds the sale to its hourly rollup row, so the sales statistics never
+         * have to read sale history. The row is created empty if this is the
+         * bucket's first sale and then incremented in place, which makes
+         * concurrent sales of the same bartender queue on the row lock instead of
+         * overwriting each other.
+         */
+        private void recordSaleRollup(Long organizationId, UUID userId, Long barStationId, BigDecimal revenue) {
+                OffsetDateTime bucketStart = OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS);
+                Long stationKey = barStationId != null ? barStationId : SalesRollup.NO_STATION;
+                salesRollupRepository.createBucketIfAbsent(organizationId, userId, stationKey, bucketStart);
+                salesRollupRepository.addSale(organizationId, userId, stationKey, bucketStart, revenue);
+        }
 
-                if (!product.getOrganizationId().equals(organizationId)) {
-                        throw new ResponseStatusException(
-                                        HttpStatus.FORBIDDEN, "Product does not belong to your organization");
+        /**
+         * Folds repeated lines for the same product into one line, keeping the
+         * order in which products first appear.
+         */
+        private List<SaleItemRequestDto> mergeDuplicateLines(List<SaleItemRequestDto> items) {
+                Map<Long, BigDecimal> quantities = new LinkedHashMap<>();
+                for (SaleItemRequestDto item : items) {
+                        quantities.merge(item.productId(), item.quantity(), BigDecimal::add);
                 }
+                if (quantities.size() == items.size()) {
+                        return items;
+                }
+                return quantities.entrySet().stream()
+                                .map(line -> new SaleItemRequestDto(line.getKey(), line.getValue()))
+                                .toList();
+        }
 
-                if (!product.isActive()) {
+        private SaleItemResponseDto processSaleItem(SaleItemRequestDto item, Optional<Inventory> lockedInventory,
+                        UUID userId, Long organizationId, String saleId, Long barStationId) {
+                // Verify product exists and belongs to organization
+                PriceRule rule = pricingEngine.find(organizationId, item.productId())
+                                .orElseThrow(() -> productRepository.existsById(item.productId())
+                                                ? new ResponseStatusException(HttpStatus.FORBIDDEN,
+                                                                "Product does not belong to your organization")
+                                                : new ResponseStatusException(HttpStatus.NOT_FOUND,
+                                                                "Product not found: " + item.productId()));
+
+                if (!rule.active()) {
                         throw new ResponseStatusException(
-                                        HttpStatus.BAD_REQUEST, "Product is not active: " + product.getName());
+                                        HttpStatus.BAD_REQUEST, "Product is not active: " + rule.name());
                 }
 
-                // Get inventory for this product
-                /*
-                 * Inventory inventory = inventoryRepository
-                 * .findByOrganizationIdAndProductId(organizationId, item.productId())
-                 * .orElseThrow(() -> new ResponseStatusException(
-                 * HttpStatus.NOT_FOUND, "No inventory found for product: " +
-                 * product.getName()));
-                 */
-                Inventory inventory = Optional.ofNullable(product.getInventory())
+                Inventory inventory = lockedInventory
                                 .orElseThrow(() -> new ResponseStatusException(
                                                 HttpStatus.NOT_FOUND,
-                                                "No inventory found for product: " + product.getName()));
+                                                "No inventory found for product: " + rule.name()));
 
                 // Check stock availability
                 BigDecimal oldQuantity = inventory.getQuantity();
@@ -90,30 +141,25 @@ public class SalesService {
                 if (newQuantity.compareTo(BigDecimal.ZERO) < 0) {
                         throw new ResponseStatusException(
                                         HttpStatus.BAD_REQUEST,
-                                        "Insufficient stock for " + product.getName() +
+                                        "Insufficient stock for " + rule.name() +
                                                         ". Available: " + oldQuantity + ", Requested: "
                                                         + item.quantity());
                 }
 
-                // Calculate pricing
-                BigDecimal priceBeforeSale = Optional.ofNullable(inventory.getAdjustedPrice())
-                                .orElse(product.getBasePrice());
+                // Calculate pricing; with lazy decay this is where the decayed price is materialized
+                OffsetDateTime now = OffsetDateTime.now();
+                BigDecimal priceBeforeSale = rule.currentPrice(inventory.getAdjustedPrice(),
+                                inventory.getPriceAnchoredAt(), now);
                 BigDecimal totalPrice = priceBeforeSale.multiply(item.quantity());
-
-                BigDecimal priceAfterSale = priceBeforeSale;
-                Category category = product.getCategory();
-                if (category != null && category.isDynamicPricing()) {
-                        priceAfterSale = priceBeforeSale.add(product.getOrganization().getPriceIncreaseStep());
-                        if (product.getMaxPrice() != null && priceAfterSale.compareTo(product.getMaxPrice()) > 0) {
-                                priceAfterSale = product.getMaxPrice();
-                        }
-                }
-
+                BigDecimal priceAfterSale = rule.priceAfterSale(priceBeforeSale,
+                                velocityPricingPolicy.extraIncreaseSteps(rule.productId()));
 
                 // Update inventory
                 inventory.setQuantity(newQuantity);
-                inventory.setUpdatedAt(OffsetDateTime.now());
+                inventory.setUpdatedAt(now);
                 inventory.setAdjustedPrice(priceAfterSale);
+                inventory.setPriceAnchoredAt(now);
+                inventory.setLastSoldAt(now);
 
                 inventory = inventoryRepository.save(inventory);
 
@@ -122,9 +168,12 @@ public class SalesService {
                                 oldQuantity, newQuantity, priceBeforeSale, priceAfterSale,
                                 saleId, userId, barStationId);
 
+                eventPublisher.publishEvent(InventoryChangedEvent.of(inventory, priceAfterSale));
+                eventPublisher.publishEvent(new ProductSoldEvent(organizationId, rule.productId()));
+
                 return new SaleItemResponseDto(
                                 item.productId(),
-                                product.getName(),
+                                rule.name(),
                                 item.quantity(),
                                 priceBeforeSale,
                                 totalPrice);
@@ -0,0 +1,38 @@
+package com.borsibaar.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lets a fast-selling product climb faster than one increase step per sale:
+ * every {@code app.pricing.velocity.sales-per-extra-step} lines sold over the
+ * last minute add one more step to the next sale's increase, up to
+ * {@code app.pricing.velocity.max-extra-steps}. The velocity comes from
+ * {@link SaleVelocityTracker}, so this never queries the database.
+ * <p>
+ * Off by default ({@code sales-per-extra-step} 0): every sale is one step.
+ */
+@Component
+public class VelocityPricingPolicy {
+
+    private final SaleVelocityTracker tracker;
+    private final int salesPerExtraStep;
+    private final int maxExtraSteps;
+
+    public VelocityPricingPolicy(SaleVelocityTracker tracker,
+            @Value("${app.pricing.velocity.sales-per-extra-step:0}") int salesPerExtraStep,
+            @Value("${app.pricing.velocity.max-extra-steps:3}") int maxExtraSteps) {
+        this.tracker = tracker;
+        this.salesPerExtraStep = salesPerExtraStep;
+        this.maxExtraSteps = maxExtraSteps;
+    }
+
+    /** Increase steps a sale of the product adds on top of the regular one. */
+    public int extraIncreaseSteps(Long productId) {
+        if (salesPerExtraStep <= 0 || maxExtraSteps <= 0) {
+            return 0;
+        }
+        long extraSteps = tracker.salesPerMinute(productId) / salesPerExtraStep;
+        return (int) Math.min(extraSteps, maxExtraSteps);
+    }
+}
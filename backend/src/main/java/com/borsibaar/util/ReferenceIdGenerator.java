@@ -0,0 +1,101 @@
+package com.borsibaar.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Generates unique, time-ordered reference ids (e.g. {@code SALE-0HBX3J6Q1E4G2})
+ * without a database round trip.
+ * <p>
+ * Each id is a 63-bit Snowflake-style number: 41 bits of milliseconds since
+ * {@link #EPOCH}, 10 bits of node id and a 12-bit per-millisecond sequence,
+ * written as 13 Crockford base32 characters. Because the width is fixed and
+ * the alphabet is in ASCII order, string order equals creation order, so
+ * {@code reference_id} range scans work on the text column.
+ * <p>
+ * The node id comes from {@code app.node-id} ({@code APP_NODE_ID}); without
+ * it, it is derived from the host name and a warning is logged. Replicas must
+ * set distinct node ids (0-1023).
+ */
+@Slf4j
+@Component
+public class ReferenceIdGenerator {
+
+    static final long EPOCH = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int ENCODED_LENGTH = 13;
+
+    private final long nodeId;
+    private final LongSupplier clock;
+    /** Last issued (timestamp << SEQUENCE_BITS | sequence). */
+    private final AtomicLong lastState = new AtomicLong();
+
+    @Autowired
+    public ReferenceIdGenerator(@Value("${app.node-id:}") String nodeId) {
+        this(nodeId == null || nodeId.isBlank() ? hostNodeId() : Long.parseLong(nodeId.trim()),
+                System::currentTimeMillis);
+    }
+
+    public ReferenceIdGenerator(long nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    ReferenceIdGenerator(long nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+
+    /** Returns {@code prefix + "-" + id}, e.g. {@code SALE-0HBX3J6Q1E4G2}. */
+    public String next(String prefix) {
+        return prefix + "-" + encode(nextId());
+    }
+
+    public long nextId() {
+        long now = clock.getAsLong() - EPOCH;
+        // Take the current millisecond, or if it is already used up (or the clock
+        // went backwards) continue right after the last id. Sequence overflow
+        // simply borrows the next millisecond, so this never blocks or spins
+        long state = lastState.accumulateAndGet(now << SEQUENCE_BITS,
+                (last, candidate) -> Math.max(last + 1, candidate));
+        long timestamp = state >>> SEQUENCE_BITS;
+        long sequence = state & ((1L << SEQUENCE_BITS) - 1);
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+
+    static String encode(long id) {
+        char[] chars = new char[ENCODED_LENGTH];
+        for (int i = ENCODED_LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    /** Hashing host names can give two replicas the same node id, hence the warning. */
+    private static long hostNodeId() {
+        long nodeId;
+        try {
+            nodeId = (InetAddress.getLocalHost().getHostName().hashCode() & Integer.MAX_VALUE) % (MAX_NODE_ID + 1);
+        } catch (UnknownHostException e) {
+            nodeId = 0;
+        }
+        log.warn("app.node-id (APP_NODE_ID) is not set; using node id {} derived from the host name. "
+                + "Replicas sharing a database need distinct node ids to issue unique reference ids", nodeId);
+        return nodeId;
+    }
+}
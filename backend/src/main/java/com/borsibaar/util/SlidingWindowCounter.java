@@ -0,0 +1,68 @@
+package com.borsibaar.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts events over the last {@code windowSeconds} seconds without locks.
+ * <p>
+ * The window is a ring of per-second buckets. Each bucket is a single long
+ * holding the epoch second it counts (high bits) and its count (low
+ * {@link #COUNT_BITS} bits), so a bucket that still holds an older second is
+ * reset and incremented by the same compare-and-set; nothing has to sweep
+ * expired buckets. Reads skip buckets that fell out of the window.
+ */
+public final class SlidingWindowCounter {
+
+    static final int COUNT_BITS = 24;
+    static final long MAX_COUNT = (1L << COUNT_BITS) - 1;
+
+    private final AtomicLongArray buckets;
+
+    public SlidingWindowCounter(int windowSeconds) {
+        if (windowSeconds <= 0) {
+            throw new IllegalArgumentException("Window must be at least one second: " + windowSeconds);
+        }
+        this.buckets = new AtomicLongArray(windowSeconds);
+    }
+
+    /** Counts one event in the given second; events older than a bucket's current second are dropped. */
+    public void increment(long epochSecond) {
+        int slot = slot(epochSecond);
+        while (true) {
+            long current = buckets.get(slot);
+            long bucketSecond = current >>> COUNT_BITS;
+            long next;
+            if (bucketSecond == epochSecond) {
+                if ((current & MAX_COUNT) == MAX_COUNT) {
+                    return;
+                }
+                next = current + 1;
+            } else if (bucketSecond < epochSecond) {
+                next = (epochSecond << COUNT_BITS) | 1;
+            } else {
+                return;
+            }
+            if (buckets.compareAndSet(slot, current, next)) {
+                return;
+            }
+        }
+    }
+
+    /** Events counted in the window that ends with the given second. */
+    public long sum(long epochSecond) {
+        long sum = 0;
+        int windowSeconds = buckets.length();
+        for (int i = 0; i < windowSeconds; i++) {
+            long bucket = buckets.get(i);
+            long age = epochSecond - (bucket >>> COUNT_BITS);
+            if (age >= 0 && age < windowSeconds) {
+                sum += bucket & MAX_COUNT;
+            }
+        }
+        return sum;
+    }
+
+    private int slot(long epochSecond) {
+        return (int) Math.floorMod(epochSecond, (long) buckets.length());
+    }
+}
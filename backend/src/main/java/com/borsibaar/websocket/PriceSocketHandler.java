@@ -0,0 +1,237 @@
+package com.borsibaar.websocket;
+
+import com.borsibaar.dto.PriceSocketMessageDto;
+import com.borsibaar.event.CatalogChangedEvent;
+import com.borsibaar.event.InventoryChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Fans out committed inventory and price changes to WebSocket subscribers.
+ * <p>
+ * Topics are keyed by organization ({@code /ws/organizations/{id}}) and bar
+ * station ({@code /ws/organizations/{id}/stations/{stationId}}); both receive
+ * every change of their organization, the station path is only the
+ * authenticated variant used by POS terminals.
+ * <p>
+ * Idle sessions hold no thread. Each change is serialized once and appended
+ * to every subscriber's queue; a subscriber's queue is written out by one
+ * virtual thread at a time, so a slow terminal never blocks the committing
+ * transaction or other subscribers. A subscriber that falls more than
+ * {@code app.price-socket.max-queued} messages behind is disconnected and
+ * reloads on reconnect; its session is closed by that same writer, since a
+ * WebSocket session cannot be closed while a send is in progress.
+ */
+@Slf4j
+@Component
+public class PriceSocketHandler extends TextWebSocketHandler {
+
+    static final String ORGANIZATION_ID = "organizationId";
+    static final String STATION_ID = "stationId";
+    private static final String SUBSCRIBER = "priceSubscriber";
+
+    private final ObjectMapper objectMapper;
+    private final ExecutorService sender;
+    private final int maxQueuedMessages;
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLong> sequences = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PriceSocketHandler(ObjectMapper objectMapper,
+            @Value("${app.price-socket.max-queued:256}") int maxQueuedMessages) {
+        this(objectMapper, Executors.newVirtualThreadPerTaskExecutor(), maxQueuedMessages);
+    }
+
+    PriceSocketHandler(ObjectMapper objectMapper, ExecutorService sender, int maxQueuedMessages) {
+        this.objectMapper = objectMapper;
+        this.sender = sender;
+        this.maxQueuedMessages = maxQueuedMessages;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        Long organizationId = (Long) session.getAttributes().get(ORGANIZATION_ID);
+        Subscriber subscriber = new Subscriber(session);
+        session.getAttributes().put(SUBSCRIBER, subscriber);
+        subscribers.compute(organizationId, (id, orgSubscribers) -> {
+            Set<Subscriber> result = orgSubscribers != null ? orgSubscribers : ConcurrentHashMap.newKeySet();
+            result.add(subscriber);
+            return result;
+        });
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        Object subscriber = session.getAttributes().get(SUBSCRIBER);
+        if (subscriber instanceof Subscriber s) {
+            unsubscribe(s);
+        }
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        // Push-only channel; anything the client sends is ignored
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        Long organizationId = event.organizationId();
+        broadcast(organizationId, new PriceSocketMessageDto(
+                "inventory",
+                organizationId,
+                sequence(organizationId).incrementAndGet(),
+                event.inventoryId(),
+                event.productId(),
+                event.quantity(),
+                event.unitPrice(),
+                event.updatedAt() != null ? event.updatedAt().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME) : null));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        Long organizationId = event.organizationId();
+        broadcast(organizationId, new PriceSocketMessageDto(
+                "catalog", organizationId, sequence(organizationId).incrementAndGet(),
+                null, null, null, null, null));
+    }
+
+    public int subscriberCount(Long organizationId) {
+        Set<Subscriber> orgSubscribers = subscribers.get(organizationId);
+        return orgSubscribers != null ? orgSubscribers.size() : 0;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    void broadcast(Long organizationId, PriceSocketMessageDto payload) {
+        Set<Subscriber> orgSubscribers = subscribers.get(organizationId);
+        if (orgSubscribers == null || orgSubscribers.isEmpty()) {
+            return;
+        }
+        TextMessage message;
+        try {
+            message = new TextMessage(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            log.error("Could not serialize price socket message", e);
+            return;
+        }
+        for (Subscriber subscriber : orgSubscribers) {
+            subscriber.enqueue(message);
+        }
+    }
+
+    private AtomicLong sequence(Long organizationId) {
+        return sequences.computeIfAbsent(organizationId, id -> new AtomicLong());
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        Long organizationId = (Long) subscriber.session.getAttributes().get(ORGANIZATION_ID);
+        subscribers.computeIfPresent(organizationId, (id, orgSubscribers) -> {
+            orgSubscribers.remove(subscriber);
+            return orgSubscribers.isEmpty() ? null : orgSubscribers;
+        });
+    }
+
+    private final class Subscriber {
+        private final WebSocketSession session;
+        private final Queue<TextMessage> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicReference<CloseStatus> closeStatus = new AtomicReference<>();
+
+        private Subscriber(WebSocketSession session) {
+            this.session = session;
+        }
+
+        void enqueue(TextMessage message) {
+            if (closeStatus.get() != null) {
+                return;
+            }
+            if (queued.incrementAndGet() > maxQueuedMessages) {
+                disconnect(CloseStatus.SESSION_NOT_RELIABLE);
+                return;
+            }
+            queue.add(message);
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        /**
+         * The only code that touches the session, so a send and the close
+         * never overlap. Once closed it keeps {@code draining} set and never
+         * runs again.
+         */
+        private void drain() {
+            do {
+                TextMessage message;
+                while (closeStatus.get() == null && (message = queue.poll()) != null) {
+                    queued.decrementAndGet();
+                    try {
+                        session.sendMessage(message);
+                    } catch (IOException | RuntimeException e) {
+                        log.debug("Dropping price socket {}: {}", session.getId(), e.getMessage());
+                        unsubscribe(this);
+                        closeStatus.compareAndSet(null, CloseStatus.SERVER_ERROR);
+                    }
+                }
+                CloseStatus status = closeStatus.get();
+                if (status != null) {
+                    queue.clear();
+                    close(status);
+                    return;
+                }
+                draining.set(false);
+                // Re-check: a message or a disconnect may have come in after the last poll
+            } while ((!queue.isEmpty() || closeStatus.get() != null) && draining.compareAndSet(false, true));
+        }
+
+        /** Stops delivery at once; the session itself is closed by the drainer, after any send in progress. */
+        private void disconnect(CloseStatus status) {
+            if (closeStatus.compareAndSet(null, status)) {
+                unsubscribe(this);
+                queue.clear();
+                scheduleDrain();
+            }
+        }
+
+        private void close(CloseStatus status) {
+            try {
+                session.close(status);
+            } catch (IOException | RuntimeException e) {
+                log.debug("Closing price socket {} failed: {}", session.getId(), e.getMessage());
+            }
+        }
+    }
+}
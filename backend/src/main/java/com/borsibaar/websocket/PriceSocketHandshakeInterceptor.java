@@ -0,0 +1,67 @@
+package com.borsibaar.websocket;
+
+import com.borsibaar.entity.User;
+import com.borsibaar.repository.BarStationRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves the topic from the handshake path. Organization topics carry the
+ * same data as the public price board and are open; station topics require a
+ * logged-in member of the organization and an existing station.
+ */
+@Component
+@RequiredArgsConstructor
+public class PriceSocketHandshakeInterceptor implements HandshakeInterceptor {
+
+    private static final Pattern TOPIC = Pattern.compile("/ws/organizations/(\\d+)(?:/stations/(\\d+))?/?$");
+
+    private final BarStationRepository barStationRepository;
+
+    @Override
+    public boolean beforeHandshake(@NonNull ServerHttpRequest request, @NonNull ServerHttpResponse response,
+            @NonNull WebSocketHandler wsHandler, @NonNull Map<String, Object> attributes) {
+        Matcher matcher = TOPIC.matcher(request.getURI().getPath());
+        if (!matcher.find()) {
+            response.setStatusCode(HttpStatus.NOT_FOUND);
+            return false;
+        }
+        Long organizationId = Long.valueOf(matcher.group(1));
+        attributes.put(PriceSocketHandler.ORGANIZATION_ID, organizationId);
+
+        if (matcher.group(2) == null) {
+            return true;
+        }
+        Long stationId = Long.valueOf(matcher.group(2));
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof User user)) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+        if (!organizationId.equals(user.getOrganizationId())
+                || !barStationRepository.existsByOrganizationIdAndId(organizationId, stationId)) {
+            response.setStatusCode(HttpStatus.FORBIDDEN);
+            return false;
+        }
+        attributes.put(PriceSocketHandler.STATION_ID, stationId);
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(@NonNull ServerHttpRequest request, @NonNull ServerHttpResponse response,
+            @NonNull WebSocketHandler wsHandler, Exception exception) {
+    }
+}
@@ -2,11 +2,16 @@ package com.borsibaar.config;
 
 import com.borsibaar.entity.Role;
 import com.borsibaar.entity.User;
+import com.borsibaar.event.UserChangedEvent;
 import com.borsibaar.repository.UserRepository;
 import com.borsibaar.service.JwtService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
 import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -14,15 +19,21 @@ import org.springframework.security.oauth2.client.registration.ClientRegistratio
 import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
 import org.springframework.security.oauth2.core.AuthorizationGrantType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
-import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
 import java.util.Optional;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -41,13 +52,21 @@ class JwtAuthenticationFilterTest {
     @MockitoBean
     private ClientRegistrationRepository clientRegistrationRepository;
 
-    private final String testSecret = "test-secret-key-for-jwt-testing-purposes-at-least-256-bits";
+    @Autowired
+    private PrincipalCache principalCache;
+
+    // Signs tokens the way an issuer with the configured key would
+    @Value("${jwt.secret}")
+    private String testSecret;
+
+    @BeforeEach
+    void setUp() {
+        // Each test stubs its own users
+        principalCache.invalidateAll();
+    }
 
     @Test
     void testFilter_WithValidJwtCookie_AuthenticatesUser() throws Exception {
-        // Arrange: Set test secret
-        ReflectionTestUtils.setField(jwtService, "secretKey", testSecret);
-
         // Arrange: Create ADMIN user (required for /api/users endpoint)
         Role adminRole = Role.builder()
                 .id(2L)
@@ -76,10 +95,35 @@ class JwtAuthenticationFilterTest {
     }
 
     @Test
-    void testFilter_WithInvalidJwtCookie_DoesNotAuthenticate() throws Exception {
-        // Arrange: Set test secret
-        ReflectionTestUtils.setField(jwtService, "secretKey", testSecret);
+    void testFilter_RepeatedRequests_LoadUserOnceUntilChanged() throws Exception {
+        User adminUser = User.builder()
+                .id(UUID.randomUUID())
+                .email("admin@example.com")
+                .name("Admin User")
+                .organizationId(1L)
+                .role(Role.builder().id(2L).name("ADMIN").build())
+                .build();
+        when(userRepository.findByEmailWithRole("admin@example.com"))
+                .thenReturn(Optional.of(adminUser));
+        String token = jwtService.generateToken("admin@example.com");
 
+        mockMvc.perform(get("/api/users").cookie(new Cookie("jwt", token)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/users").cookie(new Cookie("jwt", token)))
+                .andExpect(status().isOk());
+        verify(userRepository, times(1)).findByEmailWithRole("admin@example.com");
+
+        // Demoted: the next request sees the new role instead of the cached one
+        adminUser.setRole(Role.builder().id(1L).name("USER").build());
+        principalCache.onUserChanged(new UserChangedEvent("admin@example.com"));
+
+        mockMvc.perform(get("/api/users").cookie(new Cookie("jwt", token)))
+                .andExpect(status().isForbidden());
+        verify(userRepository, times(2)).findByEmailWithRole("admin@example.com");
+    }
+
+    @Test
+    void testFilter_WithInvalidJwtCookie_DoesNotAuthenticate() throws Exception {
         String invalidToken = "invalid.jwt.token";
 
         // Act & Assert: Request with invalid JWT should redirect to OAuth2 login (302)
@@ -99,9 +143,6 @@ class JwtAuthenticationFilterTest {
 
     @Test
     void testFilter_WithValidTokenButUserNotFound_DoesNotAuthenticate() throws Exception {
-        // Arrange: Set test secret
-        ReflectionTestUtils.setField(jwtService, "secretKey", testSecret);
-
         // Arrange: Mock repository to return empty
         when(userRepository.findByEmailWithRole(anyString()))
                 .thenReturn(Optional.empty());
@@ -141,9 +182,6 @@ class JwtAuthenticationFilterTest {
 
     @Test
     void testFilter_WithExpiredToken_DoesNotAuthenticate() throws Exception {
-        // Arrange: Set test secret
-        ReflectionTestUtils.setField(jwtService, "secretKey", testSecret);
-
         // Arrange: Create an expired token using JwtService's secret
         String email = "test@example.com";
 
@@ -159,9 +197,6 @@ class JwtAuthenticationFilterTest {
 
     @Test
     void testFilter_WithValidTokenAndAdminRole_SetsCorrectAuthorities() throws Exception {
-        // Arrange: Set test secret
-        ReflectionTestUtils.setField(jwtService, "secretKey", testSecret);
-
         // Arrange: Create admin user
         Role adminRole = Role.builder()
                 .id(2L)
@@ -202,9 +237,6 @@ class JwtAuthenticationFilterTest {
 
     @Test
     void testFilter_WithMultipleCookies_ExtractsCorrectJwt() throws Exception {
-        // Arrange: Set test secret
-        ReflectionTestUtils.setField(jwtService, "secretKey", testSecret);
-
         // Arrange: Create ADMIN user (required for /api/users endpoint)
         Role adminRole = Role.builder()
                 .id(2L)
@@ -236,9 +268,6 @@ class JwtAuthenticationFilterTest {
 
     @Test
     void testFilter_AllowsAuthLogoutWithJwt() throws Exception {
-        // Arrange: Set test secret
-        ReflectionTestUtils.setField(jwtService, "secretKey", testSecret);
-
         // Arrange: Create test user
         Role userRole = Role.builder()
                 .id(1L)
@@ -268,4 +297,70 @@ class JwtAuthenticationFilterTest {
                 .cookie(new Cookie("jwt", token)))
                 .andExpect(status().is5xxServerError()); // 500 because endpoint implementation issue
     }
+
+    @Test
+    void testFilter_WithClaimsToken_AuthenticatesWithoutDatabase() throws Exception {
+        User adminUser = User.builder()
+                .id(UUID.randomUUID())
+                .email("admin@example.com")
+                .name("Admin User")
+                .organizationId(1L)
+                .role(Role.builder().id(2L).name("ADMIN").build())
+                .build();
+        String token = jwtService.generateToken(adminUser);
+
+        mockMvc.perform(get("/api/users").cookie(new Cookie("jwt", token)))
+                .andExpect(status().isOk());
+
+        verify(userRepository, never()).findByEmailWithRole(anyString());
+    }
+
+    @Test
+    void testFilter_WithExpiredClaimsTokenInSession_RefreshesFromCurrentUser() throws Exception {
+        // Issued as a plain user; promoted to admin since
+        UUID userId = UUID.randomUUID();
+        String expiredToken = expiredToken("admin@example.com", userId, "USER",
+                System.currentTimeMillis() / 1000 - 60 * 60);
+        User adminUser = User.builder()
+                .id(userId)
+                .email("admin@example.com")
+                .name("Admin User")
+                .organizationId(1L)
+                .role(Role.builder().id(2L).name("ADMIN").build())
+                .build();
+        when(userRepository.findByEmailWithRole("admin@example.com"))
+                .thenReturn(Optional.of(adminUser));
+
+        String refreshed = mockMvc.perform(get("/api/users").cookie(new Cookie("jwt", expiredToken)))
+                .andExpect(status().isOk())
+                .andExpect(cookie().exists("jwt"))
+                .andReturn().getResponse().getCookie("jwt").getValue();
+
+        assertEquals("ADMIN", jwtService.toPrincipal(jwtService.parseToken(refreshed)).getRole().getName());
+    }
+
+    @Test
+    void testFilter_WithExpiredTokenAfterSession_DoesNotAuthenticate() throws Exception {
+        String expiredToken = expiredToken("admin@example.com", UUID.randomUUID(), "ADMIN",
+                System.currentTimeMillis() / 1000 - 25 * 60 * 60);
+
+        mockMvc.perform(get("/api/users").cookie(new Cookie("jwt", expiredToken)))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(cookie().doesNotExist("jwt"));
+
+        verify(userRepository, never()).findByEmailWithRole(anyString());
+    }
+
+    private String expiredToken(String email, UUID userId, String role, long authTime) {
+        return Jwts.builder()
+                .subject(email)
+                .claim("uid", userId.toString())
+                .claim("org", 1L)
+                .claim("role", role)
+                .claim("auth_time", authTime)
+                .issuedAt(new Date(System.currentTimeMillis() - 20000))
+                .expiration(new Date(System.currentTimeMillis() - 10000))
+                .signWith(SignatureAlgorithm.HS256, testSecret.getBytes(StandardCharsets.UTF_8))
+                .compact();
+    }
 }
@@ -0,0 +1,132 @@
+package com.borsibaar.config;
+
+import com.borsibaar.entity.Role;
+import com.borsibaar.entity.User;
+import com.borsibaar.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PrincipalCacheTest {
+
+    @Mock private UserRepository userRepository;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-06-01T20:00:00Z"));
+    private PrincipalCache principalCache;
+
+    @BeforeEach
+    void setUp() {
+        principalCache = new PrincipalCache(userRepository, Duration.ofSeconds(60), 2, clock);
+    }
+
+    @Test
+    void find_WithinTtl_ServesSnapshotWithoutQuery() {
+        User stored = user("a@example.com", "ADMIN");
+        when(userRepository.findByEmailWithRole("a@example.com")).thenReturn(Optional.of(stored));
+
+        User first = principalCache.find("a@example.com").orElseThrow();
+        clock.advance(Duration.ofSeconds(59));
+        User second = principalCache.find("a@example.com").orElseThrow();
+
+        verify(userRepository, times(1)).findByEmailWithRole("a@example.com");
+        assertEquals(stored.getId(), second.getId());
+        assertEquals(1L, second.getOrganizationId());
+        assertEquals("ADMIN", second.getRole().getName());
+        // Every request gets its own copy
+        assertNotSame(first, second);
+        first.setOrganizationId(99L);
+        assertEquals(1L, principalCache.find("a@example.com").orElseThrow().getOrganizationId());
+    }
+
+    @Test
+    void find_AfterTtl_ReloadsUser() {
+        when(userRepository.findByEmailWithRole("a@example.com"))
+                .thenReturn(Optional.of(user("a@example.com", "USER")));
+
+        principalCache.find("a@example.com");
+        clock.advance(Duration.ofSeconds(60));
+        principalCache.find("a@example.com");
+
+        verify(userRepository, times(2)).findByEmailWithRole("a@example.com");
+    }
+
+    @Test
+    void find_UnknownUser_IsNotCached() {
+        when(userRepository.findByEmailWithRole("ghost@example.com")).thenReturn(Optional.empty());
+
+        assertTrue(principalCache.find("ghost@example.com").isEmpty());
+        assertTrue(principalCache.find("ghost@example.com").isEmpty());
+
+        verify(userRepository, times(2)).findByEmailWithRole("ghost@example.com");
+        assertEquals(0, principalCache.size());
+    }
+
+    @Test
+    void find_Full_DropsExpiredEntriesAndOtherwiseSkipsCaching() {
+        for (String email : new String[] { "a@example.com", "b@example.com", "c@example.com" }) {
+            when(userRepository.findByEmailWithRole(email)).thenReturn(Optional.of(user(email, "USER")));
+        }
+
+        principalCache.find("a@example.com");
+        principalCache.find("b@example.com");
+        principalCache.find("c@example.com");
+        assertEquals(2, principalCache.size());
+        principalCache.find("c@example.com");
+        verify(userRepository, times(2)).findByEmailWithRole("c@example.com");
+
+        clock.advance(Duration.ofSeconds(60));
+        principalCache.find("c@example.com");
+        assertEquals(1, principalCache.size());
+    }
+
+    private static User user(String email, String role) {
+        return User.builder()
+                .id(UUID.randomUUID())
+                .email(email)
+                .name("Name")
+                .organizationId(1L)
+                .role(Role.builder().id(1L).name(role).build())
+                .build();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
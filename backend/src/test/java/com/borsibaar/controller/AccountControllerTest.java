@@ -1,7 +1,9 @@
 package com.borsibaar.controller;
 
+import com.borsibaar.config.PrincipalCache;
 import com.borsibaar.entity.Role;
 import com.borsibaar.entity.User;
+import com.borsibaar.event.UserChangedEvent;
 import com.borsibaar.repository.RoleRepository;
 import com.borsibaar.repository.UserRepository;
 import org.junit.jupiter.api.AfterEach;
@@ -42,6 +44,9 @@ class AccountControllerTest {
     @MockitoBean
     private RoleRepository roleRepository;
 
+    @MockitoBean
+    private PrincipalCache principalCache;
+
     @MockitoBean
     private ClientRegistrationRepository clientRegistrationRepository;
 
@@ -70,6 +75,7 @@ class AccountControllerTest {
     void onboarding_WithValidPayload_SetsOrganizationAndReturns204() throws Exception {
         User user = userWithOrgAndRole(null, "USER");
         setAuth(user);
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
 
         Role adminRole = Role.builder().id(1L).name("ADMIN").build();
         when(roleRepository.findByName("ADMIN")).thenReturn(Optional.of(adminRole));
@@ -79,9 +85,13 @@ class AccountControllerTest {
         mockMvc.perform(post("/api/account/onboarding")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(payload))
-                .andExpect(status().isNoContent());
+                .andExpect(status().isNoContent())
+                // Re-issued so the token carries the new organization and role
+                .andExpect(cookie().exists("jwt"));
 
         verify(userRepository).save(any(User.class));
+        // The cached principal still has no organization; it must not outlive the commit
+        verify(principalCache).onUserChanged(new UserChangedEvent(user.getEmail()));
     }
 
     @Test
@@ -82,6 +82,19 @@ class CategoryControllerTest {
         verify(categoryService).getAllByOrg(5L);
     }
 
+    @Test
+    void getAll_UsesQueryParam_PubliclyCacheable() throws Exception {
+        when(categoryService.getAllByOrg(9L)).thenReturn(List.of(new CategoryResponseDto(1L, "Beers", true)));
+
+        mockMvc.perform(get("/api/categories").param("organizationId", "9"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Beers"))
+                .andExpect(header().string("Cache-Control",
+                        "max-age=0, public, s-maxage=2, stale-while-revalidate=10"));
+
+        verify(categoryService).getAllByOrg(9L);
+    }
+
     @Test
     void getById_ReturnsDto() throws Exception {
         User user = userWithOrg(2L, "USER");
@@ -4,6 +4,7 @@ import com.borsibaar.dto.*;
 import com.borsibaar.entity.Role;
 import com.borsibaar.entity.User;
 import com.borsibaar.service.InventoryService;
+import com.borsibaar.service.PriceSeriesService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
@@ -44,6 +45,9 @@ class InventoryControllerTest {
         @MockitoBean
         private InventoryService inventoryService;
 
+        @MockitoBean
+        private PriceSeriesService priceSeriesService;
+
         @MockitoBean
         private ClientRegistrationRepository clientRegistrationRepository;
 
@@ -104,7 +108,10 @@ class InventoryControllerTest {
                 mockMvc.perform(get("/api/inventory").param("organizationId", "99").param("categoryId", "7"))
                                 .andExpect(status().isOk())
                                 .andExpect(jsonPath("$", hasSize(1)))
-                                .andExpect(jsonPath("$[0].organizationId").value(99));
+                                .andExpect(jsonPath("$[0].organizationId").value(99))
+                                // Public read: a shared cache may keep it for a couple of seconds
+                                .andExpect(header().string("Cache-Control",
+                                                "max-age=0, public, s-maxage=2, stale-while-revalidate=10"));
 
                 verify(inventoryService).getByOrganization(99L, 7L);
         }
@@ -168,24 +175,67 @@ class InventoryControllerTest {
         void getTransactionHistory_ReturnsList() throws Exception {
                 User user = userWithOrg(4L, "USER");
                 setAuth(user);
-                when(inventoryService.getTransactionHistory(40L, 4L)).thenReturn(List.of(
-                                new InventoryTransactionResponseDto(1L, 99L, "SALE", BigDecimal.ONE.negate(),
-                                                BigDecimal.TEN, new BigDecimal("9"), BigDecimal.TEN, BigDecimal.TEN,
-                                                "ref", "n", UUID.randomUUID().toString(), "Alice", "a@b.c",
-                                                OffsetDateTime.now().toString())));
+                when(inventoryService.getTransactionHistory(40L, 4L, null, null, null)).thenReturn(
+                                new InventoryTransactionPageResponseDto(List.of(
+                                                new InventoryTransactionResponseDto(1L, 99L, "SALE", BigDecimal.ONE.negate(),
+                                                                BigDecimal.TEN, new BigDecimal("9"), BigDecimal.TEN, BigDecimal.TEN,
+                                                                "ref", "n", UUID.randomUUID().toString(), "Alice", "a@b.c",
+                                                                OffsetDateTime.now().toString())),
+                                                "next"));
 
                 mockMvc.perform(get("/api/inventory/product/{productId}/history", 40L))
                                 .andExpect(status().isOk())
-                                .andExpect(jsonPath("$", hasSize(1)));
+                                .andExpect(jsonPath("$.items", hasSize(1)))
+                                .andExpect(jsonPath("$.nextCursor").value("next"));
 
-                verify(inventoryService).getTransactionHistory(40L, 4L);
+                verify(inventoryService).getTransactionHistory(40L, 4L, null, null, null);
+        }
+
+        @Test
+        void getTransactionHistory_PassesPagingParameters() throws Exception {
+                User user = userWithOrg(4L, "USER");
+                setAuth(user);
+                OffsetDateTime since = OffsetDateTime.parse("2025-06-01T19:00:00Z");
+                when(inventoryService.getTransactionHistory(40L, 4L, since, "abc", 50)).thenReturn(
+                                new InventoryTransactionPageResponseDto(List.of(), null));
+
+                mockMvc.perform(get("/api/inventory/product/{productId}/history", 40L)
+                                .param("since", "2025-06-01T19:00:00Z")
+                                .param("cursor", "abc")
+                                .param("limit", "50"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items", hasSize(0)));
+
+                verify(inventoryService).getTransactionHistory(40L, 4L, since, "abc", 50);
+        }
+
+        @Test
+        void getPriceSeries_PassesResolutionAndWindow() throws Exception {
+                User user = userWithOrg(4L, "USER");
+                setAuth(user);
+                OffsetDateTime from = OffsetDateTime.parse("2025-06-01T20:00:00Z");
+                OffsetDateTime to = OffsetDateTime.parse("2025-06-01T21:00:00Z");
+                when(priceSeriesService.getPriceSeries(40L, 4L, "5m", from, to)).thenReturn(
+                                new PriceSeriesResponseDto(40L, "5m", from.toString(), to.toString(), List.of(
+                                                new PriceBucketDto(from.toString(), BigDecimal.ONE, BigDecimal.TEN,
+                                                                BigDecimal.ONE, BigDecimal.TEN, 2))));
+
+                mockMvc.perform(get("/api/inventory/product/{productId}/price-series", 40L)
+                                .param("resolution", "5m")
+                                .param("from", "2025-06-01T20:00:00Z")
+                                .param("to", "2025-06-01T21:00:00Z"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.buckets", hasSize(1)))
+                                .andExpect(jsonPath("$.buckets[0].changes").value(2));
+
+                verify(priceSeriesService).getPriceSeries(40L, 4L, "5m", from, to);
         }
 
         @Test
         void getUserSalesStats_ReturnsList() throws Exception {
                 User user = userWithOrg(6L, "USER");
                 setAuth(user);
-                when(inventoryService.getUserSalesStats(6L)).thenReturn(List.of(
+                when(inventoryService.getUserSalesStats(6L, null, null)).thenReturn(List.of(
                                 new UserSalesStatsResponseDto(UUID.randomUUID().toString(), "U", "u@x", 2L,
                                                 new BigDecimal("12.00"), 1L, "S")));
 
@@ -193,21 +243,38 @@ class InventoryControllerTest {
                                 .andExpect(status().isOk())
                                 .andExpect(jsonPath("$", hasSize(1)));
 
-                verify(inventoryService).getUserSalesStats(6L);
+                verify(inventoryService).getUserSalesStats(6L, null, null);
         }
 
         @Test
         void getStationSalesStats_ReturnsList() throws Exception {
                 User user = userWithOrg(7L, "USER");
                 setAuth(user);
-                when(inventoryService.getStationSalesStats(7L)).thenReturn(List.of(
+                when(inventoryService.getStationSalesStats(7L, null, null)).thenReturn(List.of(
                                 new StationSalesStatsResponseDto(1L, "Main", 3L, new BigDecimal("30.00"))));
 
                 mockMvc.perform(get("/api/inventory/station-sales-stats"))
                                 .andExpect(status().isOk())
                                 .andExpect(jsonPath("$", hasSize(1)));
 
-                verify(inventoryService).getStationSalesStats(7L);
+                verify(inventoryService).getStationSalesStats(7L, null, null);
+        }
+
+        @Test
+        void getStationSalesStats_WithWindow_PassesBounds() throws Exception {
+                User user = userWithOrg(7L, "USER");
+                setAuth(user);
+                OffsetDateTime from = OffsetDateTime.parse("2025-06-01T18:00:00Z");
+                OffsetDateTime to = OffsetDateTime.parse("2025-06-02T02:00:00Z");
+                when(inventoryService.getStationSalesStats(7L, from, to)).thenReturn(List.of());
+
+                mockMvc.perform(get("/api/inventory/station-sales-stats")
+                                .param("from", "2025-06-01T18:00:00Z")
+                                .param("to", "2025-06-02T02:00:00Z"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$", hasSize(0)));
+
+                verify(inventoryService).getStationSalesStats(7L, from, to);
         }
 
         private static User userWithOrg(Long orgId, String roleName) {
@@ -2,6 +2,11 @@ package com.borsibaar.controller;
 
 import com.borsibaar.dto.OrganizationRequestDto;
 import com.borsibaar.dto.OrganizationResponseDto;
+import com.borsibaar.dto.PriceBoardCategoryDto;
+import com.borsibaar.dto.PriceBoardResponseDto;
+import com.borsibaar.dto.InventoryResponseDto;
+import com.borsibaar.service.BoardStreamService;
+import com.borsibaar.service.InventoryService;
 import com.borsibaar.service.OrganizationService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -12,6 +17,7 @@ import org.springframework.http.MediaType;
 import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
@@ -37,13 +43,19 @@ class OrganizationControllerTest {
     @MockitoBean
     private OrganizationService organizationService;
 
+    @MockitoBean
+    private InventoryService inventoryService;
+
+    @MockitoBean
+    private BoardStreamService boardStreamService;
+
     @MockitoBean
     private ClientRegistrationRepository clientRegistrationRepository;
 
     @Test
     void create_ReturnsCreated() throws Exception {
-        OrganizationRequestDto req = new OrganizationRequestDto("Org", BigDecimal.valueOf(0.5), BigDecimal.valueOf(0.5));
-        OrganizationResponseDto resp = new OrganizationResponseDto(1L, "Org", OffsetDateTime.now(), OffsetDateTime.now(), BigDecimal.valueOf(0.5), BigDecimal.valueOf(0.5));
+        OrganizationRequestDto req = new OrganizationRequestDto("Org", BigDecimal.valueOf(0.5), BigDecimal.valueOf(0.5), 60, null);
+        OrganizationResponseDto resp = new OrganizationResponseDto(1L, "Org", OffsetDateTime.now(), OffsetDateTime.now(), BigDecimal.valueOf(0.5), BigDecimal.valueOf(0.5), 60, false);
         when(organizationService.create(any(OrganizationRequestDto.class))).thenReturn(resp);
 
         mockMvc.perform(post("/api/organizations")
@@ -58,7 +70,7 @@ class OrganizationControllerTest {
 
     @Test
     void get_ReturnsDto() throws Exception {
-        OrganizationResponseDto resp = new OrganizationResponseDto(2L, "Org2", OffsetDateTime.now(), OffsetDateTime.now(), BigDecimal.valueOf(0.5), BigDecimal.valueOf(0.5));
+        OrganizationResponseDto resp = new OrganizationResponseDto(2L, "Org2", OffsetDateTime.now(), OffsetDateTime.now(), BigDecimal.valueOf(0.5), BigDecimal.valueOf(0.5), 60, false);
         when(organizationService.getById(2L)).thenReturn(resp);
 
         mockMvc.perform(get("/api/organizations/2"))
@@ -71,8 +83,8 @@ class OrganizationControllerTest {
 
     @Test
     void getAll_ReturnsList() throws Exception {
-        OrganizationResponseDto resp1 = new OrganizationResponseDto(1L, "A", OffsetDateTime.now(), OffsetDateTime.now(), BigDecimal.valueOf(0.5), BigDecimal.valueOf(0.5));
-        OrganizationResponseDto resp2 = new OrganizationResponseDto(2L, "B", OffsetDateTime.now(), OffsetDateTime.now(), BigDecimal.valueOf(0.5), BigDecimal.valueOf(0.5));
+        OrganizationResponseDto resp1 = new OrganizationResponseDto(1L, "A", OffsetDateTime.now(), OffsetDateTime.now(), BigDecimal.valueOf(0.5), BigDecimal.valueOf(0.5), 60, false);
+        OrganizationResponseDto resp2 = new OrganizationResponseDto(2L, "B", OffsetDateTime.now(), OffsetDateTime.now(), BigDecimal.valueOf(0.5), BigDecimal.valueOf(0.5), 60, false);
         when(organizationService.getAll()).thenReturn(List.of(resp1, resp2));
 
         mockMvc.perform(get("/api/organizations"))
@@ -87,7 +99,9 @@ class OrganizationControllerTest {
         OrganizationRequestDto req = new OrganizationRequestDto(
                 "Updated Org",
                 BigDecimal.valueOf(1.0),
-                BigDecimal.valueOf(0.25)
+                BigDecimal.valueOf(0.25),
+                30,
+                null
         );
         OrganizationResponseDto resp = new OrganizationResponseDto(
                 5L,
@@ -95,7 +109,9 @@ class OrganizationControllerTest {
                 OffsetDateTime.now(),
                 OffsetDateTime.now(),
                 BigDecimal.valueOf(1.0),
-                BigDecimal.valueOf(0.25)
+                BigDecimal.valueOf(0.25),
+                30,
+                false
         );
         when(organizationService.update(5L, req)).thenReturn(resp);
 
@@ -106,8 +122,50 @@ class OrganizationControllerTest {
                 .andExpect(jsonPath("$.id").value(5))
                 .andExpect(jsonPath("$.name").value("Updated Org"))
                 .andExpect(jsonPath("$.priceIncreaseStep").value(1.0))
-                .andExpect(jsonPath("$.priceDecreaseStep").value(0.25));
+                .andExpect(jsonPath("$.priceDecreaseStep").value(0.25))
+                .andExpect(jsonPath("$.priceDecayIntervalSeconds").value(30));
 
         verify(organizationService).update(5L, req);
     }
+
+    @Test
+    void getBoard_ReturnsBoardWithETag() throws Exception {
+        when(inventoryService.getBoard(2L)).thenReturn(board("abc123"));
+
+        mockMvc.perform(get("/api/organizations/2/board"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"abc123\""))
+                .andExpect(jsonPath("$.version").value("abc123"))
+                .andExpect(jsonPath("$.categories", hasSize(1)))
+                .andExpect(jsonPath("$.categories[0].products[0].productName").value("Cola"));
+
+        verify(inventoryService).getBoard(2L);
+    }
+
+    @Test
+    void getBoard_MatchingIfNoneMatch_ReturnsNotModified() throws Exception {
+        when(inventoryService.getBoard(2L)).thenReturn(board("abc123"));
+
+        mockMvc.perform(get("/api/organizations/2/board").header("If-None-Match", "\"abc123\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void streamBoard_StartsEventStream() throws Exception {
+        when(boardStreamService.subscribe(2L)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/organizations/2/board/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string("X-Accel-Buffering", "no"));
+
+        verify(boardStreamService).subscribe(2L);
+    }
+
+    private PriceBoardResponseDto board(String version) {
+        InventoryResponseDto cola = new InventoryResponseDto(1L, 2L, 10L, "Cola", BigDecimal.TEN,
+                new BigDecimal("2.50"), "abc", new BigDecimal("2.00"), null, null, OffsetDateTime.now().toString());
+        return new PriceBoardResponseDto(2L, version,
+                List.of(new PriceBoardCategoryDto(3L, "Drinks", true, List.of(cola))));
+    }
 }
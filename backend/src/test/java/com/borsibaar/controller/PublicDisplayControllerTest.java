@@ -0,0 +1,134 @@
+package com.borsibaar.controller;
+
+import com.borsibaar.dto.CategoryResponseDto;
+import com.borsibaar.dto.PriceBoardResponseDto;
+import com.borsibaar.dto.PriceSeriesResponseDto;
+import com.borsibaar.service.BoardStreamService;
+import com.borsibaar.service.CategoryService;
+import com.borsibaar.service.InventoryService;
+import com.borsibaar.service.JwtService;
+import com.borsibaar.service.PriceSeriesService;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = true) // The point is the public filter chain
+class PublicDisplayControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private InventoryService inventoryService;
+
+    @MockitoBean
+    private CategoryService categoryService;
+
+    @MockitoBean
+    private PriceSeriesService priceSeriesService;
+
+    @MockitoBean
+    private BoardStreamService boardStreamService;
+
+    @MockitoSpyBean
+    private JwtService jwtService;
+
+    @MockitoBean
+    private ClientRegistrationRepository clientRegistrationRepository;
+
+    @Test
+    void getBoard_Anonymous_IsServedWithSharedCacheHeaders() throws Exception {
+        when(inventoryService.getBoard(2L)).thenReturn(new PriceBoardResponseDto(2L, "v1", List.of(),
+                OffsetDateTime.parse("2025-06-01T20:01:00Z")));
+
+        mockMvc.perform(get("/api/public/organizations/2/board"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"v1\""))
+                .andExpect(header().string("Cache-Control", containsString("public")))
+                .andExpect(header().string("Cache-Control", containsString("s-maxage=2")))
+                .andExpect(header().string("Cache-Control", containsString("stale-while-revalidate=10")))
+                .andExpect(header().doesNotExist("Set-Cookie"))
+                .andExpect(jsonPath("$.organizationId").value(2))
+                .andExpect(jsonPath("$.pricesChangeAt").doesNotExist());
+    }
+
+    @Test
+    void getBoard_SameVersion_NotModified() throws Exception {
+        when(inventoryService.getBoard(2L)).thenReturn(new PriceBoardResponseDto(2L, "v1", List.of()));
+
+        mockMvc.perform(get("/api/public/organizations/2/board").header("If-None-Match", "\"v1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("Cache-Control", containsString("s-maxage=2")));
+    }
+
+    @Test
+    void getCategories_WithJwtCookie_NeverLooksAtTheToken() throws Exception {
+        when(categoryService.getAllByOrg(2L)).thenReturn(List.of(new CategoryResponseDto(1L, "Beer", true)));
+
+        mockMvc.perform(get("/api/public/organizations/2/categories").cookie(new Cookie("jwt", "anything")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Beer"));
+
+        verify(jwtService, never()).parseToken(anyString());
+    }
+
+    @Test
+    void getCategories_UnderContextPath_NeverLooksAtTheToken() throws Exception {
+        when(categoryService.getAllByOrg(2L)).thenReturn(List.of(new CategoryResponseDto(1L, "Beer", true)));
+
+        // Production serves the API under /sb
+        mockMvc.perform(get("/sb/api/public/organizations/2/categories").contextPath("/sb")
+                        .cookie(new Cookie("jwt", "anything")))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Set-Cookie"));
+
+        verify(jwtService, never()).parseToken(anyString());
+    }
+
+    @Test
+    void getInventory_PassesCategoryFilter() throws Exception {
+        when(inventoryService.getByOrganization(2L, 7L)).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/public/organizations/2/inventory").param("categoryId", "7"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", containsString("s-maxage=2")));
+
+        verify(inventoryService).getByOrganization(2L, 7L);
+    }
+
+    @Test
+    void getPriceSeries_UsesDefaultWindow() throws Exception {
+        when(priceSeriesService.getPriceSeries(5L, 2L, "1m", null, null))
+                .thenReturn(new PriceSeriesResponseDto(5L, "1m", "a", "b", List.of()));
+
+        mockMvc.perform(get("/api/public/organizations/2/products/5/price-series").param("resolution", "1m"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.productId").value(5));
+    }
+
+    @Test
+    void post_IsRejected() throws Exception {
+        mockMvc.perform(post("/api/public/organizations/2/board"))
+                .andExpect(status().isForbidden());
+
+        verify(inventoryService, never()).getBoard(any());
+    }
+}
@@ -0,0 +1,240 @@
+package com.borsibaar.jobs;
+
+import com.borsibaar.entity.Organization;
+import com.borsibaar.event.InventoryChangedEvent;
+import com.borsibaar.repository.InventoryRepository;
+import com.borsibaar.repository.InventoryRepository.PriceReduction;
+import com.borsibaar.repository.OrganizationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PriceCorrectionJobTest {
+
+    @Mock private InventoryRepository inventoryRepository;
+    @Mock private OrganizationRepository organizationRepository;
+    @Mock private ApplicationEventPublisher eventPublisher;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-06-01T20:00:00Z"));
+    private final List<ManualExecutor> shards = List.of(new ManualExecutor(), new ManualExecutor());
+    private PriceCorrectionJob priceCorrectionJob;
+
+    @BeforeEach
+    void setUp() {
+        priceCorrectionJob = new PriceCorrectionJob(inventoryRepository, organizationRepository, eventPublisher,
+                new ArrayList<ExecutorService>(shards), 0, clock);
+    }
+
+    @Test
+    void adjustPrices_OneStatementPerRun_PublishesEachChangedRow() {
+        List<PriceReduction> reductions = List.of(
+                reduction(1L, 10L, 100L, "5", "2.50"),
+                reduction(1L, 20L, 200L, "7", "1.00"));
+        when(inventoryRepository.applyPriceDecay(eq(1L), any(OffsetDateTime.class), any(OffsetDateTime.class)))
+                .thenReturn(reductions);
+
+        assertEquals(2, priceCorrectionJob.adjustPrices(1L, 30));
+
+        ArgumentCaptor<OffsetDateTime> since = ArgumentCaptor.forClass(OffsetDateTime.class);
+        ArgumentCaptor<OffsetDateTime> now = ArgumentCaptor.forClass(OffsetDateTime.class);
+        verify(inventoryRepository).applyPriceDecay(eq(1L), since.capture(), now.capture());
+        verifyNoMoreInteractions(inventoryRepository);
+        // The lookback window is a parameter, not a fixed minute
+        assertEquals(Duration.ofSeconds(30), Duration.between(since.getValue(), now.getValue()));
+
+        verify(eventPublisher).publishEvent(new InventoryChangedEvent(1L, 10L, 100L,
+                new BigDecimal("5"), new BigDecimal("2.50"), now.getValue()));
+        verify(eventPublisher).publishEvent(new InventoryChangedEvent(1L, 20L, 200L,
+                new BigDecimal("7"), new BigDecimal("1.00"), now.getValue()));
+    }
+
+    @Test
+    void adjustPrices_NothingEligible_PublishesNothing() {
+        when(inventoryRepository.applyPriceDecay(eq(1L), any(OffsetDateTime.class), any(OffsetDateTime.class)))
+                .thenReturn(List.of());
+
+        assertEquals(0, priceCorrectionJob.adjustPrices(1L, 60));
+
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void dispatch_RunsOnlyRunsThisReplicaClaimed() {
+        when(organizationRepository.findDueForPriceDecay(clock.now()))
+                .thenReturn(List.of(organization(2L, 10), organization(3L, 300)));
+        when(organizationRepository.claimPriceDecayRun(eq(2L), eq(clock.now()), any())).thenReturn(1);
+        // Another replica got there first
+        when(organizationRepository.claimPriceDecayRun(eq(3L), eq(clock.now()), any())).thenReturn(0);
+        when(inventoryRepository.applyPriceDecay(anyLong(), any(OffsetDateTime.class), any(OffsetDateTime.class)))
+                .thenReturn(List.of());
+
+        priceCorrectionJob.dispatch();
+        runAll();
+
+        // The schedule moves forward by the organization's own interval
+        verify(organizationRepository).claimPriceDecayRun(2L, clock.now(), clock.now().plusSeconds(10));
+        verify(organizationRepository).claimPriceDecayRun(3L, clock.now(), clock.now().plusSeconds(300));
+        verify(inventoryRepository).applyPriceDecay(2L, clock.now().minusSeconds(10), clock.now());
+        verify(inventoryRepository, never()).applyPriceDecay(eq(3L), any(), any());
+    }
+
+    @Test
+    void dispatch_ShardsByOrganizationAndNeverOverlapsARun() {
+        when(organizationRepository.findDueForPriceDecay(any(OffsetDateTime.class))).thenReturn(
+                List.of(organization(2L, 10), organization(3L, 10), organization(4L, 10)));
+        when(organizationRepository.claimPriceDecayRun(anyLong(), any(), any())).thenReturn(1);
+
+        priceCorrectionJob.dispatch();
+
+        // Even ids on shard 0, odd ids on shard 1
+        assertEquals(2, shards.get(0).tasks.size());
+        assertEquals(1, shards.get(1).tasks.size());
+
+        // Still queued when the next run is due: not claimed or dispatched again
+        clock.advance(Duration.ofSeconds(10));
+        priceCorrectionJob.dispatch();
+        assertEquals(2, shards.get(0).tasks.size());
+        assertEquals(1, shards.get(1).tasks.size());
+        verify(organizationRepository, times(3)).claimPriceDecayRun(anyLong(), any(), any());
+    }
+
+    @Test
+    void dispatch_FailingOrganizationDoesNotStopTheOthers() {
+        when(organizationRepository.findDueForPriceDecay(any(OffsetDateTime.class)))
+                .thenReturn(List.of(organization(2L, 10), organization(3L, 10)));
+        when(organizationRepository.claimPriceDecayRun(anyLong(), any(), any())).thenReturn(1);
+        when(inventoryRepository.applyPriceDecay(eq(2L), any(OffsetDateTime.class), any(OffsetDateTime.class)))
+                .thenThrow(new IllegalStateException("boom"));
+        when(inventoryRepository.applyPriceDecay(eq(3L), any(OffsetDateTime.class), any(OffsetDateTime.class)))
+                .thenReturn(List.of());
+
+        priceCorrectionJob.dispatch();
+        runAll();
+
+        verify(inventoryRepository).applyPriceDecay(eq(3L), any(OffsetDateTime.class), any(OffsetDateTime.class));
+        // The failed organization is free to run again on its next tick
+        clock.advance(Duration.ofSeconds(10));
+        priceCorrectionJob.dispatch();
+        assertEquals(1, shards.get(0).tasks.size());
+    }
+
+    private void runAll() {
+        shards.forEach(ManualExecutor::runAll);
+    }
+
+    private static Organization organization(Long id, int intervalSeconds) {
+        Organization organization = new Organization();
+        organization.setId(id);
+        organization.setPriceDecayIntervalSeconds(intervalSeconds);
+        return organization;
+    }
+
+    private static PriceReduction reduction(Long organizationId, Long inventoryId, Long productId,
+            String quantity, String unitPrice) {
+        PriceReduction reduction = mock(PriceReduction.class);
+        when(reduction.getOrganizationId()).thenReturn(organizationId);
+        when(reduction.getInventoryId()).thenReturn(inventoryId);
+        when(reduction.getProductId()).thenReturn(productId);
+        when(reduction.getQuantity()).thenReturn(new BigDecimal(quantity));
+        when(reduction.getUnitPrice()).thenReturn(new BigDecimal(unitPrice));
+        return reduction;
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        OffsetDateTime now() {
+            return OffsetDateTime.ofInstant(instant, ZoneOffset.UTC);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+
+    /** Queues tasks until the test runs them, so dispatch and execution can be observed separately. */
+    private static final class ManualExecutor extends AbstractExecutorService {
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return List.of();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
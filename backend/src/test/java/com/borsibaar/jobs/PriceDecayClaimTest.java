@@ -0,0 +1,116 @@
+package com.borsibaar.jobs;
+
+import com.borsibaar.entity.Organization;
+import com.borsibaar.repository.OrganizationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Several replicas polling the same database at the same moment: each due
+ * decay run must be claimed by exactly one of them.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.datasource.url=jdbc:h2:mem:pricedecayclaim;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;LOCK_TIMEOUT=10000"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PriceDecayClaimTest {
+
+    private static final int REPLICAS = 8;
+
+    @Autowired
+    private OrganizationRepository organizationRepository;
+
+    @Test
+    void claimPriceDecayRun_ExactlyOneReplicaWinsEachRun() throws Exception {
+        Long organizationId = seedOrganization("Claimed bar");
+        OffsetDateTime now = OffsetDateTime.of(2025, 6, 1, 20, 0, 0, 0, ZoneOffset.UTC);
+
+        assertEquals(1, claimConcurrently(organizationId, now));
+        assertTrue(organizationRepository.findDueForPriceDecay(now).stream()
+                .noneMatch(o -> o.getId().equals(organizationId)));
+
+        // Not due again until the interval has passed
+        assertEquals(0, claimConcurrently(organizationId, now.plusSeconds(30)));
+        assertEquals(1, claimConcurrently(organizationId, now.plusSeconds(60)));
+    }
+
+    @Test
+    void organizationUpdate_DoesNotResetTheSchedule() {
+        Long organizationId = seedOrganization("Renamed bar");
+        OffsetDateTime now = OffsetDateTime.of(2025, 6, 1, 20, 0, 0, 0, ZoneOffset.UTC);
+        organizationRepository.claimPriceDecayRun(organizationId, now, now.plusSeconds(60));
+
+        Organization organization = organizationRepository.findById(organizationId).orElseThrow();
+        organization.setName("Renamed bar 2");
+        organizationRepository.save(organization);
+
+        assertEquals(0, organizationRepository.claimPriceDecayRun(organizationId, now, now.plusSeconds(60)));
+    }
+
+    @Test
+    void findDueForPriceDecay_SkipsLazilyDecayingOrganizations() {
+        Long scheduledId = seedOrganization("Scheduled bar");
+        Long lazyId = seedOrganization("Lazy bar");
+        Organization lazy = organizationRepository.findById(lazyId).orElseThrow();
+        lazy.setLazyPriceDecay(true);
+        organizationRepository.save(lazy);
+
+        List<Long> due = organizationRepository.findDueForPriceDecay(
+                OffsetDateTime.of(2025, 6, 1, 20, 0, 0, 0, ZoneOffset.UTC)).stream()
+                .map(Organization::getId)
+                .toList();
+
+        assertTrue(due.contains(scheduledId));
+        assertFalse(due.contains(lazyId));
+    }
+
+    /** Every replica tries to claim the run due at {@code now}; returns how many succeeded. */
+    private int claimConcurrently(Long organizationId, OffsetDateTime now) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(REPLICAS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> claims = new ArrayList<>();
+        for (int i = 0; i < REPLICAS; i++) {
+            Callable<Integer> claim = () -> {
+                start.await();
+                return organizationRepository.claimPriceDecayRun(organizationId, now, now.plusSeconds(60));
+            };
+            claims.add(pool.submit(claim));
+        }
+        start.countDown();
+        int won = 0;
+        for (Future<Integer> claim : claims) {
+            won += claim.get(1, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+        return won;
+    }
+
+    private Long seedOrganization(String name) {
+        Organization organization = new Organization();
+        organization.setName(name);
+        organization.setPriceIncreaseStep(new BigDecimal("0.10"));
+        organization.setPriceDecreaseStep(new BigDecimal("0.10"));
+        return organizationRepository.save(organization).getId();
+    }
+}
@@ -0,0 +1,56 @@
+package com.borsibaar.jobs;
+
+import com.borsibaar.repository.InventoryTransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionPartitionJobTest {
+
+    @Mock private InventoryTransactionRepository inventoryTransactionRepository;
+
+    @Test
+    void createUpcomingPartitions_CoversCurrentMonthAndMonthsAhead() {
+        Clock clock = Clock.fixed(Instant.parse("2025-11-30T12:00:00Z"), ZoneId.of("UTC"));
+        TransactionPartitionJob job = new TransactionPartitionJob(inventoryTransactionRepository, 3, clock);
+
+        job.createUpcomingPartitions();
+
+        verify(inventoryTransactionRepository).createMonthlyPartitions(
+                LocalDate.of(2025, 11, 30), LocalDate.of(2026, 2, 28));
+    }
+
+    @Test
+    void createUpcomingPartitions_UsesUtcMonths() {
+        // Already December in Tallinn, still November in UTC, and partition bounds are UTC
+        Clock clock = Clock.fixed(Instant.parse("2025-11-30T23:30:00Z"), ZoneId.of("Europe/Tallinn"));
+        TransactionPartitionJob job = new TransactionPartitionJob(inventoryTransactionRepository, 1, clock);
+
+        job.createUpcomingPartitions();
+
+        verify(inventoryTransactionRepository).createMonthlyPartitions(
+                LocalDate.of(2025, 11, 30), LocalDate.of(2025, 12, 30));
+    }
+
+    @Test
+    void createUpcomingPartitions_FailureIsContained() {
+        when(inventoryTransactionRepository.createMonthlyPartitions(any(), any()))
+                .thenThrow(new IllegalStateException("function does not exist"));
+        TransactionPartitionJob job = new TransactionPartitionJob(inventoryTransactionRepository, 3,
+                Clock.fixed(Instant.parse("2025-06-01T00:00:00Z"), ZoneId.of("UTC")));
+
+        job.createUpcomingPartitions();
+
+        verify(inventoryTransactionRepository).createMonthlyPartitions(any(), any());
+    }
+}
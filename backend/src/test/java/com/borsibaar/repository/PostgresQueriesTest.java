@@ -0,0 +1,224 @@
+package com.borsibaar.repository;
+
+import com.borsibaar.repository.InventoryRepository.PriceReduction;
+import com.borsibaar.repository.InventoryTransactionRepository.PriceBucket;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The native statements H2 cannot run (data-modifying CTEs, FOR UPDATE OF,
+ * ON CONFLICT, partitions), against an embedded PostgreSQL migrated with the
+ * full Liquibase changelog, so every changeset is applied here as well.
+ */
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=true",
+        "spring.datasource.driver-class-name=org.postgresql.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class PostgresQueriesTest {
+
+    // Stopped by its own shutdown hook, after the cached application context is closed
+    private static EmbeddedPostgres postgres;
+
+    private static final OffsetDateTime NOW = OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.SECONDS);
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private InventoryTransactionRepository inventoryTransactionRepository;
+
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        if (postgres == null) {
+            try {
+                postgres = EmbeddedPostgres.start();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @Test
+    void applyPriceDecay_LowersUnsoldProductsDownToTheFloor() {
+        organization(100L, false);
+        inventory(101L, 100L, "5.00", null, null);                    // unsold: one step down
+        inventory(102L, 100L, "5.00", "4.80", NOW.minusMinutes(5));   // sold before the window: clamped to its min
+        inventory(103L, 100L, "5.00", null, NOW.minusSeconds(10));    // sold in the window: kept
+        inventory(104L, 100L, "4.80", "4.80", null);                  // already at its min: kept
+        organization(200L, true);
+        inventory(201L, 200L, "5.00", null, null);
+        inventory(202L, 200L, "5.00", null, NOW.minusSeconds(10));
+
+        List<PriceReduction> reductions = inventoryRepository.applyPriceDecay(100L, NOW.minusSeconds(60), NOW);
+
+        Map<Long, BigDecimal> reduced = reductions.stream()
+                .collect(Collectors.toMap(PriceReduction::getInventoryId, PriceReduction::getUnitPrice));
+        assertEquals(Map.of(101L, new BigDecimal("4.5000"), 102L, new BigDecimal("4.8000")), reduced);
+        assertEquals(new BigDecimal("5.0000"), price(103L));
+        assertEquals(new BigDecimal("4.8000"), price(104L));
+        // Changed rows are bumped and re-anchored like any other versioned update
+        assertEquals(1L, jdbc.queryForObject("SELECT version FROM inventory WHERE id = 101", Long.class));
+        assertEquals(0L, jdbc.queryForObject("SELECT version FROM inventory WHERE id = 104", Long.class));
+        assertEquals(NOW.toInstant(), jdbc.queryForObject(
+                "SELECT price_anchored_at FROM inventory WHERE id = 101", OffsetDateTime.class).toInstant());
+        // One tick per changed row
+        assertEquals(List.of(new BigDecimal("4.5000"), new BigDecimal("4.8000")), jdbc.queryForList(
+                "SELECT price FROM price_ticks WHERE ts = ? ORDER BY inventory_id", BigDecimal.class, NOW));
+
+        // Lazy organizations decay when read, never here
+        assertTrue(inventoryRepository.applyPriceDecay(200L, NOW.minusSeconds(60), NOW).isEmpty());
+        assertEquals(new BigDecimal("5.0000"), price(201L));
+    }
+
+    @Test
+    void applyPriceDecay_NothingSoldInTheWindow_LeavesEveryPrice() {
+        organization(100L, false);
+        inventory(101L, 100L, "5.00", null, NOW.minusMinutes(2));
+        inventory(102L, 100L, "5.00", null, null);
+
+        assertTrue(inventoryRepository.applyPriceDecay(100L, NOW.minusSeconds(60), NOW).isEmpty());
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM price_ticks", Integer.class));
+    }
+
+    @Test
+    void findPriceBuckets_OhlcOverTransactionsAndTicks() {
+        organization(100L, false);
+        inventory(101L, 100L, "3.00", null, null);
+        OffsetDateTime bucketStart = NOW.truncatedTo(ChronoUnit.HOURS);
+        sale(101L, bucketStart.plusSeconds(5), "3.00", "3.50");
+        sale(101L, bucketStart.plusSeconds(20), "3.50", "4.00");
+        tick(101L, bucketStart.plusSeconds(40), "3.20");
+        tick(101L, bucketStart.plusSeconds(70), "2.70");
+
+        List<PriceBucket> buckets = inventoryTransactionRepository.findPriceBuckets(101L,
+                bucketStart, bucketStart.plusMinutes(2), 60);
+
+        assertEquals(2, buckets.size());
+        PriceBucket first = buckets.get(0);
+        assertEquals(bucketStart.toEpochSecond() / 60, first.getBucket());
+        assertEquals(0, new BigDecimal("3.00").compareTo(first.getOpen()));
+        assertEquals(0, new BigDecimal("4.00").compareTo(first.getHigh()));
+        assertEquals(0, new BigDecimal("3.00").compareTo(first.getLow()));
+        assertEquals(0, new BigDecimal("3.20").compareTo(first.getClose()));
+        assertEquals(3L, first.getChanges());
+        // A bucket opened by a tick has no open of its own
+        PriceBucket second = buckets.get(1);
+        assertNull(second.getOpen());
+        assertEquals(0, new BigDecimal("2.70").compareTo(second.getClose()));
+
+        List<BigDecimal> before = inventoryTransactionRepository.findPricesBefore(101L,
+                bucketStart.plusSeconds(60), PageRequest.of(0, 1));
+        assertEquals(0, new BigDecimal("3.20").compareTo(before.get(0)));
+    }
+
+    @Test
+    void salesRollup_BucketCreatedOnceAndIncrementedInPlace() {
+        organization(100L, false);
+        UUID userId = UUID.randomUUID();
+        jdbc.update("INSERT INTO users (id, organization_id, name, email) VALUES (?, 100, 'Bartender', ?)",
+                userId, userId + "@example.com");
+        OffsetDateTime bucketStart = NOW.truncatedTo(ChronoUnit.HOURS);
+
+        for (String revenue : List.of("3.00", "4.50")) {
+            salesRollupRepository.createBucketIfAbsent(100L, userId, 0L, bucketStart);
+            salesRollupRepository.addSale(100L, userId, 0L, bucketStart, new BigDecimal(revenue));
+        }
+
+        Map<String, Object> row = jdbc.queryForMap(
+                "SELECT COUNT(*) AS buckets, SUM(sale_count) AS sales, SUM(revenue) AS revenue "
+                        + "FROM sales_rollups WHERE user_id = ?", userId);
+        assertEquals(1L, ((Number) row.get("buckets")).longValue());
+        assertEquals(2L, ((Number) row.get("sales")).longValue());
+        assertEquals(0, new BigDecimal("7.50").compareTo((BigDecimal) row.get("revenue")));
+    }
+
+    @Test
+    void createMonthlyPartitions_MovesRowsOutOfTheDefaultPartition() {
+        organization(100L, false);
+        inventory(101L, 100L, "3.00", null, null);
+        // Far beyond the months created ahead, so it lands in the default partition
+        OffsetDateTime future = OffsetDateTime.parse("2099-01-15T10:00:00Z");
+        sale(101L, future, "3.00", "3.50");
+
+        assertEquals(1, inventoryTransactionRepository.createMonthlyPartitions(
+                future.toLocalDate(), future.toLocalDate()));
+
+        assertEquals("inventory_transactions_2099_01", jdbc.queryForObject(
+                "SELECT tableoid::regclass::text FROM inventory_transactions WHERE created_at = ?", String.class,
+                future));
+        assertEquals(0, inventoryTransactionRepository.createMonthlyPartitions(
+                future.toLocalDate(), future.toLocalDate()));
+    }
+
+    private void organization(Long id, boolean lazyDecay) {
+        jdbc.update("""
+                INSERT INTO organizations (id, name, created_at, updated_at, price_increase_step,
+                    price_decrease_step, price_decay_interval_seconds, lazy_price_decay)
+                VALUES (?, ?, now(), now(), 0.50, 0.50, 60, ?)
+                """, id, "Bar " + id, lazyDecay);
+        jdbc.update("INSERT INTO categories (id, organization_id, name, dynamic_pricing) VALUES (?, ?, 'Beer', TRUE)",
+                id, id);
+    }
+
+    private void inventory(Long id, Long organizationId, String price, String minPrice, OffsetDateTime lastSoldAt) {
+        jdbc.update("""
+                INSERT INTO products (id, organization_id, category_id, name, base_price, min_price, is_active,
+                    created_at, updated_at)
+                VALUES (?, ?, ?, ?, 3.00, ?, TRUE, now(), now())
+                """, id, organizationId, organizationId, "Product " + id,
+                minPrice != null ? new BigDecimal(minPrice) : null);
+        jdbc.update("""
+                INSERT INTO inventory (id, organization_id, product_id, quantity, adjusted_price, last_sold_at,
+                    created_at, updated_at, version)
+                VALUES (?, ?, ?, 10, ?, ?, now(), now(), 0)
+                """, id, organizationId, id, new BigDecimal(price), lastSoldAt);
+    }
+
+    private void sale(Long inventoryId, OffsetDateTime at, String priceBefore, String priceAfter) {
+        jdbc.update("""
+                INSERT INTO inventory_transactions (inventory_id, transaction_type, quantity_change, quantity_before,
+                    quantity_after, price_before, price_after, created_at)
+                VALUES (?, 'SALE', -1, 10, 9, ?, ?, ?)
+                """, inventoryId, new BigDecimal(priceBefore), new BigDecimal(priceAfter), at);
+    }
+
+    private void tick(Long inventoryId, OffsetDateTime at, String price) {
+        jdbc.update("INSERT INTO price_ticks (inventory_id, ts, price) VALUES (?, ?, ?)",
+                inventoryId, at, new BigDecimal(price));
+    }
+
+    private BigDecimal price(Long inventoryId) {
+        return jdbc.queryForObject("SELECT adjusted_price FROM inventory WHERE id = ?", BigDecimal.class, inventoryId);
+    }
+}
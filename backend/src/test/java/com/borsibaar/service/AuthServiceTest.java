@@ -57,7 +57,7 @@ class AuthServiceTest {
         Role defaultRole = Role.builder().id(10L).name("USER").build();
         when(userRepository.findByEmail("new@test.com")).thenReturn(Optional.empty());
         when(roleRepository.findByName("USER")).thenReturn(Optional.of(defaultRole));
-        when(jwtService.generateToken("new@test.com")).thenReturn("jwt-token");
+        when(jwtService.generateToken(any(User.class))).thenReturn("jwt-token");
         when(userMapper.toDto(any(User.class), eq("jwt-token"))).thenAnswer(inv -> {
             User u = inv.getArgument(0);
             return new UserDTO(u.getEmail(), u.getName(), u.getRole().getName(), "jwt-token");
@@ -81,7 +81,7 @@ class AuthServiceTest {
     void processOAuthLogin_ExistingUser_UpdatesNameAndReturnsToken() {
         User existing = User.builder().email("exist@test.com").name("Old Name").role(Role.builder().id(1L).name("USER").build()).build();
         when(userRepository.findByEmail("exist@test.com")).thenReturn(Optional.of(existing));
-        when(jwtService.generateToken("exist@test.com")).thenReturn("jwt-token");
+        when(jwtService.generateToken(any(User.class))).thenReturn("jwt-token");
         when(userMapper.toDto(any(User.class), eq("jwt-token"))).thenAnswer(inv -> {
             User u = inv.getArgument(0);
             return new UserDTO(u.getEmail(), u.getName(), u.getRole().getName(), "jwt-token");
@@ -0,0 +1,283 @@
+package com.borsibaar.service;
+
+import com.borsibaar.dto.PriceBoardDeltaDto;
+import com.borsibaar.dto.PriceBoardResponseDto;
+import com.borsibaar.event.CatalogChangedEvent;
+import com.borsibaar.event.InventoryChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BoardStreamServiceTest {
+
+    @Mock
+    private InventoryService inventoryService;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-06-01T20:00:00Z"));
+    private ManualExecutor executor;
+    private List<RecordingEmitter> emitters;
+    private BoardStreamService service;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ManualExecutor();
+        emitters = new ArrayList<>();
+        service = new BoardStreamService(inventoryService, executor, 60_000L, 3, clock) {
+            @Override
+            SseEmitter createEmitter() {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+    }
+
+    @Test
+    void subscribe_SendsSnapshotFirst() {
+        PriceBoardResponseDto board = new PriceBoardResponseDto(1L, "v1", List.of());
+        when(inventoryService.getBoard(1L)).thenReturn(board);
+
+        service.subscribe(1L);
+        executor.runAll();
+
+        RecordingEmitter emitter = emitters.get(0);
+        assertEquals(List.of("snapshot"), emitter.names);
+        assertSame(board, emitter.payloads.get(0));
+        assertEquals(1, service.subscriberCount(1L));
+    }
+
+    @Test
+    void snapshot_IsCachedAcrossSubscribersUntilChange() {
+        when(inventoryService.getBoard(1L)).thenReturn(new PriceBoardResponseDto(1L, "v1", List.of()));
+
+        service.subscribe(1L);
+        service.subscribe(1L);
+        executor.runAll();
+        verify(inventoryService, times(1)).getBoard(1L);
+
+        service.onCatalogChanged(new CatalogChangedEvent(1L));
+        service.subscribe(1L);
+        executor.runAll();
+        // Each open stream gets a fresh snapshot, built once for all of them
+        verify(inventoryService, times(2)).getBoard(1L);
+        assertEquals(List.of("snapshot", "snapshot"), emitters.get(0).names);
+    }
+
+    @Test
+    void slowSubscriber_DeltasCoalescedPerProduct() {
+        when(inventoryService.getBoard(1L)).thenReturn(new PriceBoardResponseDto(1L, "v1", List.of()));
+        service.subscribe(1L);
+        executor.runAll();
+
+        // Nothing is written until the drain runs, so these pile up
+        service.onInventoryChanged(change(1L, 10L, "2.00"));
+        service.onInventoryChanged(change(1L, 11L, "3.00"));
+        service.onInventoryChanged(change(1L, 10L, "2.50"));
+        executor.runAll();
+
+        RecordingEmitter emitter = emitters.get(0);
+        assertEquals(List.of("snapshot", "delta"), emitter.names);
+        @SuppressWarnings("unchecked")
+        List<PriceBoardDeltaDto> batch = (List<PriceBoardDeltaDto>) emitter.payloads.get(1);
+        assertEquals(2, batch.size());
+        assertEquals(11L, batch.get(0).productId());
+        assertEquals(10L, batch.get(1).productId());
+        assertEquals(new BigDecimal("2.50"), batch.get(1).unitPrice());
+        assertEquals("3", emitter.ids.get(1));
+    }
+
+    @Test
+    void pendingOverflow_FallsBackToSnapshot() {
+        when(inventoryService.getBoard(1L)).thenReturn(new PriceBoardResponseDto(1L, "v1", List.of()));
+        service.subscribe(1L);
+        executor.runAll();
+
+        for (long productId = 1; productId <= 4; productId++) {
+            service.onInventoryChanged(change(1L, productId, "1.00"));
+        }
+        executor.runAll();
+
+        assertEquals(List.of("snapshot", "snapshot"), emitters.get(0).names);
+    }
+
+    @Test
+    void otherOrganization_NotNotified() {
+        when(inventoryService.getBoard(1L)).thenReturn(new PriceBoardResponseDto(1L, "v1", List.of()));
+        service.subscribe(1L);
+        executor.runAll();
+
+        service.onInventoryChanged(change(2L, 10L, "2.00"));
+        executor.runAll();
+
+        assertEquals(List.of("snapshot"), emitters.get(0).names);
+    }
+
+    @Test
+    void lazyDecay_SnapshotExpiresWhenTheFirstPriceDrops() {
+        OffsetDateTime decaysAt = OffsetDateTime.now(clock).plusSeconds(60);
+        PriceBoardResponseDto before = new PriceBoardResponseDto(1L, "v1", List.of(), decaysAt);
+        PriceBoardResponseDto after = new PriceBoardResponseDto(1L, "v2", List.of(), decaysAt.plusSeconds(60));
+        when(inventoryService.getBoard(1L)).thenReturn(before, after);
+        service.subscribe(1L);
+        executor.runAll();
+
+        clock.advance(Duration.ofSeconds(59));
+        service.refreshDecayedBoards();
+        executor.runAll();
+        assertEquals(List.of("snapshot"), emitters.get(0).names);
+
+        // Nothing was written when the price dropped, yet open streams get the new board
+        clock.advance(Duration.ofSeconds(1));
+        service.refreshDecayedBoards();
+        executor.runAll();
+        assertEquals(List.of("snapshot", "snapshot"), emitters.get(0).names);
+        assertSame(after, emitters.get(0).payloads.get(1));
+
+        // A display opened now gets the cached post-decay board
+        service.subscribe(1L);
+        executor.runAll();
+        assertSame(after, emitters.get(1).payloads.get(0));
+        verify(inventoryService, times(2)).getBoard(1L);
+    }
+
+    @Test
+    void failedSend_RemovesSubscriber() {
+        when(inventoryService.getBoard(1L)).thenReturn(new PriceBoardResponseDto(1L, "v1", List.of()));
+        service.subscribe(1L);
+        emitters.get(0).failing = true;
+        executor.runAll();
+
+        assertEquals(0, service.subscriberCount(1L));
+    }
+
+    private InventoryChangedEvent change(Long organizationId, Long productId, String price) {
+        return new InventoryChangedEvent(organizationId, productId + 100, productId, BigDecimal.TEN,
+                new BigDecimal(price), OffsetDateTime.now());
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+
+    /** Captures sent events instead of writing them to a response. */
+    private static class RecordingEmitter extends SseEmitter {
+        final List<String> names = new ArrayList<>();
+        final List<String> ids = new ArrayList<>();
+        final List<Object> payloads = new ArrayList<>();
+        boolean failing;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            String name = null;
+            String id = null;
+            Object payload = null;
+            for (var part : builder.build()) {
+                Object data = part.getData();
+                if (data instanceof String text) {
+                    if (text.contains("event:")) {
+                        name = text.substring(text.indexOf("event:") + 6).lines().findFirst().orElse("").trim();
+                    }
+                    if (text.startsWith("id:")) {
+                        id = text.substring(3).lines().findFirst().orElse("").trim();
+                    }
+                } else {
+                    payload = data;
+                }
+            }
+            if (name != null) {
+                names.add(name);
+                ids.add(id);
+                payloads.add(payload);
+            }
+        }
+    }
+
+    /** Runs drain tasks only when the test asks, to simulate a slow client. */
+    private static class ManualExecutor extends AbstractExecutorService {
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return List.of();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.borsibaar.service;
+
+import com.borsibaar.dto.InventoryResponseDto;
+import com.borsibaar.dto.InventoryTransactionPageResponseDto;
+import com.borsibaar.dto.UserSalesStatsResponseDto;
+import com.borsibaar.entity.Category;
+import com.borsibaar.entity.Inventory;
+import com.borsibaar.entity.InventoryTransaction;
+import com.borsibaar.entity.Organization;
+import com.borsibaar.entity.PriceTick;
+import com.borsibaar.entity.Product;
+import com.borsibaar.mapper.InventoryMapperImpl;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Guards the board, sales stats and history read paths against N+1
+ * regressions: the number of SQL statements per request must not depend on
+ * how many products, sales or transactions an organization has.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({ InventoryService.class, InventoryMapperImpl.class })
+class InventoryServiceQueryCountTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Test
+    void getByOrganization_StatementCountIndependentOfCatalogSize() {
+        Long smallOrg = seedOrganization("Small bar", 3);
+        Long largeOrg = seedOrganization("Large bar", 60);
+
+        long smallStatements = countStatements(smallOrg, 3);
+        long largeStatements = countStatements(largeOrg, 60);
+
+        assertEquals(1, smallStatements);
+        assertEquals(smallStatements, largeStatements);
+    }
+
+    @Test
+    void getByOrganization_CategoryFilter_SingleStatement() {
+        Long orgId = seedOrganization("Category bar", 20);
+        Long categoryId = entityManager.getEntityManager()
+                .createQuery("SELECT c.id FROM Category c WHERE c.organizationId = :org", Long.class)
+                .setParameter("org", orgId)
+                .getSingleResult();
+        entityManager.clear();
+
+        Statistics statistics = statistics();
+        statistics.clear();
+        List<InventoryResponseDto> board = inventoryService.getByOrganization(orgId, categoryId);
+
+        assertEquals(20, board.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getUserSalesStats_Window_AggregatedByTheDatabase() {
+        Long orgId = seedOrganization("Window bar", 2);
+        Inventory inventory = entityManager.getEntityManager()
+                .createQuery("SELECT i FROM Inventory i WHERE i.organizationId = :org", Inventory.class)
+                .setParameter("org", orgId)
+                .setMaxResults(1)
+                .getSingleResult();
+        UUID bartender = UUID.randomUUID();
+        OffsetDateTime evening = OffsetDateTime.parse("2025-06-01T20:00:00Z");
+        // Two lines of one sale and a second sale inside the window, one sale the night before
+        sale(inventory, bartender, "SALE-1", "2", "3.00", evening.plusMinutes(5));
+        sale(inventory, bartender, "SALE-1", "1", "3.50", evening.plusMinutes(5));
+        sale(inventory, bartender, "SALE-2", "1", "4.00", evening.plusHours(1));
+        sale(inventory, bartender, "SALE-0", "5", "3.00", evening.minusDays(1));
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = statistics();
+        statistics.clear();
+        List<UserSalesStatsResponseDto> stats = inventoryService.getUserSalesStats(orgId, evening,
+                evening.plusHours(6));
+
+        assertEquals(1, stats.size());
+        assertEquals(2L, stats.get(0).salesCount());
+        // Revenue uses the price each line was actually sold at: 2*3.00 + 1*3.50 + 1*4.00
+        assertEquals(0, new BigDecimal("13.50").compareTo(stats.get(0).totalRevenue()));
+        assertNull(stats.get(0).barStationId());
+        // One aggregate plus the user lookup, no matter how many sales there are
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getTransactionHistory_KeysetPagesVisitEveryEntryOnce() {
+        Long orgId = seedOrganization("History bar", 1);
+        Inventory inventory = entityManager.getEntityManager()
+                .createQuery("SELECT i FROM Inventory i WHERE i.organizationId = :org AND i.product.isActive = true",
+                        Inventory.class)
+                .setParameter("org", orgId)
+                .getSingleResult();
+        Long productId = inventory.getProduct().getId();
+        OffsetDateTime evening = OffsetDateTime.parse("2025-06-01T20:00:00Z");
+        // Three entries share a timestamp, so paging must also order by id
+        for (int i = 0; i < 7; i++) {
+            sale(inventory, null, "SALE-" + i, "1", "3.00", evening.plusMinutes(Math.min(i, 3)));
+        }
+        sale(inventory, null, "SALE-old", "1", "3.00", evening.minusDays(1));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            Statistics statistics = statistics();
+            statistics.clear();
+            InventoryTransactionPageResponseDto page = inventoryService.getTransactionHistory(
+                    productId, orgId, evening, cursor, 3);
+            // The inventory lookup, one projection query and one price tick query;
+            // no transaction entity is materialized
+            assertEquals(3, statistics.getPrepareStatementCount());
+            assertEquals(0, statistics.getEntityStatistics(InventoryTransaction.class.getName()).getLoadCount());
+            page.items().forEach(item -> seen.add(item.id()));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(7, seen.size());
+        assertEquals(7, seen.stream().distinct().count());
+        List<Long> expected = entityManager.getEntityManager()
+                .createQuery("SELECT t.id FROM InventoryTransaction t WHERE t.inventoryId = :id "
+                        + "AND t.createdAt >= :since ORDER BY t.createdAt DESC, t.id DESC", Long.class)
+                .setParameter("id", inventory.getId())
+                .setParameter("since", evening)
+                .getResultList();
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    void getTransactionHistory_MergesPriceTicksIntoThePages() {
+        Long orgId = seedOrganization("Tick bar", 1);
+        Inventory inventory = entityManager.getEntityManager()
+                .createQuery("SELECT i FROM Inventory i WHERE i.organizationId = :org AND i.product.isActive = true",
+                        Inventory.class)
+                .setParameter("org", orgId)
+                .getSingleResult();
+        OffsetDateTime evening = OffsetDateTime.parse("2025-06-01T20:00:00Z");
+        for (int i = 0; i < 4; i++) {
+            sale(inventory, null, "SALE-" + i, "1", "3.00", evening.plusMinutes(i));
+        }
+        // One tick at the same instant as a sale, which it must sort after
+        entityManager.persist(new PriceTick(inventory.getId(), evening.plusMinutes(1), new BigDecimal("2.90")));
+        entityManager.persist(new PriceTick(inventory.getId(), evening.plusSeconds(150), new BigDecimal("2.80")));
+        entityManager.persist(new PriceTick(inventory.getId(), evening.minusMinutes(1), new BigDecimal("3.10")));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            InventoryTransactionPageResponseDto page = inventoryService.getTransactionHistory(
+                    inventory.getProduct().getId(), orgId, evening, cursor, 2);
+            page.items().forEach(item -> seen.add(item.id() != null
+                    ? item.referenceId()
+                    : "TICK " + item.priceAfter().stripTrailingZeros().toPlainString()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        // Newest first; the tick before the window is left out
+        assertEquals(List.of("SALE-3", "TICK 2.8", "SALE-2", "SALE-1", "TICK 2.9", "SALE-0"), seen);
+    }
+
+    private void sale(Inventory inventory, UUID userId, String saleId, String quantity, String price,
+            OffsetDateTime createdAt) {
+        InventoryTransaction transaction = new InventoryTransaction();
+        transaction.setInventory(inventory);
+        transaction.setTransactionType("SALE");
+        transaction.setQuantityChange(new BigDecimal(quantity).negate());
+        transaction.setQuantityBefore(BigDecimal.TEN);
+        transaction.setQuantityAfter(BigDecimal.TEN.subtract(new BigDecimal(quantity)));
+        transaction.setPriceBefore(new BigDecimal(price));
+        transaction.setPriceAfter(new BigDecimal(price));
+        transaction.setReferenceId(saleId);
+        transaction.setCreatedBy(userId);
+        transaction.setCreatedAt(createdAt);
+        entityManager.persist(transaction);
+    }
+
+    private long countStatements(Long organizationId, int expectedRows) {
+        entityManager.clear();
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        List<InventoryResponseDto> board = inventoryService.getByOrganization(organizationId);
+
+        assertEquals(expectedRows, board.size());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private Long seedOrganization(String name, int productCount) {
+        Organization organization = new Organization();
+        organization.setName(name);
+        organization.setPriceIncreaseStep(new BigDecimal("0.50"));
+        organization.setPriceDecreaseStep(new BigDecimal("0.50"));
+        entityManager.persist(organization);
+
+        Category category = new Category();
+        category.setOrganizationId(organization.getId());
+        category.setName(name + " drinks");
+        category.setDynamicPricing(true);
+        entityManager.persist(category);
+
+        for (int i = 0; i < productCount; i++) {
+            Product product = new Product();
+            product.setOrganizationId(organization.getId());
+            product.setCategoryId(category.getId());
+            product.setName(name + " product " + i);
+            product.setBasePrice(new BigDecimal("3.00"));
+            product.setActive(true);
+            entityManager.persist(product);
+
+            entityManager.persist(new Inventory(organization.getId(), product, BigDecimal.TEN, null));
+        }
+
+        // An inactive product must be filtered out without any extra lookups
+        Product retired = new Product();
+        retired.setOrganizationId(organization.getId());
+        retired.setCategoryId(category.getId());
+        retired.setName(name + " retired");
+        retired.setBasePrice(new BigDecimal("3.00"));
+        retired.setActive(false);
+        entityManager.persist(retired);
+        entityManager.persist(new Inventory(organization.getId(), retired, BigDecimal.TEN, null));
+
+        entityManager.flush();
+        return organization.getId();
+    }
+}
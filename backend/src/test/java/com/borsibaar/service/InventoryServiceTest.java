@@ -2,21 +2,30 @@ package com.borsibaar.service;
 
 import com.borsibaar.dto.AddStockRequestDto;
 import com.borsibaar.dto.InventoryResponseDto;
+import com.borsibaar.dto.InventoryTransactionPageResponseDto;
 import com.borsibaar.dto.InventoryTransactionResponseDto;
+import com.borsibaar.dto.PriceBoardResponseDto;
 import com.borsibaar.dto.RemoveStockRequestDto;
 import com.borsibaar.dto.AdjustStockRequestDto;
 import com.borsibaar.dto.StationSalesStatsResponseDto;
 import com.borsibaar.dto.UserSalesStatsResponseDto;
 import com.borsibaar.entity.BarStation;
+import com.borsibaar.entity.Category;
 import com.borsibaar.entity.Inventory;
+import com.borsibaar.entity.Organization;
 import com.borsibaar.entity.InventoryTransaction;
 import com.borsibaar.entity.Product;
+import com.borsibaar.entity.SalesRollup;
 import com.borsibaar.entity.User;
 import com.borsibaar.mapper.InventoryMapper;
 import com.borsibaar.repository.BarStationRepository;
 import com.borsibaar.repository.InventoryRepository;
 import com.borsibaar.repository.InventoryTransactionRepository;
+import com.borsibaar.repository.InventoryTransactionRepository.HistoryEntry;
+import com.borsibaar.repository.PriceTickRepository;
 import com.borsibaar.repository.ProductRepository;
+import com.borsibaar.repository.SalesRollupRepository;
+import com.borsibaar.repository.SalesRollupRepository.SalesTotals;
 import com.borsibaar.repository.UserRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -24,6 +33,9 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
 import org.springframework.web.server.ResponseStatusException;
@@ -55,9 +67,18 @@ class InventoryServiceTest {
     @Mock
     private BarStationRepository barStationRepository;
 
+    @Mock
+    private SalesRollupRepository salesRollupRepository;
+
+    @Mock
+    private PriceTickRepository priceTickRepository;
+
     @Mock
     private InventoryMapper inventoryMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @Mock
     private ClientRegistrationRepository clientRegistrationRepository;
 
@@ -121,14 +142,59 @@ class InventoryServiceTest {
     void getByOrganization_FiltersInactiveProducts() {
         Inventory inv1 = new Inventory(); inv1.setId(1L); inv1.setOrganizationId(1L); inv1.setProductId(10L); inv1.setQuantity(BigDecimal.ONE); inv1.setUpdatedAt(OffsetDateTime.now());
         Inventory inv2 = new Inventory(); inv2.setId(2L); inv2.setOrganizationId(1L); inv2.setProductId(11L); inv2.setQuantity(BigDecimal.ONE); inv2.setUpdatedAt(OffsetDateTime.now());
-        when(inventoryRepository.findByOrganizationId(1L)).thenReturn(List.of(inv1, inv2));
         Product p1 = new Product(); p1.setId(10L); p1.setActive(true); p1.setBasePrice(BigDecimal.ONE); p1.setName("A");
         Product p2 = new Product(); p2.setId(11L); p2.setActive(false); p2.setBasePrice(BigDecimal.ONE); p2.setName("B");
-        when(productRepository.findById(10L)).thenReturn(Optional.of(p1));
-        when(productRepository.findById(11L)).thenReturn(Optional.of(p2));
+        inv1.setProduct(p1); inv2.setProduct(p2);
+        when(inventoryRepository.findBoardByOrganizationId(1L)).thenReturn(List.of(inv1, inv2));
         when(inventoryMapper.toResponse(inv1)).thenReturn(new InventoryResponseDto(1L,1L,10L,"A",BigDecimal.ONE,BigDecimal.ONE, "abc", null,null,null,OffsetDateTime.now().toString()));
         List<InventoryResponseDto> result = inventoryService.getByOrganization(1L);
         assertEquals(1, result.size());
+        verify(productRepository, never()).findById(any());
+    }
+
+    @Test
+    void getByOrganization_LazyDecay_ShowsTheDecayedPrice() {
+        Organization organization = new Organization(); organization.setId(1L); organization.setLazyPriceDecay(true);
+        organization.setPriceDecreaseStep(new BigDecimal("0.50")); organization.setPriceDecayIntervalSeconds(60);
+        Category drinks = new Category(); drinks.setId(3L); drinks.setDynamicPricing(true);
+        Product beer = new Product(); beer.setId(10L); beer.setActive(true); beer.setBasePrice(new BigDecimal("3.00")); beer.setName("Beer"); beer.setCategory(drinks); beer.setOrganization(organization);
+        Inventory inv = new Inventory(); inv.setId(1L); inv.setProduct(beer); inv.setAdjustedPrice(new BigDecimal("4.00"));
+        inv.setPriceAnchoredAt(OffsetDateTime.now().minusMinutes(2).minusSeconds(5));
+        when(inventoryRepository.findBoardByOrganizationId(1L)).thenReturn(List.of(inv));
+        when(inventoryMapper.toResponse(inv)).thenReturn(new InventoryResponseDto(1L, 1L, 10L, null, BigDecimal.ONE, inv.getAdjustedPrice(), null, null, null, null, "t"));
+
+        List<InventoryResponseDto> result = inventoryService.getByOrganization(1L);
+
+        assertEquals(new BigDecimal("3.00"), result.get(0).unitPrice());
+        // Reading never writes the decayed price back
+        assertEquals(new BigDecimal("4.00"), inv.getAdjustedPrice());
+        verify(inventoryRepository, never()).save(any());
+    }
+
+    @Test
+    void getBoard_GroupsByCategoryAndVersionTracksPrices() {
+        Category drinks = new Category(); drinks.setId(3L); drinks.setName("Drinks"); drinks.setDynamicPricing(true);
+        Category shots = new Category(); shots.setId(4L); shots.setName("Shots"); shots.setDynamicPricing(false);
+        Product beer = new Product(); beer.setId(10L); beer.setActive(true); beer.setBasePrice(BigDecimal.ONE); beer.setName("Beer"); beer.setCategory(drinks);
+        Product cider = new Product(); cider.setId(11L); cider.setActive(true); cider.setBasePrice(BigDecimal.ONE); cider.setName("Cider"); cider.setCategory(drinks);
+        Product vodka = new Product(); vodka.setId(12L); vodka.setActive(true); vodka.setBasePrice(BigDecimal.TEN); vodka.setName("Vodka"); vodka.setCategory(shots);
+        Inventory inv1 = new Inventory(); inv1.setId(1L); inv1.setProduct(cider); inv1.setAdjustedPrice(BigDecimal.ONE);
+        Inventory inv2 = new Inventory(); inv2.setId(2L); inv2.setProduct(vodka); inv2.setAdjustedPrice(BigDecimal.TEN);
+        Inventory inv3 = new Inventory(); inv3.setId(3L); inv3.setProduct(beer); inv3.setAdjustedPrice(BigDecimal.ONE);
+        when(inventoryRepository.findBoardByOrganizationId(1L)).thenReturn(List.of(inv1, inv2, inv3));
+        when(inventoryMapper.toResponse(any())).thenAnswer(a -> {
+            Inventory i = a.getArgument(0); return new InventoryResponseDto(i.getId(), 1L, i.getProduct().getId(), null, BigDecimal.ONE, i.getAdjustedPrice(), null, null, null, null, "t"); });
+
+        PriceBoardResponseDto board = inventoryService.getBoard(1L);
+        assertEquals(2, board.categories().size());
+        assertEquals("Drinks", board.categories().get(0).name());
+        assertEquals(List.of("Beer", "Cider"), board.categories().get(0).products().stream().map(InventoryResponseDto::productName).toList());
+        assertEquals("Shots", board.categories().get(1).name());
+
+        assertEquals(board.version(), inventoryService.getBoard(1L).version());
+        assertTrue(board.version().matches("[0-9a-f]{32}"));
+        inv3.setAdjustedPrice(new BigDecimal("1.50"));
+        assertNotEquals(board.version(), inventoryService.getBoard(1L).version());
     }
 
     @Test
@@ -173,80 +239,162 @@ class InventoryServiceTest {
         Inventory inv = new Inventory(); inv.setId(100L); inv.setOrganizationId(1L); inv.setProductId(10L);
         when(inventoryRepository.findByOrganizationIdAndProductId(1L, 10L)).thenReturn(Optional.of(inv));
         UUID uid = UUID.randomUUID();
-        InventoryTransaction tx = new InventoryTransaction();
-        tx.setId(1L); tx.setInventory(inv); tx.setInventoryId(inv.getId()); tx.setTransactionType("SALE");
-        tx.setQuantityChange(new BigDecimal("-1")); tx.setQuantityBefore(BigDecimal.TEN); tx.setQuantityAfter(new BigDecimal("9"));
-        tx.setPriceBefore(BigDecimal.ONE); tx.setPriceAfter(BigDecimal.ONE); tx.setReferenceId("ref"); tx.setNotes("n");
-        tx.setCreatedBy(uid); tx.setCreatedAt(OffsetDateTime.now());
-        when(inventoryTransactionRepository.findByInventoryIdOrderByCreatedAtDesc(100L)).thenReturn(List.of(tx));
+        List<HistoryEntry> entries = List.of(historyEntry(1L, uid, OffsetDateTime.now()));
+        when(inventoryTransactionRepository.findHistory(eq(100L), any(OffsetDateTime.class), any(Pageable.class)))
+                .thenReturn(entries);
         User user = new User(); user.setId(uid); user.setName("Alice"); user.setEmail("a@b.c");
         when(userRepository.findAllById(anyList())).thenReturn(List.of(user));
 
-        List<InventoryTransactionResponseDto> result = inventoryService.getTransactionHistory(10L, 1L);
+        InventoryTransactionPageResponseDto page = inventoryService.getTransactionHistory(10L, 1L, null, null, null);
+        List<InventoryTransactionResponseDto> result = page.items();
         assertEquals(1, result.size());
         assertEquals(uid.toString(), result.get(0).createdBy());
         assertEquals("Alice", result.get(0).createdByName());
+        assertNull(page.nextCursor());
+        // Bounded by default: one row more than the default page size
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(inventoryTransactionRepository).findHistory(eq(100L), any(OffsetDateTime.class), pageable.capture());
+        assertEquals(101, pageable.getValue().getPageSize());
+    }
+
+    @Test
+    void getTransactionHistory_FullPage_ReturnsCursorToTheNextPage() {
+        Inventory inv = new Inventory(); inv.setId(100L); inv.setOrganizationId(1L); inv.setProductId(10L);
+        when(inventoryRepository.findByOrganizationIdAndProductId(1L, 10L)).thenReturn(Optional.of(inv));
+        OffsetDateTime at = OffsetDateTime.parse("2025-06-01T20:00:00.123456Z");
+        // The extra row only says there is a next page; it is sorted but not mapped
+        HistoryEntry extra = mock(HistoryEntry.class);
+        when(extra.getId()).thenReturn(7L);
+        when(extra.getCreatedAt()).thenReturn(at.minusSeconds(1));
+        List<HistoryEntry> entries = List.of(historyEntry(9L, null, at.plusSeconds(1)), historyEntry(8L, null, at),
+                extra);
+        when(inventoryTransactionRepository.findHistory(eq(100L), any(OffsetDateTime.class), eq(PageRequest.of(0, 3))))
+                .thenReturn(entries);
+
+        InventoryTransactionPageResponseDto page = inventoryService.getTransactionHistory(10L, 1L, null, null, 2);
+        assertEquals(List.of(9L, 8L), page.items().stream().map(InventoryTransactionResponseDto::id).toList());
+        assertNotNull(page.nextCursor());
+
+        // The cursor continues strictly after the last returned entry
+        when(inventoryTransactionRepository.findHistoryBefore(eq(100L), any(OffsetDateTime.class), eq(at), eq(8L),
+                eq(PageRequest.of(0, 3)))).thenReturn(List.of());
+        InventoryTransactionPageResponseDto next = inventoryService.getTransactionHistory(10L, 1L, null,
+                page.nextCursor(), 2);
+        assertTrue(next.items().isEmpty());
+        assertNull(next.nextCursor());
+    }
+
+    @Test
+    void getTransactionHistory_InvalidCursor_Throws() {
+        Inventory inv = new Inventory(); inv.setId(100L); inv.setOrganizationId(1L); inv.setProductId(10L);
+        when(inventoryRepository.findByOrganizationIdAndProductId(1L, 10L)).thenReturn(Optional.of(inv));
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> inventoryService.getTransactionHistory(10L, 1L, null, "not-a-cursor", null));
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
     }
 
     @Test
-    void getUserSalesStats_ComputesCountsAndRevenue() {
+    void getUserSalesStats_ReadsRollupTotals() {
         Long orgId = 1L;
         UUID uid = UUID.randomUUID();
         Long stationId = 7L;
-        // two transactions for same user/station, different inventories
-        InventoryTransaction t1 = new InventoryTransaction(); t1.setInventoryId(11L); t1.setTransactionType("SALE"); t1.setReferenceId("o1"); t1.setQuantityChange(new BigDecimal("-2")); t1.setCreatedBy(uid); t1.setBarStationId(stationId);
-        InventoryTransaction t2 = new InventoryTransaction(); t2.setInventoryId(12L); t2.setTransactionType("SALE"); t2.setReferenceId("o2"); t2.setQuantityChange(new BigDecimal("-1")); t2.setCreatedBy(uid); t2.setBarStationId(stationId);
-        when(inventoryTransactionRepository.findSaleTransactionsByOrganizationId(orgId)).thenReturn(List.of(t1, t2));
-
-        // inventories map to products with base prices
-        Inventory inv1 = new Inventory(); inv1.setId(11L); inv1.setProductId(101L);
-        Inventory inv2 = new Inventory(); inv2.setId(12L); inv2.setProductId(102L);
-        when(inventoryRepository.findById(11L)).thenReturn(Optional.of(inv1));
-        when(inventoryRepository.findById(12L)).thenReturn(Optional.of(inv2));
-        Product p1 = new Product(); p1.setId(101L); p1.setBasePrice(new BigDecimal("3.00"));
-        Product p2 = new Product(); p2.setId(102L); p2.setBasePrice(new BigDecimal("5.00"));
-        when(productRepository.findById(101L)).thenReturn(Optional.of(p1));
-        when(productRepository.findById(102L)).thenReturn(Optional.of(p2));
+        // one row per user and station, already summed over all hourly buckets
+        List<SalesTotals> totals = List.of(
+                totals(uid, stationId, 2L, "11.00"),
+                totals(uid, SalesRollup.NO_STATION, 5L, "20.00"));
+        when(salesRollupRepository.sumByUserAndStation(orgId)).thenReturn(totals);
 
         User user = new User(); user.setId(uid); user.setName("Bob"); user.setEmail("b@c.d");
-        when(userRepository.findAllById(anyList())).thenReturn(List.of(user));
+        when(userRepository.findAllById(List.of(uid))).thenReturn(List.of(user));
         BarStation station = new BarStation(); station.setId(stationId); station.setName("Main");
-        when(barStationRepository.findAllById(anyList())).thenReturn(List.of(station));
-
-        List<UserSalesStatsResponseDto> stats = inventoryService.getUserSalesStats(orgId);
-        assertEquals(1, stats.size());
-        UserSalesStatsResponseDto s = stats.get(0);
+        when(barStationRepository.findAllById(List.of(stationId))).thenReturn(List.of(station));
+
+        List<UserSalesStatsResponseDto> stats = inventoryService.getUserSalesStats(orgId, null, null);
+        assertEquals(2, stats.size());
+        UserSalesStatsResponseDto withoutStation = stats.get(0);
+        assertEquals(5L, withoutStation.salesCount());
+        assertNull(withoutStation.barStationId());
+        assertNull(withoutStation.barStationName());
+        UserSalesStatsResponseDto s = stats.get(1);
         assertEquals(2L, s.salesCount());
-        // revenue = 2*3 + 1*5 = 11
         assertEquals(new BigDecimal("11.00"), s.totalRevenue());
         assertEquals("Bob", s.userName());
+        assertEquals("Main", s.barStationName());
+        verifyNoInteractions(inventoryTransactionRepository);
     }
 
     @Test
-    void getStationSalesStats_ComputesCountsAndRevenue() {
+    void getStationSalesStats_ReadsRollupTotals() {
         Long orgId = 1L;
         Long stationId = 7L;
-        InventoryTransaction t1 = new InventoryTransaction(); t1.setInventoryId(11L); t1.setTransactionType("SALE"); t1.setReferenceId("o1"); t1.setQuantityChange(new BigDecimal("-2")); t1.setBarStationId(stationId);
-        InventoryTransaction t2 = new InventoryTransaction(); t2.setInventoryId(12L); t2.setTransactionType("SALE"); t2.setReferenceId("o2"); t2.setQuantityChange(new BigDecimal("-1")); t2.setBarStationId(stationId);
-        when(inventoryTransactionRepository.findSaleTransactionsByOrganizationId(orgId)).thenReturn(List.of(t1, t2));
-
-        Inventory inv1 = new Inventory(); inv1.setId(11L); inv1.setProductId(101L);
-        Inventory inv2 = new Inventory(); inv2.setId(12L); inv2.setProductId(102L);
-        when(inventoryRepository.findById(11L)).thenReturn(Optional.of(inv1));
-        when(inventoryRepository.findById(12L)).thenReturn(Optional.of(inv2));
-        Product p1 = new Product(); p1.setId(101L); p1.setBasePrice(new BigDecimal("3.00"));
-        Product p2 = new Product(); p2.setId(102L); p2.setBasePrice(new BigDecimal("5.00"));
-        when(productRepository.findById(101L)).thenReturn(Optional.of(p1));
-        when(productRepository.findById(102L)).thenReturn(Optional.of(p2));
+        List<SalesTotals> totals = List.of(totals(null, stationId, 2L, "11.00"));
+        when(salesRollupRepository.sumByStation(orgId)).thenReturn(totals);
 
         BarStation station = new BarStation(); station.setId(stationId); station.setName("Main");
-        when(barStationRepository.findAllById(anyList())).thenReturn(List.of(station));
+        when(barStationRepository.findAllById(List.of(stationId))).thenReturn(List.of(station));
 
-        List<StationSalesStatsResponseDto> stats = inventoryService.getStationSalesStats(orgId);
+        List<StationSalesStatsResponseDto> stats = inventoryService.getStationSalesStats(orgId, null, null);
         assertEquals(1, stats.size());
         StationSalesStatsResponseDto s = stats.get(0);
         assertEquals(2L, s.salesCount());
         assertEquals(new BigDecimal("11.00"), s.totalRevenue());
         assertEquals("Main", s.barStationName());
+        verifyNoInteractions(inventoryTransactionRepository);
+    }
+
+    @Test
+    void getStationSalesStats_Window_AggregatesSaleHistory() {
+        Long orgId = 1L;
+        Long stationId = 7L;
+        OffsetDateTime from = OffsetDateTime.parse("2025-06-01T18:00:00Z");
+        OffsetDateTime to = from.plusHours(8);
+        List<SalesTotals> totals = List.of(totals(null, stationId, 4L, "18.40"));
+        when(inventoryTransactionRepository.sumSalesByStation(orgId, from, to)).thenReturn(totals);
+        when(barStationRepository.findAllById(List.of(stationId))).thenReturn(List.of());
+
+        List<StationSalesStatsResponseDto> stats = inventoryService.getStationSalesStats(orgId, from, to);
+        assertEquals(1, stats.size());
+        assertEquals(4L, stats.get(0).salesCount());
+        assertEquals(new BigDecimal("18.40"), stats.get(0).totalRevenue());
+        verifyNoInteractions(salesRollupRepository);
+    }
+
+    @Test
+    void getUserSalesStats_WindowFromOnly_EndsNow() {
+        Long orgId = 1L;
+        OffsetDateTime from = OffsetDateTime.now().minusHours(3);
+        when(inventoryTransactionRepository.sumSalesByUserAndStation(eq(orgId), eq(from), any(OffsetDateTime.class)))
+                .thenReturn(List.of());
+
+        assertTrue(inventoryService.getUserSalesStats(orgId, from, null).isEmpty());
+        verifyNoInteractions(salesRollupRepository);
+    }
+
+    @Test
+    void getUserSalesStats_WindowEndsBeforeItStarts_Throws() {
+        OffsetDateTime from = OffsetDateTime.parse("2025-06-01T18:00:00Z");
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> inventoryService.getUserSalesStats(1L, from, from.minusHours(1)));
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+    }
+
+    private static HistoryEntry historyEntry(Long id, UUID createdBy, OffsetDateTime createdAt) {
+        HistoryEntry entry = mock(HistoryEntry.class);
+        when(entry.getId()).thenReturn(id);
+        when(entry.getCreatedBy()).thenReturn(createdBy);
+        when(entry.getCreatedAt()).thenReturn(createdAt);
+        return entry;
+    }
+
+    private static SalesTotals totals(UUID userId, Long stationId, Long saleCount, String revenue) {
+        SalesTotals totals = mock(SalesTotals.class);
+        if (userId != null) {
+            when(totals.getUserId()).thenReturn(userId);
+        }
+        when(totals.getBarStationId()).thenReturn(stationId);
+        when(totals.getSaleCount()).thenReturn(saleCount);
+        when(totals.getRevenue()).thenReturn(new BigDecimal(revenue));
+        return totals;
     }
 }
@@ -0,0 +1,222 @@
+package com.borsibaar.service;
+
+import com.borsibaar.dto.SaleItemRequestDto;
+import com.borsibaar.dto.SaleRequestDto;
+import com.borsibaar.entity.Category;
+import com.borsibaar.entity.Inventory;
+import com.borsibaar.entity.InventoryTransaction;
+import com.borsibaar.entity.Organization;
+import com.borsibaar.entity.Product;
+import com.borsibaar.repository.InventoryRepository;
+import com.borsibaar.repository.InventoryTransactionRepository;
+import com.borsibaar.util.ReferenceIdGenerator;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JDBC round trips of the write-heavy paths. Products, inventory and
+ * transactions take their ids from pooled sequences, so their inserts (and
+ * the inventory updates) go out in JDBC batches instead of one round trip
+ * per row, which IDENTITY keys forced. Round trips are counted at the JDBC
+ * driver: every execute and every executeBatch is one.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.url=jdbc:h2:mem:jdbcroundtrips;DB_CLOSE_DELAY=-1;MODE=PostgreSQL"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ SalesService.class, PricingEngine.class, ReferenceIdGenerator.class, VelocityPricingPolicy.class,
+        SaleVelocityTracker.class, JdbcRoundTripsTest.RoundTripCounter.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JdbcRoundTripsTest {
+
+    private static final BigDecimal STEP = new BigDecimal("0.10");
+    private static final AtomicLong ROUND_TRIPS = new AtomicLong();
+
+    @Autowired
+    private SalesService salesService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private InventoryTransactionRepository inventoryTransactionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void processSale_TenItems_WritesInBatches() {
+        List<Product> products = seedProducts("Batch beer", 10);
+        SaleRequestDto request = new SaleRequestDto(products.stream()
+                .map(p -> new SaleItemRequestDto(p.getId(), BigDecimal.ONE))
+                .toList(), null, null);
+        Statistics statistics = statistics();
+
+        salesService.processSale(request, UUID.randomUUID(), products.get(0).getOrganizationId());
+
+        // 10 inventory updates and 10 SALE transactions
+        assertEquals(10, statistics.getEntityInsertCount());
+        assertEquals(10, statistics.getEntityUpdateCount());
+        long rowWrites = statistics.getEntityInsertCount() + statistics.getEntityUpdateCount();
+        long roundTrips = ROUND_TRIPS.get();
+        // The reads plus one batch of inserts and one of updates: fewer than the rows written alone
+        assertTrue(roundTrips < rowWrites, "expected batched writes, got " + roundTrips + " round trips");
+    }
+
+    /**
+     * A 500-product price step through the entity path: every inventory row
+     * updated and an ADJUSTMENT transaction written for it. (The scheduled
+     * tick does the same in one PostgreSQL statement.)
+     */
+    @Test
+    void repricing_FiveHundredProducts_WritesInBatches() {
+        List<Product> products = seedProducts("Tick beer", 500);
+        Long organizationId = products.get(0).getOrganizationId();
+        Statistics statistics = statistics();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            OffsetDateTime now = OffsetDateTime.now();
+            for (Inventory inventory : inventoryRepository.findByOrganizationId(organizationId)) {
+                BigDecimal before = inventory.getAdjustedPrice();
+                BigDecimal after = before.subtract(STEP);
+                inventory.setAdjustedPrice(after);
+                inventory.setUpdatedAt(now);
+
+                InventoryTransaction transaction = new InventoryTransaction();
+                transaction.setInventory(inventory);
+                transaction.setTransactionType("ADJUSTMENT");
+                transaction.setQuantityChange(BigDecimal.ZERO);
+                transaction.setQuantityBefore(inventory.getQuantity());
+                transaction.setQuantityAfter(inventory.getQuantity());
+                transaction.setPriceBefore(before);
+                transaction.setPriceAfter(after);
+                transaction.setCreatedAt(now);
+                inventoryTransactionRepository.save(transaction);
+            }
+        });
+
+        assertEquals(500, statistics.getEntityInsertCount());
+        assertEquals(500, statistics.getEntityUpdateCount());
+        long rowWrites = statistics.getEntityInsertCount() + statistics.getEntityUpdateCount();
+        long roundTrips = ROUND_TRIPS.get();
+        // One select, 500 / 50 batches each of inserts and updates, and 500 / 50 id blocks
+        assertTrue(roundTrips <= 1 + 10 + 10 + 10, "expected batched writes, got " + roundTrips + " round trips");
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        ROUND_TRIPS.set(0);
+        return statistics;
+    }
+
+    private List<Product> seedProducts(String name, int count) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Organization organization = new Organization();
+            organization.setName(name + " bar");
+            organization.setPriceIncreaseStep(STEP);
+            organization.setPriceDecreaseStep(STEP);
+            entityManager.persist(organization);
+
+            Category category = new Category();
+            category.setOrganizationId(organization.getId());
+            category.setName("Beer");
+            category.setDynamicPricing(true);
+            entityManager.persist(category);
+
+            List<Product> products = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                Product product = new Product();
+                product.setOrganizationId(organization.getId());
+                product.setCategoryId(category.getId());
+                product.setName(name + " " + i);
+                product.setBasePrice(new BigDecimal("2.00"));
+                product.setMaxPrice(new BigDecimal("1000"));
+                product.setActive(true);
+                entityManager.persist(product);
+
+                Inventory inventory = new Inventory(organization.getId(), product, new BigDecimal("100"),
+                        new BigDecimal("2.00"));
+                entityManager.persist(inventory);
+                product.setInventory(inventory);
+                products.add(product);
+            }
+            return products;
+        });
+    }
+
+    /** Wraps the DataSource so every statement execution is counted in {@link #ROUND_TRIPS}. */
+    @TestConfiguration
+    static class RoundTripCounter {
+        @Bean
+        static BeanPostProcessor countingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource ? proxy(DataSource.class, bean) : bean;
+                }
+            };
+        }
+
+        private static Object proxy(Class<?> type, Object target) {
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (p, method, args) -> {
+                if (Statement.class.isAssignableFrom(method.getDeclaringClass())
+                        && method.getName().startsWith("execute")) {
+                    ROUND_TRIPS.incrementAndGet();
+                }
+                Object result = invoke(method, target, args);
+                Class<?> returnType = method.getReturnType();
+                if (returnType == Connection.class || Statement.class.isAssignableFrom(returnType)) {
+                    return result != null ? proxy(returnType, result) : null;
+                }
+                return result;
+            });
+        }
+
+        private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
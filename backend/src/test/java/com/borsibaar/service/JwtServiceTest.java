@@ -1,19 +1,22 @@
 package com.borsibaar.service;
 
+import com.borsibaar.entity.Role;
+import com.borsibaar.entity.User;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
-import org.springframework.test.util.ReflectionTestUtils;
 
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -26,13 +29,9 @@ class JwtServiceTest {
     @MockitoBean
     private ClientRegistrationRepository clientRegistrationRepository;
 
-    private final String testSecret = "test-secret-key-for-jwt-testing-purposes-at-least-256-bits";
-
-    @BeforeEach
-    void setUp() {
-        // Set test secret key using reflection to avoid environment variable dependency
-        ReflectionTestUtils.setField(jwtService, "secretKey", testSecret);
-    }
+    // Signs tokens the way an issuer with the configured key would
+    @Value("${jwt.secret}")
+    private String testSecret;
 
     @Test
     void testGenerateToken_Success() {
@@ -196,4 +195,110 @@ class JwtServiceTest {
         // Act & Assert
         assertThrows(Exception.class, () -> jwtService.parseToken(null));
     }
+
+    @Test
+    void testGenerateToken_ForUser_CarriesPrincipalClaims() {
+        // Arrange
+        User user = User.builder()
+                .id(UUID.randomUUID())
+                .email("admin@example.com")
+                .name("Admin User")
+                .organizationId(7L)
+                .role(Role.builder().id(2L).name("ADMIN").build())
+                .build();
+
+        // Act
+        Claims claims = jwtService.parseToken(jwtService.generateToken(user));
+        User principal = jwtService.toPrincipal(claims);
+
+        // Assert: everything a request is authorized with, without a lookup
+        assertTrue(jwtService.hasPrincipalClaims(claims));
+        assertEquals(user.getId(), principal.getId());
+        assertEquals("admin@example.com", principal.getEmail());
+        assertEquals("Admin User", principal.getName());
+        assertEquals(7L, principal.getOrganizationId());
+        assertEquals("ADMIN", principal.getRole().getName());
+        // Short-lived: well under the old 24h
+        assertTrue(claims.getExpiration().getTime() - claims.getIssuedAt().getTime() <= 15 * 60 * 1000);
+    }
+
+    @Test
+    void testGenerateToken_ForUserWithoutOrganization_HasNoOrganizationClaim() {
+        User user = User.builder()
+                .id(UUID.randomUUID())
+                .email("new@example.com")
+                .role(Role.builder().id(1L).name("USER").build())
+                .build();
+
+        User principal = jwtService.toPrincipal(jwtService.parseToken(jwtService.generateToken(user)));
+
+        assertNull(principal.getOrganizationId());
+        assertEquals("USER", principal.getRole().getName());
+    }
+
+    @Test
+    void testGenerateToken_SubjectOnly_HasNoPrincipalClaims() {
+        Claims claims = jwtService.parseToken(jwtService.generateToken("test@example.com"));
+
+        assertFalse(jwtService.hasPrincipalClaims(claims));
+    }
+
+    @Test
+    void testRefreshToken_KeepsSessionStart() {
+        // Arrange: token from a login 23h ago, expired since
+        long loginSeconds = System.currentTimeMillis() / 1000 - 23 * 60 * 60;
+        String expiredToken = Jwts.builder()
+                .subject("test@example.com")
+                .claim("uid", UUID.randomUUID().toString())
+                .claim("auth_time", loginSeconds)
+                .issuedAt(new Date(System.currentTimeMillis() - 20000))
+                .expiration(new Date(System.currentTimeMillis() - 10000))
+                .signWith(SignatureAlgorithm.HS256, testSecret.getBytes(StandardCharsets.UTF_8))
+                .compact();
+        Claims expired = assertThrows(ExpiredJwtException.class, () -> jwtService.parseToken(expiredToken))
+                .getClaims();
+        User user = User.builder().id(UUID.randomUUID()).email("test@example.com").build();
+
+        // Act
+        assertTrue(jwtService.isRefreshable(expired));
+        Claims refreshed = jwtService.parseToken(jwtService.refreshToken(user, expired));
+
+        // Assert: refreshing does not extend the session
+        assertEquals(loginSeconds, refreshed.get("auth_time", Number.class).longValue());
+    }
+
+    @Test
+    void testIsRefreshable_SessionOver_ReturnsFalse() {
+        long loginSeconds = System.currentTimeMillis() / 1000 - 25 * 60 * 60;
+        String expiredToken = Jwts.builder()
+                .subject("test@example.com")
+                .claim("auth_time", loginSeconds)
+                .issuedAt(new Date(System.currentTimeMillis() - 20000))
+                .expiration(new Date(System.currentTimeMillis() - 10000))
+                .signWith(SignatureAlgorithm.HS256, testSecret.getBytes(StandardCharsets.UTF_8))
+                .compact();
+        Claims expired = assertThrows(ExpiredJwtException.class, () -> jwtService.parseToken(expiredToken))
+                .getClaims();
+
+        assertFalse(jwtService.isRefreshable(expired));
+    }
+
+    @Test
+    void testParseToken_AfterKeyRotation_AcceptsTokensOfPreviousKey() {
+        // Arrange
+        String oldSecret = "old-secret-key-for-jwt-testing-purposes-at-least-256-bits";
+        String newSecret = "new-secret-key-for-jwt-testing-purposes-at-least-256-bits";
+        JwtService beforeRotation = new JwtService(oldSecret, List.of(), 900, 86400);
+        JwtService afterRotation = new JwtService(newSecret, List.of(oldSecret), 900, 86400);
+        JwtService oldKeyRetired = new JwtService(newSecret, List.of(), 900, 86400);
+        String oldToken = beforeRotation.generateToken("test@example.com");
+        String newToken = afterRotation.generateToken("test@example.com");
+
+        // Act & Assert: both keys verify, only the new one signs
+        assertEquals("test@example.com", afterRotation.parseToken(oldToken).getSubject());
+        assertEquals("test@example.com", afterRotation.parseToken(newToken).getSubject());
+        assertEquals("test@example.com", oldKeyRetired.parseToken(newToken).getSubject());
+        assertThrows(Exception.class, () -> oldKeyRetired.parseToken(oldToken));
+        assertThrows(Exception.class, () -> beforeRotation.parseToken(newToken));
+    }
 }
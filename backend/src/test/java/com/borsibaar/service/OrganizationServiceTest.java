@@ -2,14 +2,20 @@ package com.borsibaar.service;
 
 import com.borsibaar.dto.OrganizationRequestDto;
 import com.borsibaar.dto.OrganizationResponseDto;
+import com.borsibaar.entity.Category;
+import com.borsibaar.entity.Inventory;
 import com.borsibaar.entity.Organization;
+import com.borsibaar.entity.Product;
+import com.borsibaar.event.PricingRulesChangedEvent;
 import com.borsibaar.mapper.OrganizationMapper;
+import com.borsibaar.repository.InventoryRepository;
 import com.borsibaar.repository.OrganizationRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -28,18 +34,22 @@ class OrganizationServiceTest {
     private OrganizationRepository organizationRepository;
     @Mock
     private OrganizationMapper organizationMapper;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private InventoryRepository inventoryRepository;
 
     @InjectMocks
     private OrganizationService organizationService;
 
     @Test
     void create_SetsCreatedAtAndMaps() {
-        OrganizationRequestDto request = new OrganizationRequestDto("Org", BigDecimal.valueOf(0.5), BigDecimal.valueOf(0.5));
+        OrganizationRequestDto request = new OrganizationRequestDto("Org", BigDecimal.valueOf(0.5), BigDecimal.valueOf(0.5), 60, null);
         Organization entity = new Organization();
         when(organizationMapper.toEntity(request)).thenReturn(entity);
         Organization saved = new Organization(); saved.setId(3L); saved.setName("Org"); saved.setCreatedAt(OffsetDateTime.now());
         when(organizationRepository.save(entity)).thenReturn(saved);
-        when(organizationMapper.toResponse(saved)).thenReturn(new OrganizationResponseDto(3L, "Org",  saved.getCreatedAt(), saved.getUpdatedAt(), BigDecimal.valueOf(0.5), BigDecimal.valueOf(0.5)));
+        when(organizationMapper.toResponse(saved)).thenReturn(new OrganizationResponseDto(3L, "Org",  saved.getCreatedAt(), saved.getUpdatedAt(), BigDecimal.valueOf(0.5), BigDecimal.valueOf(0.5), 60, false));
 
         OrganizationResponseDto dto = organizationService.create(request);
         assertEquals(3L, dto.id());
@@ -57,8 +67,46 @@ class OrganizationServiceTest {
     void getAll_ReturnsMappedList() {
         Organization o = new Organization(); o.setId(1L); o.setName("A");
         when(organizationRepository.findAll()).thenReturn(List.of(o));
-        when(organizationMapper.toResponse(o)).thenReturn(new OrganizationResponseDto(1L, "A", null, OffsetDateTime.now(), BigDecimal.valueOf(0.5), BigDecimal.valueOf(0.5)));
+        when(organizationMapper.toResponse(o)).thenReturn(new OrganizationResponseDto(1L, "A", null, OffsetDateTime.now(), BigDecimal.valueOf(0.5), BigDecimal.valueOf(0.5), 60, false));
         var list = organizationService.getAll();
         assertEquals(1, list.size());
     }
+
+    @Test
+    void update_PublishesPricingRulesChanged() {
+        OrganizationRequestDto request = new OrganizationRequestDto("Org", BigDecimal.valueOf(0.2), BigDecimal.valueOf(0.1), 60, null);
+        Organization entity = new Organization(); entity.setId(3L); entity.setName("Org");
+        when(organizationRepository.findById(3L)).thenReturn(Optional.of(entity));
+        when(organizationRepository.save(entity)).thenReturn(entity);
+        when(organizationMapper.toResponse(entity)).thenReturn(new OrganizationResponseDto(3L, "Org", null, OffsetDateTime.now(), BigDecimal.valueOf(0.2), BigDecimal.valueOf(0.1), 60, false));
+
+        organizationService.update(3L, request);
+
+        verify(organizationMapper).updateEntity(entity, request);
+        verify(eventPublisher).publishEvent(new PricingRulesChangedEvent(3L));
+        verifyNoInteractions(inventoryRepository);
+    }
+
+    @Test
+    void update_LeavingLazyDecay_KeepsTheDecayedPrices() {
+        Organization entity = new Organization(); entity.setId(3L); entity.setName("Org"); entity.setLazyPriceDecay(true);
+        entity.setPriceDecreaseStep(new BigDecimal("0.50")); entity.setPriceDecayIntervalSeconds(60);
+        Category drinks = new Category(); drinks.setDynamicPricing(true);
+        Product beer = new Product(); beer.setBasePrice(new BigDecimal("3.00")); beer.setCategory(drinks); beer.setOrganization(entity);
+        Inventory inventory = new Inventory(); inventory.setProduct(beer); inventory.setAdjustedPrice(new BigDecimal("4.00"));
+        OffsetDateTime anchoredAt = OffsetDateTime.now().minusMinutes(3).minusSeconds(1);
+        inventory.setPriceAnchoredAt(anchoredAt);
+        OrganizationRequestDto request = new OrganizationRequestDto("Org", null, null, null, false);
+        when(organizationRepository.findById(3L)).thenReturn(Optional.of(entity));
+        when(inventoryRepository.findBoardByOrganizationId(3L)).thenReturn(List.of(inventory));
+        doAnswer(a -> { entity.setLazyPriceDecay(false); return null; })
+                .when(organizationMapper).updateEntity(entity, request);
+        when(organizationRepository.save(entity)).thenReturn(entity);
+
+        organizationService.update(3L, request);
+
+        // Three steps were taken lazily; the decay job carries on from there
+        assertEquals(new BigDecimal("2.50"), inventory.getAdjustedPrice());
+        assertTrue(inventory.getPriceAnchoredAt().isAfter(anchoredAt));
+    }
 }
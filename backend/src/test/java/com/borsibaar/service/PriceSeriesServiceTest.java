@@ -0,0 +1,200 @@
+package com.borsibaar.service;
+
+import com.borsibaar.dto.PriceBucketDto;
+import com.borsibaar.dto.PriceSeriesResponseDto;
+import com.borsibaar.entity.Category;
+import com.borsibaar.entity.Inventory;
+import com.borsibaar.entity.InventoryTransaction;
+import com.borsibaar.entity.Organization;
+import com.borsibaar.entity.PriceTick;
+import com.borsibaar.entity.Product;
+import com.borsibaar.repository.InventoryRepository;
+import com.borsibaar.repository.InventoryTransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the bucketing query against a real database: OHLC per bucket, empty
+ * buckets carried forward, and a fixed number of buckets per window.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false"
+})
+class PriceSeriesServiceTest {
+
+    private static final OffsetDateTime NOW = OffsetDateTime.parse("2025-06-01T21:00:30Z");
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private InventoryTransactionRepository inventoryTransactionRepository;
+
+    private PriceSeriesService priceSeriesService;
+    private Inventory inventory;
+    private Long productId;
+    private Long organizationId;
+
+    @BeforeEach
+    void setUp() {
+        priceSeriesService = new PriceSeriesService(inventoryRepository, inventoryTransactionRepository,
+                Clock.fixed(NOW.toInstant(), ZoneOffset.UTC));
+
+        Organization organization = new Organization();
+        organization.setName("Series bar");
+        organization.setPriceIncreaseStep(new BigDecimal("0.10"));
+        organization.setPriceDecreaseStep(new BigDecimal("0.10"));
+        entityManager.persist(organization);
+        organizationId = organization.getId();
+
+        Category category = new Category();
+        category.setOrganizationId(organizationId);
+        category.setName("Beer");
+        category.setDynamicPricing(true);
+        entityManager.persist(category);
+
+        Product product = new Product();
+        product.setOrganizationId(organizationId);
+        product.setCategoryId(category.getId());
+        product.setName("Series beer");
+        product.setBasePrice(new BigDecimal("3.00"));
+        product.setActive(true);
+        entityManager.persist(product);
+        productId = product.getId();
+
+        inventory = new Inventory(organizationId, product, BigDecimal.TEN, new BigDecimal("3.00"));
+        entityManager.persist(inventory);
+    }
+
+    @Test
+    void getPriceSeries_BucketsCarryForwardAndHaveFixedSize() {
+        // Before the window: the price going into it
+        change("2.90", "3.00", "2025-06-01T19:30:00Z");
+        // 20:00 bucket: three changes
+        change("3.00", "3.10", "2025-06-01T20:00:10Z");
+        change("3.10", "3.20", "2025-06-01T20:00:20Z");
+        change("3.20", "3.10", "2025-06-01T20:00:50Z");
+        // 20:02 bucket: one change
+        change("3.10", "3.00", "2025-06-01T20:02:00Z");
+        entityManager.flush();
+
+        PriceSeriesResponseDto series = priceSeriesService.getPriceSeries(productId, organizationId, "1m",
+                OffsetDateTime.parse("2025-06-01T19:59:00Z"), OffsetDateTime.parse("2025-06-01T20:04:00Z"));
+
+        assertEquals("2025-06-01T19:59:00Z", series.from());
+        assertEquals("2025-06-01T20:04:00Z", series.to());
+        List<PriceBucketDto> buckets = series.buckets();
+        assertEquals(5, buckets.size());
+        assertBucket(buckets.get(0), "3.00", "3.00", "3.00", "3.00", 0);
+        assertBucket(buckets.get(1), "3.00", "3.20", "3.00", "3.10", 3);
+        assertBucket(buckets.get(2), "3.10", "3.10", "3.10", "3.10", 0);
+        assertBucket(buckets.get(3), "3.10", "3.10", "3.00", "3.00", 1);
+        assertBucket(buckets.get(4), "3.00", "3.00", "3.00", "3.00", 0);
+        assertEquals("2025-06-01T20:01:00Z", buckets.get(2).start());
+    }
+
+    @Test
+    void getPriceSeries_MergesPriceTicks() {
+        change("2.90", "3.00", "2025-06-01T19:30:00Z");
+        // 20:00 bucket: a sale, then the decay job twice
+        change("3.00", "3.10", "2025-06-01T20:00:10Z");
+        tick("3.00", "2025-06-01T20:00:30Z");
+        tick("2.90", "2025-06-01T20:00:40Z");
+        // 20:02 bucket opens with a tick, which does not keep the price before it
+        tick("2.80", "2025-06-01T20:02:00Z");
+        entityManager.flush();
+
+        List<PriceBucketDto> buckets = priceSeriesService.getPriceSeries(productId, organizationId, "1m",
+                OffsetDateTime.parse("2025-06-01T20:00:00Z"), OffsetDateTime.parse("2025-06-01T20:03:00Z"))
+                .buckets();
+
+        assertBucket(buckets.get(0), "3.00", "3.10", "2.90", "2.90", 3);
+        assertBucket(buckets.get(1), "2.90", "2.90", "2.90", "2.90", 0);
+        assertBucket(buckets.get(2), "2.90", "2.90", "2.80", "2.80", 1);
+    }
+
+    @Test
+    void getPriceSeries_TickBeforeWindowIsThePriceGoingIn() {
+        tick("2.70", "2025-06-01T19:00:00Z");
+        entityManager.flush();
+
+        List<PriceBucketDto> buckets = priceSeriesService.getPriceSeries(productId, organizationId, "1h",
+                OffsetDateTime.parse("2025-06-01T20:00:00Z"), OffsetDateTime.parse("2025-06-01T21:00:00Z"))
+                .buckets();
+
+        assertBucket(buckets.get(0), "2.70", "2.70", "2.70", "2.70", 0);
+    }
+
+    @Test
+    void getPriceSeries_DefaultWindowEndsWithTheCurrentBucket() {
+        PriceSeriesResponseDto series = priceSeriesService.getPriceSeries(productId, organizationId, "5m",
+                null, null);
+
+        assertEquals(60, series.buckets().size());
+        assertEquals("2025-06-01T21:05:00Z", series.to());
+        // No history at all: flat at the current price
+        series.buckets().forEach(bucket -> assertEquals(0, new BigDecimal("3.00").compareTo(bucket.close())));
+    }
+
+    @Test
+    void getPriceSeries_InvalidRequests_Throw() {
+        OffsetDateTime from = OffsetDateTime.ofInstant(Instant.EPOCH, ZoneOffset.UTC);
+        assertStatus(HttpStatus.BAD_REQUEST,
+                () -> priceSeriesService.getPriceSeries(productId, organizationId, "2m", null, null));
+        assertStatus(HttpStatus.BAD_REQUEST,
+                () -> priceSeriesService.getPriceSeries(productId, organizationId, "1m", from, NOW));
+        assertStatus(HttpStatus.BAD_REQUEST,
+                () -> priceSeriesService.getPriceSeries(productId, organizationId, "1m", NOW, from));
+        assertStatus(HttpStatus.NOT_FOUND,
+                () -> priceSeriesService.getPriceSeries(productId, organizationId + 1, "1m", null, null));
+    }
+
+    private void change(String before, String after, String at) {
+        InventoryTransaction transaction = new InventoryTransaction();
+        transaction.setInventory(inventory);
+        transaction.setTransactionType("SALE");
+        transaction.setQuantityChange(BigDecimal.ONE.negate());
+        transaction.setQuantityBefore(BigDecimal.TEN);
+        transaction.setQuantityAfter(new BigDecimal("9"));
+        transaction.setPriceBefore(new BigDecimal(before));
+        transaction.setPriceAfter(new BigDecimal(after));
+        transaction.setCreatedAt(OffsetDateTime.parse(at));
+        entityManager.persist(transaction);
+    }
+
+    private void tick(String price, String at) {
+        entityManager.persist(new PriceTick(inventory.getId(), OffsetDateTime.parse(at), new BigDecimal(price)));
+    }
+
+    private static void assertBucket(PriceBucketDto bucket, String open, String high, String low, String close,
+            long changes) {
+        assertEquals(0, new BigDecimal(open).compareTo(bucket.open()), "open");
+        assertEquals(0, new BigDecimal(high).compareTo(bucket.high()), "high");
+        assertEquals(0, new BigDecimal(low).compareTo(bucket.low()), "low");
+        assertEquals(0, new BigDecimal(close).compareTo(bucket.close()), "close");
+        assertEquals(changes, bucket.changes());
+    }
+
+    private static void assertStatus(HttpStatus status, Runnable call) {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, call::run);
+        assertEquals(status, ex.getStatusCode());
+    }
+}
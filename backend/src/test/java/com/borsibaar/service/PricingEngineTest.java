@@ -0,0 +1,192 @@
+package com.borsibaar.service;
+
+import com.borsibaar.event.CatalogChangedEvent;
+import com.borsibaar.event.PricingRulesChangedEvent;
+import com.borsibaar.repository.PriceRule;
+import com.borsibaar.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PricingEngineTest {
+
+    @Mock private ProductRepository productRepository;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-06-01T20:00:00Z"));
+
+    private PricingEngine pricingEngine;
+
+    private final PriceRule beer = new PriceRule(5L, "Beer", true, true,
+            new BigDecimal("3.00"), new BigDecimal("4.00"), new BigDecimal("0.50"));
+    private final PriceRule water = new PriceRule(6L, "Water", true, false,
+            new BigDecimal("1.00"), null, new BigDecimal("0.50"));
+
+    @BeforeEach
+    void setUp() {
+        pricingEngine = new PricingEngine(productRepository, 5000, clock);
+    }
+
+    @Test
+    void find_LoadsOrganizationOnceAndServesFromMemory() {
+        when(productRepository.findPriceRulesByOrganizationId(1L)).thenReturn(List.of(beer, water));
+
+        assertEquals(beer, pricingEngine.find(1L, 5L).orElseThrow());
+        assertEquals(water, pricingEngine.find(1L, 6L).orElseThrow());
+        assertEquals(beer, pricingEngine.find(1L, 5L).orElseThrow());
+
+        verify(productRepository, times(1)).findPriceRulesByOrganizationId(1L);
+    }
+
+    @Test
+    void find_ProductCreatedAfterTheRulesWereCached_IsFound() {
+        // Water was created through another replica after beer's rules were cached here
+        when(productRepository.findPriceRulesByOrganizationId(1L)).thenReturn(List.of(beer), List.of(beer, water));
+        assertEquals(beer, pricingEngine.find(1L, 5L).orElseThrow());
+
+        assertEquals(water, pricingEngine.find(1L, 6L).orElseThrow());
+        assertEquals(water, pricingEngine.find(1L, 6L).orElseThrow());
+
+        verify(productRepository, times(2)).findPriceRulesByOrganizationId(1L);
+    }
+
+    @Test
+    void find_UnknownProduct_ReloadsOnceBeforeReportingIt() {
+        when(productRepository.findPriceRulesByOrganizationId(1L)).thenReturn(List.of(beer));
+        pricingEngine.find(1L, 5L);
+
+        assertTrue(pricingEngine.find(1L, 7L).isEmpty());
+
+        verify(productRepository, times(2)).findPriceRulesByOrganizationId(1L);
+    }
+
+    @Test
+    void find_CatalogChanged_ReloadsOnlyThatOrganization() {
+        when(productRepository.findPriceRulesByOrganizationId(1L)).thenReturn(List.of(beer));
+        when(productRepository.findPriceRulesByOrganizationId(2L)).thenReturn(List.of(water));
+        pricingEngine.find(1L, 5L);
+        pricingEngine.find(2L, 6L);
+
+        pricingEngine.onCatalogChanged(new CatalogChangedEvent(1L));
+        pricingEngine.find(1L, 5L);
+        pricingEngine.find(2L, 6L);
+
+        verify(productRepository, times(2)).findPriceRulesByOrganizationId(1L);
+        verify(productRepository, times(1)).findPriceRulesByOrganizationId(2L);
+    }
+
+    @Test
+    void find_PricingRulesChanged_PicksUpNewStep() {
+        PriceRule steeper = new PriceRule(5L, "Beer", true, true,
+                new BigDecimal("3.00"), new BigDecimal("4.00"), new BigDecimal("1.00"));
+        when(productRepository.findPriceRulesByOrganizationId(1L)).thenReturn(List.of(beer), List.of(steeper));
+        assertEquals(new BigDecimal("3.50"), pricingEngine.find(1L, 5L).orElseThrow().priceAfterSale(new BigDecimal("3.00")));
+
+        pricingEngine.onPricingRulesChanged(new PricingRulesChangedEvent(1L));
+
+        assertEquals(new BigDecimal("4.00"), pricingEngine.find(1L, 5L).orElseThrow().priceAfterSale(new BigDecimal("3.00")));
+    }
+
+    @Test
+    void find_AfterTtl_ReloadsChangesMadeElsewhere() {
+        PriceRule deactivated = new PriceRule(5L, "Beer", false, true,
+                new BigDecimal("3.00"), new BigDecimal("4.00"), new BigDecimal("0.50"));
+        when(productRepository.findPriceRulesByOrganizationId(1L)).thenReturn(List.of(beer), List.of(deactivated));
+        assertTrue(pricingEngine.find(1L, 5L).orElseThrow().active());
+
+        // Another replica deactivated the product; no event reaches this one
+        clock.advance(Duration.ofMillis(4999));
+        assertTrue(pricingEngine.find(1L, 5L).orElseThrow().active());
+        clock.advance(Duration.ofMillis(1));
+        assertFalse(pricingEngine.find(1L, 5L).orElseThrow().active());
+
+        verify(productRepository, times(2)).findPriceRulesByOrganizationId(1L);
+    }
+
+    @Test
+    void priceAfterSale_DynamicCappedAtMax_StaticUnchanged() {
+        assertEquals(new BigDecimal("4.00"), beer.priceAfterSale(new BigDecimal("3.80")));
+        assertEquals(new BigDecimal("1.00"), water.priceAfterSale(new BigDecimal("1.00")));
+        assertEquals(new BigDecimal("3.00"), beer.currentPrice(null));
+        assertEquals(new BigDecimal("3.20"), beer.currentPrice(new BigDecimal("3.20")));
+    }
+
+    @Test
+    void currentPrice_LazyDecay_OneStepPerFullIntervalDownToTheFloor() {
+        PriceRule lazyBeer = new PriceRule(5L, "Beer", true, true, new BigDecimal("3.00"), new BigDecimal("4.00"),
+                new BigDecimal("0.50"), new BigDecimal("2.20"), new BigDecimal("0.25"), 60, true);
+        OffsetDateTime anchoredAt = OffsetDateTime.parse("2025-06-01T20:00:00Z");
+
+        assertEquals(new BigDecimal("3.40"), lazyBeer.currentPrice(new BigDecimal("3.40"), anchoredAt,
+                anchoredAt.plusSeconds(59)));
+        assertEquals(new BigDecimal("2.90"), lazyBeer.currentPrice(new BigDecimal("3.40"), anchoredAt,
+                anchoredAt.plusSeconds(120)));
+        assertEquals(new BigDecimal("2.20"), lazyBeer.currentPrice(new BigDecimal("3.40"), anchoredAt,
+                anchoredAt.plusHours(1)));
+        // Never anchored yet, or already below the floor: left alone
+        assertEquals(new BigDecimal("3.40"), lazyBeer.currentPrice(new BigDecimal("3.40"), null,
+                anchoredAt.plusHours(1)));
+        assertEquals(new BigDecimal("2.00"), lazyBeer.currentPrice(new BigDecimal("2.00"), anchoredAt,
+                anchoredAt.plusHours(1)));
+        // Scheduled decay keeps the stored price
+        assertEquals(new BigDecimal("3.40"), beer.currentPrice(new BigDecimal("3.40"), anchoredAt,
+                anchoredAt.plusHours(1)));
+    }
+
+    @Test
+    void nextDecayAt_EndOfTheCurrentIntervalUntilTheFloor() {
+        OffsetDateTime anchoredAt = OffsetDateTime.parse("2025-06-01T20:00:00Z");
+        BigDecimal step = new BigDecimal("0.25");
+        BigDecimal floor = new BigDecimal("2.20");
+
+        assertEquals(anchoredAt.plusSeconds(60), PriceRule.nextDecayAt(new BigDecimal("3.40"), anchoredAt,
+                anchoredAt, step, 60, floor));
+        assertEquals(anchoredAt.plusSeconds(180), PriceRule.nextDecayAt(new BigDecimal("3.40"), anchoredAt,
+                anchoredAt.plusSeconds(120), step, 60, floor));
+        // 3.40 reaches the floor after five steps
+        assertNull(PriceRule.nextDecayAt(new BigDecimal("3.40"), anchoredAt, anchoredAt.plusSeconds(300),
+                step, 60, floor));
+        assertNull(PriceRule.nextDecayAt(new BigDecimal("3.40"), null, anchoredAt, step, 60, floor));
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
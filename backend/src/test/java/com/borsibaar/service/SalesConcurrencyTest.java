@@ -0,0 +1,257 @@
+package com.borsibaar.service;
+
+import com.borsibaar.dto.SaleItemRequestDto;
+import com.borsibaar.dto.SaleRequestDto;
+import com.borsibaar.entity.Category;
+import com.borsibaar.entity.Inventory;
+import com.borsibaar.entity.Organization;
+import com.borsibaar.entity.Product;
+import com.borsibaar.repository.InventoryRepository;
+import com.borsibaar.util.ReferenceIdGenerator;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Many bartenders selling the same product at once. Every sale must be
+ * reflected exactly once in the stock level, the price and the sales
+ * rollup, and the shipped row-lock strategy is compared against optimistic
+ * versioning with bounded retry.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.datasource.url=jdbc:h2:mem:salesconcurrency;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;LOCK_TIMEOUT=10000"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ SalesService.class, PricingEngine.class, ReferenceIdGenerator.class, VelocityPricingPolicy.class,
+        SaleVelocityTracker.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SalesConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int SALES_PER_THREAD = 40;
+    private static final int TOTAL_SALES = THREADS * SALES_PER_THREAD;
+    private static final BigDecimal INITIAL_STOCK = new BigDecimal("10000");
+    private static final BigDecimal BASE_PRICE = new BigDecimal("2.00");
+    private static final BigDecimal STEP = new BigDecimal("0.10");
+    private static final int OPTIMISTIC_MAX_ATTEMPTS = 5;
+
+    @Autowired
+    private SalesService salesService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void processSale_NoLostUpdatesUnderContention() throws Exception {
+        Product product = seedProduct("Row lock beer");
+        SaleRequestDto request = new SaleRequestDto(
+                List.of(new SaleItemRequestDto(product.getId(), BigDecimal.ONE)), null, null);
+        UUID userId = UUID.randomUUID();
+
+        runConcurrently(() -> {
+            salesService.processSale(request, userId, product.getOrganizationId());
+            return 0;
+        });
+
+        Long inventoryId = product.getInventory().getId();
+        assertNoLostUpdates(inventoryId, TOTAL_SALES);
+
+        // Each sale saw a different price: no two sales read the same row state
+        Long distinctPrices = new TransactionTemplate(transactionManager).execute(status -> entityManager
+                .createQuery("SELECT COUNT(DISTINCT t.priceBefore) FROM InventoryTransaction t "
+                        + "WHERE t.inventoryId = :id AND t.transactionType = 'SALE'", Long.class)
+                .setParameter("id", inventoryId)
+                .getSingleResult());
+        assertEquals(TOTAL_SALES, distinctPrices);
+
+        // The rollup row is shared by every sale of this bartender, so it sees the same contention
+        Long rolledUp = new TransactionTemplate(transactionManager).execute(status -> entityManager
+                .createQuery("SELECT SUM(r.saleCount) FROM SalesRollup r WHERE r.userId = :userId", Long.class)
+                .setParameter("userId", userId)
+                .getSingleResult());
+        assertEquals(TOTAL_SALES, rolledUp);
+
+    }
+
+    /**
+     * Baskets that share products but list them in opposite order (one with a
+     * duplicate line). Locking in client order would deadlock here; locking in
+     * inventory id order lets every basket through.
+     */
+    @Test
+    void processSale_OverlappingBaskets_NoDeadlock() throws Exception {
+        List<Product> products = seedProducts("Basket beer", 3);
+        Product a = products.get(0);
+        Product b = products.get(1);
+        Product c = products.get(2);
+        Long organizationId = a.getOrganizationId();
+        UUID userId = UUID.randomUUID();
+        SaleRequestDto forward = new SaleRequestDto(List.of(
+                new SaleItemRequestDto(a.getId(), BigDecimal.ONE),
+                new SaleItemRequestDto(b.getId(), BigDecimal.ONE),
+                new SaleItemRequestDto(c.getId(), BigDecimal.ONE)), null, null);
+        SaleRequestDto backward = new SaleRequestDto(List.of(
+                new SaleItemRequestDto(c.getId(), BigDecimal.ONE),
+                new SaleItemRequestDto(b.getId(), BigDecimal.ONE),
+                new SaleItemRequestDto(a.getId(), BigDecimal.ONE),
+                new SaleItemRequestDto(c.getId(), BigDecimal.ONE)), null, null);
+        AtomicInteger turn = new AtomicInteger();
+
+        runConcurrently(() -> {
+            salesService.processSale(turn.getAndIncrement() % 2 == 0 ? forward : backward, userId, organizationId);
+            return 0;
+        });
+
+        // Half of the baskets are forward (1 of each), half backward (c twice)
+        int half = TOTAL_SALES / 2;
+        assertNoLostUpdates(a.getInventory().getId(), TOTAL_SALES, TOTAL_SALES);
+        assertNoLostUpdates(b.getInventory().getId(), TOTAL_SALES, TOTAL_SALES);
+        assertNoLostUpdates(c.getInventory().getId(), half + 2 * half, TOTAL_SALES);
+
+    }
+
+    /**
+     * Same bare read-modify-write of one inventory row under both strategies,
+     * so they only differ by how contention is handled.
+     */
+    @Test
+    void strategyComparison_RowLockVersusOptimisticRetry() throws Exception {
+        Long lockedId = seedProduct("Locked beer").getInventory().getId();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Long productId = inventoryRepository.findById(lockedId).orElseThrow().getProductId();
+
+        runConcurrently(() -> {
+            tx.executeWithoutResult(status -> {
+                Inventory inventory = inventoryRepository.findAllByProductIdInForUpdate(List.of(productId)).get(0);
+                inventory.setQuantity(inventory.getQuantity().subtract(BigDecimal.ONE));
+                inventory.setAdjustedPrice(inventory.getAdjustedPrice().add(STEP));
+            });
+            return 1;
+        });
+        assertNoLostUpdates(lockedId, TOTAL_SALES);
+
+        Long optimisticId = seedProduct("Optimistic beer").getInventory().getId();
+        AtomicInteger gaveUp = new AtomicInteger();
+
+        runConcurrently(() -> {
+            for (int attempt = 1; attempt <= OPTIMISTIC_MAX_ATTEMPTS; attempt++) {
+                try {
+                    tx.executeWithoutResult(status -> {
+                        Inventory inventory = inventoryRepository.findById(optimisticId).orElseThrow();
+                        inventory.setQuantity(inventory.getQuantity().subtract(BigDecimal.ONE));
+                        inventory.setAdjustedPrice(inventory.getAdjustedPrice().add(STEP));
+                    });
+                    return 1;
+                } catch (ObjectOptimisticLockingFailureException e) {
+                    // Another sale committed first: re-read and try again
+                }
+            }
+            gaveUp.incrementAndGet();
+            return 0;
+        });
+        int succeeded = TOTAL_SALES - gaveUp.get();
+        // The version column turns every conflict into a retry instead of a lost update
+        assertNoLostUpdates(optimisticId, succeeded);
+    }
+
+    private void assertNoLostUpdates(Long inventoryId, int sales) {
+        assertNoLostUpdates(inventoryId, sales, sales);
+    }
+
+    /** Each sale line takes its units off the stock and raises the price by one step. */
+    private void assertNoLostUpdates(Long inventoryId, int unitsSold, int priceSteps) {
+        Inventory inventory = inventoryRepository.findById(inventoryId).orElseThrow();
+        assertEquals(0, INITIAL_STOCK.subtract(BigDecimal.valueOf(unitsSold)).compareTo(inventory.getQuantity()));
+        assertEquals(0, BASE_PRICE.add(STEP.multiply(BigDecimal.valueOf(priceSteps)))
+                .compareTo(inventory.getAdjustedPrice()));
+    }
+
+    /** Runs {@link #SALES_PER_THREAD} calls on each of {@link #THREADS} threads. */
+    private void runConcurrently(Callable<Integer> sale) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < SALES_PER_THREAD; i++) {
+                    sale.call();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+    }
+
+    private Product seedProduct(String name) {
+        return seedProducts(name, 1).get(0);
+    }
+
+    private List<Product> seedProducts(String name, int count) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Organization organization = new Organization();
+            organization.setName(name + " bar");
+            organization.setPriceIncreaseStep(STEP);
+            organization.setPriceDecreaseStep(STEP);
+            entityManager.persist(organization);
+
+            Category category = new Category();
+            category.setOrganizationId(organization.getId());
+            category.setName("Beer");
+            category.setDynamicPricing(true);
+            entityManager.persist(category);
+
+            List<Product> products = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                Product product = new Product();
+                product.setOrganizationId(organization.getId());
+                product.setCategoryId(category.getId());
+                product.setName(count == 1 ? name : name + " " + i);
+                product.setBasePrice(BASE_PRICE);
+                product.setMaxPrice(new BigDecimal("1000000"));
+                product.setActive(true);
+                entityManager.persist(product);
+
+                Inventory inventory = new Inventory(organization.getId(), product, INITIAL_STOCK, BASE_PRICE);
+                entityManager.persist(inventory);
+                product.setInventory(inventory);
+                products.add(product);
+            }
+            return products;
+        });
+    }
+}
@@ -6,14 +6,22 @@ import com.borsibaar.dto.SaleResponseDto;
 import com.borsibaar.entity.Inventory;
 import com.borsibaar.entity.InventoryTransaction;
 import com.borsibaar.entity.Product;
+import com.borsibaar.entity.SalesRollup;
+import com.borsibaar.event.InventoryChangedEvent;
+import com.borsibaar.event.ProductSoldEvent;
 import com.borsibaar.repository.InventoryRepository;
 import com.borsibaar.repository.InventoryTransactionRepository;
+import com.borsibaar.repository.PriceRule;
 import com.borsibaar.repository.ProductRepository;
+import com.borsibaar.repository.SalesRollupRepository;
+import com.borsibaar.util.ReferenceIdGenerator;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -32,6 +40,11 @@ class SalesServiceTest {
     @Mock private InventoryRepository inventoryRepository;
     @Mock private InventoryTransactionRepository inventoryTransactionRepository;
     @Mock private ProductRepository productRepository;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Spy private ReferenceIdGenerator referenceIdGenerator = new ReferenceIdGenerator(1);
+    @Mock private PricingEngine pricingEngine;
+    @Mock private SalesRollupRepository salesRollupRepository;
+    @Mock private VelocityPricingPolicy velocityPricingPolicy;
 
     @InjectMocks private SalesService salesService;
 
@@ -42,7 +55,8 @@ class SalesServiceTest {
         Product product = new Product(); product.setId(5L); product.setOrganizationId(1L); product.setActive(true); product.setBasePrice(BigDecimal.valueOf(10)); product.setMaxPrice(BigDecimal.valueOf(10)); product.setName("Beer");
         Inventory inventory = new Inventory(); inventory.setId(9L); inventory.setProduct(product); inventory.setProductId(5L); inventory.setOrganizationId(1L); inventory.setQuantity(BigDecimal.valueOf(20)); inventory.setAdjustedPrice(BigDecimal.valueOf(10)); inventory.setUpdatedAt(OffsetDateTime.now());
         product.setInventory(inventory);
-        when(productRepository.findById(5L)).thenReturn(Optional.of(product));
+        when(pricingEngine.find(1L, 5L)).thenReturn(Optional.of(rule(product)));
+        when(inventoryRepository.findAllByProductIdInForUpdate(List.of(5L))).thenReturn(List.of(inventory));
         when(inventoryRepository.save(inventory)).thenReturn(inventory);
         when(inventoryTransactionRepository.save(any(InventoryTransaction.class))).thenAnswer(inv -> inv.getArgument(0));
 
@@ -50,10 +64,88 @@ class SalesServiceTest {
         SaleRequestDto request = new SaleRequestDto(List.of(item), "note", 1L);
         SaleResponseDto response = salesService.processSale(request, userId, 1L);
         assertEquals(1, response.items().size());
+        assertTrue(response.saleId().matches("SALE-[0-9A-Z]{13}"));
         assertEquals(BigDecimal.valueOf(20), response.totalAmount());
         // Price capped at max (10)
         assertEquals(BigDecimal.valueOf(10), inventory.getAdjustedPrice());
         verify(inventoryTransactionRepository).save(any(InventoryTransaction.class));
+        verify(eventPublisher).publishEvent(new InventoryChangedEvent(1L, 9L, 5L, BigDecimal.valueOf(18),
+                BigDecimal.valueOf(10), inventory.getUpdatedAt()));
+        // The sale is counted once at what was actually charged
+        verify(salesRollupRepository).createBucketIfAbsent(eq(1L), eq(userId), eq(1L), any(OffsetDateTime.class));
+        verify(salesRollupRepository).addSale(eq(1L), eq(userId), eq(1L), any(OffsetDateTime.class),
+                eq(BigDecimal.valueOf(20)));
+    }
+
+    @Test
+    void processSale_DuplicateLines_MergedAndLockedOnce() {
+        Product product = new Product(); product.setId(5L); product.setOrganizationId(1L); product.setActive(true); product.setBasePrice(BigDecimal.valueOf(3)); product.setName("Beer");
+        Inventory inventory = new Inventory(); inventory.setId(9L); inventory.setProduct(product); inventory.setProductId(5L); inventory.setOrganizationId(1L); inventory.setQuantity(BigDecimal.valueOf(20)); inventory.setAdjustedPrice(BigDecimal.valueOf(3));
+        Product cider = new Product(); cider.setId(6L); cider.setOrganizationId(1L); cider.setActive(true); cider.setBasePrice(BigDecimal.valueOf(4)); cider.setName("Cider");
+        Inventory ciderInventory = new Inventory(); ciderInventory.setId(3L); ciderInventory.setProduct(cider); ciderInventory.setProductId(6L); ciderInventory.setOrganizationId(1L); ciderInventory.setQuantity(BigDecimal.valueOf(20)); ciderInventory.setAdjustedPrice(BigDecimal.valueOf(4));
+        when(pricingEngine.find(1L, 5L)).thenReturn(Optional.of(rule(product)));
+        when(pricingEngine.find(1L, 6L)).thenReturn(Optional.of(rule(cider)));
+        when(inventoryRepository.findAllByProductIdInForUpdate(List.of(5L, 6L))).thenReturn(List.of(ciderInventory, inventory));
+        when(inventoryRepository.save(any(Inventory.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        SaleRequestDto request = new SaleRequestDto(List.of(
+                new SaleItemRequestDto(5L, BigDecimal.ONE),
+                new SaleItemRequestDto(6L, BigDecimal.ONE),
+                new SaleItemRequestDto(5L, BigDecimal.valueOf(2))), null, null);
+        SaleResponseDto response = salesService.processSale(request, userId, 1L);
+
+        assertEquals(2, response.items().size());
+        assertEquals(5L, response.items().get(0).productId());
+        assertEquals(0, BigDecimal.valueOf(3).compareTo(response.items().get(0).quantity()));
+        assertEquals(0, BigDecimal.valueOf(17).compareTo(inventory.getQuantity()));
+        assertEquals(0, BigDecimal.valueOf(13).compareTo(response.totalAmount()));
+        verify(inventoryRepository, times(1)).findAllByProductIdInForUpdate(any());
+        verify(inventoryTransactionRepository, times(2)).save(any(InventoryTransaction.class));
+        // Without a station the sale is filed under the no-station key
+        verify(salesRollupRepository).addSale(eq(1L), eq(userId), eq(SalesRollup.NO_STATION), any(OffsetDateTime.class),
+                eq(response.totalAmount()));
+    }
+
+    @Test
+    void processSale_LazyDecay_ChargesTheDecayedPriceAndReanchors() {
+        Product product = new Product(); product.setId(5L); product.setOrganizationId(1L); product.setActive(true); product.setBasePrice(BigDecimal.valueOf(3)); product.setName("Beer");
+        OffsetDateTime anchoredAt = OffsetDateTime.now().minusMinutes(5).minusSeconds(10);
+        Inventory inventory = new Inventory(); inventory.setId(9L); inventory.setProduct(product); inventory.setProductId(5L); inventory.setOrganizationId(1L); inventory.setQuantity(BigDecimal.valueOf(20)); inventory.setAdjustedPrice(new BigDecimal("4.00")); inventory.setPriceAnchoredAt(anchoredAt);
+        PriceRule lazyRule = new PriceRule(5L, "Beer", true, true, BigDecimal.valueOf(3), null,
+                new BigDecimal("0.50"), new BigDecimal("2.00"), new BigDecimal("0.20"), 60, true);
+        when(pricingEngine.find(1L, 5L)).thenReturn(Optional.of(lazyRule));
+        when(inventoryRepository.findAllByProductIdInForUpdate(List.of(5L))).thenReturn(List.of(inventory));
+        when(inventoryRepository.save(inventory)).thenReturn(inventory);
+
+        SaleResponseDto response = salesService.processSale(
+                new SaleRequestDto(List.of(new SaleItemRequestDto(5L, BigDecimal.ONE)), null, null), userId, 1L);
+
+        // Five full minutes unsold: 4.00 - 5 x 0.20, then one increase step for the sale
+        assertEquals(new BigDecimal("3.00"), response.items().get(0).unitPrice());
+        assertEquals(new BigDecimal("3.50"), inventory.getAdjustedPrice());
+        assertEquals(inventory.getUpdatedAt(), inventory.getPriceAnchoredAt());
+        assertTrue(inventory.getPriceAnchoredAt().isAfter(anchoredAt));
+    }
+
+    @Test
+    void processSale_FastSellingProduct_ClimbsExtraStepsAndIsCounted() {
+        Product product = new Product(); product.setId(5L); product.setOrganizationId(1L); product.setActive(true); product.setBasePrice(BigDecimal.valueOf(3)); product.setName("Beer");
+        Inventory inventory = new Inventory(); inventory.setId(9L); inventory.setProduct(product); inventory.setProductId(5L); inventory.setOrganizationId(1L); inventory.setQuantity(BigDecimal.valueOf(20)); inventory.setAdjustedPrice(new BigDecimal("3.00"));
+        PriceRule dynamicRule = new PriceRule(5L, "Beer", true, true, BigDecimal.valueOf(3), new BigDecimal("10.00"),
+                new BigDecimal("0.50"));
+        when(pricingEngine.find(1L, 5L)).thenReturn(Optional.of(dynamicRule));
+        when(velocityPricingPolicy.extraIncreaseSteps(5L)).thenReturn(2);
+        when(inventoryRepository.findAllByProductIdInForUpdate(List.of(5L))).thenReturn(List.of(inventory));
+        when(inventoryRepository.save(inventory)).thenReturn(inventory);
+
+        SaleResponseDto response = salesService.processSale(
+                new SaleRequestDto(List.of(new SaleItemRequestDto(5L, BigDecimal.ONE)), null, null), userId, 1L);
+
+        // Charged the current price, then up three steps instead of one
+        assertEquals(new BigDecimal("3.00"), response.items().get(0).unitPrice());
+        assertEquals(new BigDecimal("4.50"), inventory.getAdjustedPrice());
+        assertEquals(inventory.getUpdatedAt(), inventory.getLastSoldAt());
+        verify(eventPublisher).publishEvent(new ProductSoldEvent(1L, 5L));
     }
 
     @Test
@@ -61,11 +153,13 @@ class SalesServiceTest {
         Product product = new Product(); product.setId(5L); product.setOrganizationId(1L); product.setActive(true); product.setBasePrice(BigDecimal.ONE); product.setName("Beer");
         Inventory inventory = new Inventory(); inventory.setId(9L); inventory.setProduct(product); inventory.setProductId(5L); inventory.setOrganizationId(1L); inventory.setQuantity(BigDecimal.ONE); inventory.setAdjustedPrice(BigDecimal.ONE);
         product.setInventory(inventory);
-        when(productRepository.findById(5L)).thenReturn(Optional.of(product));
+        when(pricingEngine.find(1L, 5L)).thenReturn(Optional.of(rule(product)));
+        when(inventoryRepository.findAllByProductIdInForUpdate(List.of(5L))).thenReturn(List.of(inventory));
         SaleItemRequestDto item = new SaleItemRequestDto(5L, BigDecimal.valueOf(5));
         SaleRequestDto request = new SaleRequestDto(List.of(item), null, null);
         ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> salesService.processSale(request, userId, 1L));
         assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+        verifyNoInteractions(salesRollupRepository);
     }
 
     @Test
@@ -73,7 +167,7 @@ class SalesServiceTest {
         Product product = new Product(); product.setId(5L); product.setOrganizationId(1L); product.setActive(false); product.setBasePrice(BigDecimal.ONE); product.setName("Beer");
         Inventory inventory = new Inventory(); inventory.setId(9L); inventory.setProduct(product); inventory.setProductId(5L); inventory.setOrganizationId(1L); inventory.setQuantity(BigDecimal.ONE); inventory.setAdjustedPrice(BigDecimal.ONE);
         product.setInventory(inventory);
-        when(productRepository.findById(5L)).thenReturn(Optional.of(product));
+        when(pricingEngine.find(1L, 5L)).thenReturn(Optional.of(rule(product)));
         SaleItemRequestDto item = new SaleItemRequestDto(5L, BigDecimal.ONE);
         SaleRequestDto request = new SaleRequestDto(List.of(item), null, null);
         ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> salesService.processSale(request, userId, 1L));
@@ -85,20 +179,38 @@ class SalesServiceTest {
         Product product = new Product(); product.setId(5L); product.setOrganizationId(2L); product.setActive(true); product.setBasePrice(BigDecimal.ONE); product.setName("Beer");
         Inventory inventory = new Inventory(); inventory.setId(9L); inventory.setProduct(product); inventory.setProductId(5L); inventory.setOrganizationId(2L); inventory.setQuantity(BigDecimal.ONE); inventory.setAdjustedPrice(BigDecimal.ONE);
         product.setInventory(inventory);
-        when(productRepository.findById(5L)).thenReturn(Optional.of(product));
+        when(pricingEngine.find(1L, 5L)).thenReturn(Optional.empty());
+        when(productRepository.existsById(5L)).thenReturn(true);
         SaleItemRequestDto item = new SaleItemRequestDto(5L, BigDecimal.ONE);
         SaleRequestDto request = new SaleRequestDto(List.of(item), null, null);
         ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> salesService.processSale(request, userId, 1L));
         assertEquals(HttpStatus.FORBIDDEN, ex.getStatusCode());
     }
 
+    @Test
+    void processSale_ProductNotFound_Throws() {
+        when(pricingEngine.find(1L, 5L)).thenReturn(Optional.empty());
+        when(productRepository.existsById(5L)).thenReturn(false);
+        SaleItemRequestDto item = new SaleItemRequestDto(5L, BigDecimal.ONE);
+        SaleRequestDto request = new SaleRequestDto(List.of(item), null, null);
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> salesService.processSale(request, userId, 1L));
+        assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
+    }
+
     @Test
     void processSale_ProductInventoryMissing_Throws() {
         Product product = new Product(); product.setId(5L); product.setOrganizationId(1L); product.setActive(true); product.setBasePrice(BigDecimal.ONE); product.setName("Beer");
-        when(productRepository.findById(5L)).thenReturn(Optional.of(product));
+        when(pricingEngine.find(1L, 5L)).thenReturn(Optional.of(rule(product)));
         SaleItemRequestDto item = new SaleItemRequestDto(5L, BigDecimal.ONE);
         SaleRequestDto request = new SaleRequestDto(List.of(item), null, null);
         ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> salesService.processSale(request, userId, 1L));
         assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
     }
+
+    private static PriceRule rule(Product product) {
+        boolean dynamicPricing = product.getCategory() != null && product.getCategory().isDynamicPricing();
+        return new PriceRule(product.getId(), product.getName(), product.isActive(), dynamicPricing,
+                product.getBasePrice(), product.getMaxPrice(),
+                product.getOrganization() != null ? product.getOrganization().getPriceIncreaseStep() : null);
+    }
 }
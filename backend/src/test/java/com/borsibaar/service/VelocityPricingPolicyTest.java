@@ -0,0 +1,86 @@
+package com.borsibaar.service;
+
+import com.borsibaar.event.ProductSoldEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VelocityPricingPolicyTest {
+
+    private static final Instant NOW = Instant.parse("2025-06-01T20:00:00Z");
+
+    @Test
+    void extraIncreaseSteps_OneStepPerSalesPerExtraStepCapped() {
+        SaleVelocityTracker tracker = new SaleVelocityTracker(Clock.fixed(NOW, ZoneOffset.UTC));
+        VelocityPricingPolicy policy = new VelocityPricingPolicy(tracker, 5, 3);
+        sell(tracker, 5L, 12);
+        sell(tracker, 6L, 40);
+
+        assertEquals(2, policy.extraIncreaseSteps(5L));
+        assertEquals(3, policy.extraIncreaseSteps(6L));
+        assertEquals(0, policy.extraIncreaseSteps(7L));
+    }
+
+    @Test
+    void extraIncreaseSteps_DisabledByDefault() {
+        SaleVelocityTracker tracker = new SaleVelocityTracker(Clock.fixed(NOW, ZoneOffset.UTC));
+        VelocityPricingPolicy policy = new VelocityPricingPolicy(tracker, 0, 3);
+        sell(tracker, 5L, 100);
+
+        assertEquals(0, policy.extraIncreaseSteps(5L));
+    }
+
+    @Test
+    void salesPerMinute_SalesAgeOut() {
+        MutableClock clock = new MutableClock(NOW);
+        SaleVelocityTracker tracker = new SaleVelocityTracker(clock);
+        sell(tracker, 5L, 3);
+        clock.advance(Duration.ofSeconds(30));
+        sell(tracker, 5L, 2);
+
+        assertEquals(5, tracker.salesPerMinute(5L));
+        clock.advance(Duration.ofSeconds(30));
+        assertEquals(2, tracker.salesPerMinute(5L));
+        clock.advance(Duration.ofSeconds(30));
+        assertEquals(0, tracker.salesPerMinute(5L));
+    }
+
+    private static void sell(SaleVelocityTracker tracker, Long productId, int lines) {
+        for (int i = 0; i < lines; i++) {
+            tracker.onProductSold(new ProductSoldEvent(1L, productId));
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.borsibaar.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReferenceIdGeneratorTest {
+
+    @Test
+    void next_FixedWidthPrefixedId() {
+        String id = new ReferenceIdGenerator(7).next("SALE");
+
+        assertTrue(id.matches("SALE-[0-9A-HJKMNP-TV-Z]{13}"), id);
+    }
+
+    @Test
+    void sameMillisecond_IdsStillUniqueAndOrdered() {
+        ReferenceIdGenerator generator = new ReferenceIdGenerator(1, () -> ReferenceIdGenerator.EPOCH + 1000);
+
+        List<String> ids = new ArrayList<>();
+        // More than the 4096 ids that fit into one millisecond
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(generator.next("SALE"));
+        }
+
+        assertEquals(ids.size(), new HashSet<>(ids).size());
+        assertEquals(ids.stream().sorted().toList(), ids);
+    }
+
+    @Test
+    void clockGoingBackwards_StaysMonotonic() {
+        AtomicLong now = new AtomicLong(ReferenceIdGenerator.EPOCH + 5000);
+        ReferenceIdGenerator generator = new ReferenceIdGenerator(1, now::get);
+
+        long first = generator.nextId();
+        now.addAndGet(-2000);
+        long second = generator.nextId();
+
+        assertTrue(second > first);
+    }
+
+    @Test
+    void differentNodes_NeverCollide() {
+        ReferenceIdGenerator nodeA = new ReferenceIdGenerator(1, () -> ReferenceIdGenerator.EPOCH + 42);
+        ReferenceIdGenerator nodeB = new ReferenceIdGenerator(2, () -> ReferenceIdGenerator.EPOCH + 42);
+
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            ids.add(nodeA.nextId());
+            ids.add(nodeB.nextId());
+        }
+
+        assertEquals(2000, ids.size());
+    }
+
+    @Test
+    void encode_PreservesNumericOrder() {
+        long[] values = { 0, 1, 31, 32, 1L << 40, (1L << 62) + 5, Long.MAX_VALUE };
+        for (int i = 1; i < values.length; i++) {
+            assertTrue(ReferenceIdGenerator.encode(values[i - 1]).compareTo(ReferenceIdGenerator.encode(values[i])) < 0);
+        }
+    }
+
+    @Test
+    void invalidNodeId_Rejected() {
+        assertThrows(IllegalArgumentException.class, () -> new ReferenceIdGenerator(1024));
+        assertThrows(IllegalArgumentException.class, () -> new ReferenceIdGenerator(-1));
+    }
+
+    @Test
+    void concurrentCallers_AllUniqueAndOrderedPerThread() throws Exception {
+        ReferenceIdGenerator generator = new ReferenceIdGenerator(3);
+        int threads = 8;
+        int perThread = 50_000;
+        Set<Long> all = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                long previous = -1;
+                boolean ordered = true;
+                for (int i = 0; i < perThread; i++) {
+                    long id = generator.nextId();
+                    ordered &= id > previous;
+                    previous = id;
+                    all.add(id);
+                }
+                return ordered;
+            }));
+        }
+        start.countDown();
+        for (Future<Boolean> result : results) {
+            assertTrue(result.get(1, TimeUnit.MINUTES));
+        }
+        pool.shutdown();
+
+        assertEquals(threads * perThread, all.size());
+    }
+}
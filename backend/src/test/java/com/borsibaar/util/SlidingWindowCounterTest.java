@@ -0,0 +1,83 @@
+package com.borsibaar.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowCounterTest {
+
+    private static final long NOW = 1_760_000_000L;
+
+    @Test
+    void sum_CountsOnlyTheWindow() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(60);
+        counter.increment(NOW - 60);
+        counter.increment(NOW - 59);
+        counter.increment(NOW - 1);
+        counter.increment(NOW);
+        counter.increment(NOW);
+
+        assertEquals(4, counter.sum(NOW));
+        assertEquals(2, counter.sum(NOW + 59));
+        assertEquals(0, counter.sum(NOW + 60));
+    }
+
+    @Test
+    void increment_ReusedBucketStartsOver() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(60);
+        counter.increment(NOW);
+        counter.increment(NOW);
+
+        // Same slot, one lap later
+        counter.increment(NOW + 60);
+
+        assertEquals(1, counter.sum(NOW + 60));
+    }
+
+    @Test
+    void increment_EventOlderThanItsBucketIsDropped() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(60);
+        counter.increment(NOW + 60);
+
+        counter.increment(NOW);
+
+        assertEquals(1, counter.sum(NOW + 60));
+    }
+
+    @Test
+    void concurrentIncrements_NoneLost() throws Exception {
+        SlidingWindowCounter counter = new SlidingWindowCounter(60);
+        int threads = 8;
+        int perThread = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        counter.increment(NOW + i % 3);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals((long) threads * perThread, counter.sum(NOW + 2));
+    }
+}
@@ -0,0 +1,81 @@
+package com.borsibaar.websocket;
+
+import com.borsibaar.event.InventoryChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class PriceSocketEndpointTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PriceSocketHandler priceSocketHandler;
+
+    @MockitoBean
+    private ClientRegistrationRepository clientRegistrationRepository;
+
+    @Test
+    void organizationTopic_ReceivesInventoryChanges() throws Exception {
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        WebSocketSession session = new StandardWebSocketClient()
+                .execute(new TextWebSocketHandler() {
+                    @Override
+                    protected void handleTextMessage(WebSocketSession s, TextMessage message) {
+                        received.add(message.getPayload());
+                    }
+                }, "ws://localhost:" + port + "/ws/organizations/41")
+                .get(5, TimeUnit.SECONDS);
+        try {
+            awaitSubscribers(41L, 1);
+            eventPublisher.publishEvent(new InventoryChangedEvent(41L, 3L, 4L, BigDecimal.ONE,
+                    new BigDecimal("4.20"), OffsetDateTime.now()));
+
+            String message = received.poll(5, TimeUnit.SECONDS);
+            assertNotNull(message);
+            assertTrue(message.contains("\"productId\":4"));
+            assertTrue(message.contains("\"unitPrice\":4.20"));
+        } finally {
+            session.close();
+        }
+    }
+
+    @Test
+    void stationTopic_RequiresAuthentication() {
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> new StandardWebSocketClient()
+                .execute(new TextWebSocketHandler(), "ws://localhost:" + port + "/ws/organizations/41/stations/1")
+                .get(5, TimeUnit.SECONDS));
+        assertNotNull(ex.getCause());
+    }
+
+    private void awaitSubscribers(Long organizationId, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (priceSocketHandler.subscriberCount(organizationId) < expected
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(expected, priceSocketHandler.subscriberCount(organizationId));
+    }
+}
@@ -0,0 +1,280 @@
+package com.borsibaar.websocket;
+
+import com.borsibaar.event.CatalogChangedEvent;
+import com.borsibaar.event.InventoryChangedEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceSocketHandlerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void tearDown() {
+        sender.shutdownNow();
+    }
+
+    @Test
+    void inventoryChange_DeliveredToOrganizationSubscribersOnly() throws Exception {
+        PriceSocketHandler handler = new PriceSocketHandler(objectMapper, sender, 16);
+        CountDownLatch delivered = new CountDownLatch(2);
+        StubSession display = connect(handler, 1L, null, delivered);
+        StubSession terminal = connect(handler, 1L, 7L, delivered);
+        StubSession otherOrg = connect(handler, 2L, null, delivered);
+
+        handler.onInventoryChanged(change(1L, 10L, "2.50"));
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        JsonNode message = objectMapper.readTree(display.messages.get(0));
+        assertEquals("inventory", message.get("type").asText());
+        assertEquals(10L, message.get("productId").asLong());
+        assertEquals(1L, message.get("seq").asLong());
+        assertEquals(0, new BigDecimal("2.50").compareTo(message.get("unitPrice").decimalValue()));
+        assertEquals(display.messages, terminal.messages);
+        assertTrue(otherOrg.messages.isEmpty());
+    }
+
+    @Test
+    void messages_KeepOrderPerSubscriber() throws Exception {
+        PriceSocketHandler handler = new PriceSocketHandler(objectMapper, sender, 64);
+        CountDownLatch delivered = new CountDownLatch(21);
+        StubSession session = connect(handler, 1L, null, delivered);
+
+        for (int i = 0; i < 20; i++) {
+            handler.onInventoryChanged(change(1L, 10L, "2." + i));
+        }
+        handler.onCatalogChanged(new CatalogChangedEvent(1L));
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 21; i++) {
+            assertEquals(i + 1, objectMapper.readTree(session.messages.get(i)).get("seq").asLong());
+        }
+        assertEquals("catalog", objectMapper.readTree(session.messages.get(20)).get("type").asText());
+    }
+
+    @Test
+    void subscriberFallingBehind_IsDisconnected() throws Exception {
+        PriceSocketHandler handler = new PriceSocketHandler(objectMapper, sender, 4);
+        StubSession stuck = connect(handler, 1L, null, new CountDownLatch(0));
+        stuck.blockSends = new CountDownLatch(1);
+
+        handler.onInventoryChanged(change(1L, 10L, "1.00"));
+        assertTrue(stuck.sendStarted.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 9; i++) {
+            handler.onInventoryChanged(change(1L, 10L, "1.00"));
+        }
+
+        // Unsubscribed at once, but closed only after the send in progress returns
+        assertEquals(0, handler.subscriberCount(1L));
+        assertFalse(stuck.closed.await(100, TimeUnit.MILLISECONDS));
+        stuck.blockSends.countDown();
+        assertTrue(stuck.closed.await(5, TimeUnit.SECONDS));
+        assertEquals(CloseStatus.SESSION_NOT_RELIABLE, stuck.closeStatus);
+        assertFalse(stuck.closedWhileSending);
+        assertEquals(1, stuck.messages.size());
+    }
+
+    @Test
+    void closedSession_Unsubscribed() throws Exception {
+        PriceSocketHandler handler = new PriceSocketHandler(objectMapper, sender, 16);
+        StubSession session = connect(handler, 1L, null, new CountDownLatch(0));
+
+        handler.afterConnectionClosed(session, CloseStatus.NORMAL);
+
+        assertEquals(0, handler.subscriberCount(1L));
+    }
+
+    /**
+     * Fan-out: every subscriber has each change written well within a bound,
+     * measured from the committed change to the last subscriber. Runs against
+     * in-memory sessions, so it covers the hub itself rather than the network.
+     */
+    @Test
+    void fanOut_1kAnd10kSubscribers_EveryoneReceivesEachChange() throws Exception {
+        for (int subscribers : new int[] { 1_000, 10_000 }) {
+            long[] latencies = measureFanOut(subscribers, 5);
+            assertTrue(latencies[latencies.length - 1] < TimeUnit.SECONDS.toNanos(5),
+                    "Fan-out to " + subscribers + " subscribers took too long");
+        }
+    }
+
+    private long[] measureFanOut(int subscriberCount, int rounds) throws Exception {
+        PriceSocketHandler handler = new PriceSocketHandler(objectMapper, sender, 16);
+        List<StubSession> sessions = new ArrayList<>(subscriberCount);
+        for (int i = 0; i < subscriberCount; i++) {
+            sessions.add(connect(handler, 1L, null, null));
+        }
+        assertEquals(subscriberCount, handler.subscriberCount(1L));
+
+        long[] latencies = new long[rounds];
+        for (int round = 0; round < rounds; round++) {
+            CountDownLatch delivered = new CountDownLatch(subscriberCount);
+            sessions.forEach(s -> s.delivered = delivered);
+
+            long start = System.nanoTime();
+            handler.onInventoryChanged(change(1L, 10L, "3.00"));
+            assertTrue(delivered.await(30, TimeUnit.SECONDS));
+            latencies[round] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private StubSession connect(PriceSocketHandler handler, Long organizationId, Long stationId,
+            CountDownLatch delivered) {
+        StubSession session = new StubSession();
+        session.delivered = delivered;
+        session.getAttributes().put(PriceSocketHandler.ORGANIZATION_ID, organizationId);
+        if (stationId != null) {
+            session.getAttributes().put(PriceSocketHandler.STATION_ID, stationId);
+        }
+        handler.afterConnectionEstablished(session);
+        return session;
+    }
+
+    private InventoryChangedEvent change(Long organizationId, Long productId, String price) {
+        return new InventoryChangedEvent(organizationId, productId + 100, productId, BigDecimal.TEN,
+                new BigDecimal(price), OffsetDateTime.now());
+    }
+
+    /** In-memory session that records what was sent to it. */
+    private static class StubSession implements WebSocketSession {
+        private static int nextId;
+
+        final String id = Integer.toString(nextId++);
+        final Map<String, Object> attributes = new HashMap<>();
+        final List<String> messages = new CopyOnWriteArrayList<>();
+        volatile CountDownLatch delivered;
+        volatile CountDownLatch blockSends;
+        volatile CloseStatus closeStatus;
+        final CountDownLatch sendStarted = new CountDownLatch(1);
+        final CountDownLatch closed = new CountDownLatch(1);
+        volatile boolean sending;
+        volatile boolean closedWhileSending;
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            sending = true;
+            sendStarted.countDown();
+            if (blockSends != null) {
+                try {
+                    blockSends.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            messages.add((String) message.getPayload());
+            sending = false;
+            if (delivered != null) {
+                delivered.countDown();
+            }
+        }
+
+        @Override
+        public void close(CloseStatus status) {
+            closedWhileSending |= sending;
+            closeStatus = status;
+            closed.countDown();
+        }
+
+        @Override
+        public void close() {
+            close(CloseStatus.NORMAL);
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return closeStatus == null;
+        }
+
+        @Override
+        public URI getUri() {
+            return null;
+        }
+
+        @Override
+        public HttpHeaders getHandshakeHeaders() {
+            return new HttpHeaders();
+        }
+
+        @Override
+        public Principal getPrincipal() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return null;
+        }
+
+        @Override
+        public String getAcceptedProtocol() {
+            return null;
+        }
+
+        @Override
+        public void setTextMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getTextMessageSizeLimit() {
+            return 0;
+        }
+
+        @Override
+        public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getBinaryMessageSizeLimit() {
+            return 0;
+        }
+
+        @Override
+        public List<WebSocketExtension> getExtensions() {
+            return List.of();
+        }
+    }
+}
@@ -2,6 +2,7 @@
 
 import { useEffect, useState, useCallback } from "react";
 import { Input } from "@/components/ui/input";
+import { Checkbox } from "@/components/ui/checkbox";
 
 export const dynamic = "force-dynamic"; // still opt-out of caching
 
@@ -42,6 +43,8 @@ export default function Dashboard() {
     name: string;
     priceIncreaseStep?: number;
     priceDecreaseStep?: number;
+    priceDecayIntervalSeconds?: number;
+    lazyPriceDecay?: boolean;
   } | null>(null);
   const [saving, setSaving] = useState(false);
   const [saveError, setSaveError] = useState<string | null>(null);
@@ -83,6 +86,8 @@ export default function Dashboard() {
               priceDecreaseStep: org?.priceDecreaseStep
                 ? parseFloat(org.priceDecreaseStep)
                 : undefined,
+              priceDecayIntervalSeconds: org?.priceDecayIntervalSeconds,
+              lazyPriceDecay: org?.lazyPriceDecay ?? false,
             });
           } else setOrgName("Unknown Organization");
         } catch {
@@ -154,6 +159,8 @@ export default function Dashboard() {
             name: orgDetails.name,
             priceIncreaseStep: orgDetails.priceIncreaseStep,
             priceDecreaseStep: orgDetails.priceDecreaseStep,
+            priceDecayIntervalSeconds: orgDetails.priceDecayIntervalSeconds,
+            lazyPriceDecay: orgDetails.lazyPriceDecay,
           }),
         }
       );
@@ -167,6 +174,8 @@ export default function Dashboard() {
         priceDecreaseStep: updated.priceDecreaseStep
           ? parseFloat(updated.priceDecreaseStep)
           : undefined,
+        priceDecayIntervalSeconds: updated.priceDecayIntervalSeconds,
+        lazyPriceDecay: updated.lazyPriceDecay ?? false,
       });
       setSaveSuccess("Organization updated successfully");
     } catch (err) {
@@ -402,7 +411,45 @@ export default function Dashboard() {
                     }
                   />
                 </div>
+                <div>
+                  <label className="block text-sm font-medium mb-1 text-card-foreground">
+                    Price Decay Interval (s)
+                  </label>
+                  <Input
+                    type="number"
+                    step="1"
+                    min="5"
+                    max="3600"
+                    className="w-full px-3 py-2 border border-gray-700 rounded-lg focus:ring-2 focus:ring-blue-500 focus:border-transparent"
+                    value={orgDetails.priceDecayIntervalSeconds ?? ""}
+                    onChange={(e) =>
+                      setOrgDetails((d) =>
+                        d
+                          ? {
+                              ...d,
+                              priceDecayIntervalSeconds:
+                                e.target.value === ""
+                                  ? undefined
+                                  : parseInt(e.target.value, 10),
+                            }
+                          : d
+                      )
+                    }
+                  />
+                </div>
               </div>
+              <label className="flex items-center gap-2 text-sm text-card-foreground cursor-pointer">
+                <Checkbox
+                  checked={orgDetails.lazyPriceDecay ?? false}
+                  onCheckedChange={(checked) =>
+                    setOrgDetails((d) =>
+                      d ? { ...d, lazyPriceDecay: checked === true } : d
+                    )
+                  }
+                />
+                Decay prices when read (no background price updates while
+                the bar is idle)
+              </label>
               {saveError && (
                 <p className="text-sm text-destructive">{saveError}</p>
               )}
@@ -15,12 +15,13 @@ import {
 } from "lucide-react";
 
 interface InventoryTransactionResponseDto {
-  id: number;
+  // Automatic price changes (price ticks) have no id and no stock levels
+  id: number | null;
   inventoryId: number;
   transactionType: string;
   quantityChange: number;
-  quantityBefore: number;
-  quantityAfter: number;
+  quantityBefore: number | null;
+  quantityAfter: number | null;
   referenceId?: string;
   notes?: string;
   createdBy: string;
@@ -28,6 +29,11 @@ interface InventoryTransactionResponseDto {
   createdByEmail?: string;
   createdAt: string;
 }
+
+interface InventoryTransactionPageResponseDto {
+  items: InventoryTransactionResponseDto[];
+  nextCursor: string | null;
+}
 import {
   Select,
   SelectContent,
@@ -62,6 +68,7 @@ export default function Inventory() {
     InventoryTransactionResponseDto[]
   >([]);
   const [loadingHistory, setLoadingHistory] = useState(false);
+  const [historyCursor, setHistoryCursor] = useState<string | null>(null);
   const [formData, setFormData] = useState({
     quantity: "",
     notes: "",
@@ -126,11 +133,16 @@ export default function Inventory() {
     }
   };
 
-  const fetchTransactionHistory = async (productId: number) => {
+  // Without a cursor loads the newest page, with one appends the next older page
+  const fetchTransactionHistory = async (
+    productId: number,
+    cursor: string | null = null
+  ) => {
     try {
       setLoadingHistory(true);
+      const query = cursor ? `?cursor=${encodeURIComponent(cursor)}` : "";
       const response = await fetch(
-        `/api/backend/inventory/product/${productId}/history`,
+        `/api/backend/inventory/product/${productId}/history${query}`,
         {
           credentials: "include",
         }
@@ -138,11 +150,15 @@ export default function Inventory() {
 
       if (!response.ok) throw new Error("Failed to fetch history");
 
-      const data = await response.json();
-      setTransactionHistory(data);
+      const data: InventoryTransactionPageResponseDto = await response.json();
+      setTransactionHistory((prev) =>
+        cursor ? [...prev, ...data.items] : data.items
+      );
+      setHistoryCursor(data.nextCursor);
     } catch (err) {
       console.error("Error fetching history:", err);
-      setTransactionHistory([]);
+      if (!cursor) setTransactionHistory([]);
+      setHistoryCursor(null);
     } finally {
       setLoadingHistory(false);
     }
@@ -362,6 +378,7 @@ export default function Inventory() {
     setSelectedProduct(null);
     setFormData({ quantity: "", notes: "", referenceId: "" });
     setTransactionHistory([]);
+    setHistoryCursor(null);
     setLoadingHistory(false);
   };
 
@@ -1104,7 +1121,7 @@ export default function Inventory() {
             className="max-h-96 overflow-y-auto [&::-webkit-scrollbar]:hidden"
             style={{ scrollbarWidth: "none", msOverflowStyle: "none" }}
           >
-            {loadingHistory ? (
+            {loadingHistory && transactionHistory.length === 0 ? (
               <div className="text-center py-8">
                 <div className="animate-spin rounded-full h-8 w-8 border-b-2 border-blue-600 mx-auto mb-4"></div>
                 <p className="text-gray-500">Loading transaction history...</p>
@@ -1117,7 +1134,7 @@ export default function Inventory() {
               <div className="space-y-3">
                 {transactionHistory.map((transaction) => (
                   <div
-                    key={transaction.id}
+                    key={transaction.id ?? `tick-${transaction.createdAt}`}
                     className="border border-gray-600 rounded-lg p-4 bg-gray-800"
                   >
                     <div className="flex justify-between items-start mb-2">
@@ -1152,13 +1169,17 @@ export default function Inventory() {
                       <div>
                         <span className="text-gray-400">Before:</span>
                         <span className="ml-1 font-semibold text-gray-300">
-                          {Number(transaction.quantityBefore).toFixed(2)}
+                          {transaction.quantityBefore != null
+                            ? Number(transaction.quantityBefore).toFixed(2)
+                            : "—"}
                         </span>
                       </div>
                       <div>
                         <span className="text-gray-400">After:</span>
                         <span className="ml-1 font-semibold text-gray-300">
-                          {Number(transaction.quantityAfter).toFixed(2)}
+                          {transaction.quantityAfter != null
+                            ? Number(transaction.quantityAfter).toFixed(2)
+                            : "—"}
                         </span>
                       </div>
                     </div>
@@ -1185,6 +1206,19 @@ export default function Inventory() {
                       )}
                   </div>
                 ))}
+                {historyCursor && (
+                  <Button
+                    variant="outline"
+                    className="w-full"
+                    disabled={loadingHistory}
+                    onClick={() =>
+                      // @ts-expect-error: types aren't imported currently from backend
+                      fetchTransactionHistory(selectedProduct.productId, historyCursor)
+                    }
+                  >
+                    {loadingHistory ? "Loading..." : "Load more"}
+                  </Button>
+                )}
               </div>
             )}
           </div>
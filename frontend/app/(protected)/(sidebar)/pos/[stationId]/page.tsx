@@ -110,10 +110,73 @@ export default function POSStation() {
       setCart(JSON.parse(savedCart));
     }
 
-    const refreshInterval = setInterval(fetchProducts, 1000 * 60);
-    return () => clearInterval(refreshInterval);
   }, [stationId, fetchProducts, fetchStation]);
 
+  // Live prices: the backend pushes every committed sale and price correction
+  const organizationId = station?.organizationId;
+  useEffect(() => {
+    if (!organizationId) return;
+    const base = process.env.NEXT_PUBLIC_BACKEND_URL ?? "http://localhost:8080";
+    const url = `${base.replace(/^http/, "ws")}/ws/organizations/${organizationId}/stations/${stationId}`;
+
+    let socket: WebSocket | null = null;
+    let retry: ReturnType<typeof setTimeout> | undefined;
+    let closed = false;
+    // Highest seq applied per product; late messages for older changes are dropped
+    const lastSeq = new Map<number, number>();
+
+    const connect = () => {
+      socket = new WebSocket(url);
+      socket.onopen = () => {
+        // Catch up on anything missed while disconnected
+        fetchProducts();
+      };
+      socket.onmessage = (event) => {
+        const msg = JSON.parse(event.data);
+        if (msg.type === "catalog") {
+          fetchProducts();
+          return;
+        }
+        if (msg.type !== "inventory") return;
+        if ((lastSeq.get(msg.productId) ?? 0) > msg.seq) return;
+        lastSeq.set(msg.productId, msg.seq);
+        setProducts((prev) =>
+          prev.map((p) =>
+            p.productId === msg.productId
+              ? {
+                  ...p,
+                  quantity: msg.quantity,
+                  unitPrice: msg.unitPrice,
+                  updatedAt: msg.updatedAt ?? p.updatedAt,
+                }
+              : p
+          )
+        );
+        setCart((prev) =>
+          prev.map((item) =>
+            item.productId === msg.productId
+              ? {
+                  ...item,
+                  unitPrice: msg.unitPrice,
+                  maxQuantity: msg.quantity,
+                }
+              : item
+          )
+        );
+      };
+      socket.onclose = () => {
+        if (!closed) retry = setTimeout(connect, 3000);
+      };
+    };
+
+    connect();
+    return () => {
+      closed = true;
+      clearTimeout(retry);
+      socket?.close();
+    };
+  }, [organizationId, stationId, fetchProducts]);
+
   useEffect(() => {
     fetchProducts();
   }, [selectedCategory, fetchProducts]);
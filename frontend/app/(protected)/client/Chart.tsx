@@ -47,17 +47,28 @@ const tallinnTicks = (cutoff: Date, now: Date, stepMin: number) => {
   return out;
 };
 
+// Hours of price history shown on the chart
+const HOURS_WINDOW = 1;
+
 // ---------- Types ----------
-type HistoryDto = {
-  id: number;
-  inventoryId: number;
-  priceBefore: number;
-  priceAfter: number;
-  createdAt: string;
+type PriceBucket = {
+  start: string;
+  open: number;
+  high: number;
+  low: number;
+  close: number;
+  changes: number;
+};
+type PriceSeries = {
+  productId: number;
+  resolution: string;
+  from: string;
+  to: string;
+  buckets: PriceBucket[];
 };
 type CurrentHistory = {
   productInv: InvDto;
-  priceHistory: HistoryDto[];
+  priceHistory: PriceBucket[];
 };
 
 export default function PriceHistoryGraphFancy({
@@ -87,16 +98,15 @@ export default function PriceHistoryGraphFancy({
     if (!productInv) return;
     try {
       setError(null);
+      // One-minute buckets over the last hour (the public series' default
+      // window, which HOURS_WINDOW matches): a fixed-size payload however
+      // long the product has been trading, and the same URL for every screen
       const res = await fetch(
-        `/api/backend/inventory/product/${productInv.productId}/history`,
-        {
-          cache: "no-store",
-          credentials: "include",
-        },
+        `/api/backend/organizations/${productInv.organizationId}/products/${productInv.productId}/price-series?resolution=1m`,
       );
       if (!res.ok) throw new Error(`HTTP ${res.status}`);
-      const historyJson: HistoryDto[] = await res.json();
-      setCurrent({ productInv, priceHistory: historyJson });
+      const seriesJson: PriceSeries = await res.json();
+      setCurrent({ productInv, priceHistory: seriesJson.buckets });
     } catch (e) {
       setError(e?.message || "Failed to fetch history");
     }
@@ -138,18 +148,22 @@ export default function PriceHistoryGraphFancy({
     if (!current) return [] as { date: Date; price: number }[];
 
     const product = current.productInv;
-    const hist = [...(current.priceHistory ?? [])]
-      .map((h) => ({
-        ts: new Date(h.createdAt),
-        before: Number(h.priceBefore),
-        after: Number(h.priceAfter),
+    const buckets = current.priceHistory ?? [];
+    // Buckets without changes only carry the previous price forward
+    const hist = buckets
+      .filter((b) => b.changes > 0)
+      .map((b) => ({
+        ts: new Date(b.start),
+        before: Number(b.open),
+        after: Number(b.close),
       }))
       .filter((h) => !isNaN(h.ts.getTime()))
       .sort((a, b) => a.ts.getTime() - b.ts.getTime());
 
-    const firstBefore = hist.find(
-      (h) => Number.isFinite(h.before) && h.before !== 0,
-    )?.before;
+    // The first bucket opens at the price going into the window
+    const opening = Number(buckets[0]?.open);
+    const firstBefore =
+      Number.isFinite(opening) && opening !== 0 ? opening : undefined;
     const base =
       (firstBefore ??
         product?.basePrice ??
@@ -180,7 +194,6 @@ export default function PriceHistoryGraphFancy({
   }, [current]);
 
   // ---- WINDOW: last 1 hour + delta ----
-  const HOURS_WINDOW = 1;
   const { data: windowed, cutoff, now, delta } = useMemo(() => {
     const _now = new Date();
     const _cutoff = new Date(_now.getTime() - HOURS_WINDOW * 3600_000);
@@ -17,6 +17,19 @@ export type InvDto = {
   basePrice: number;
   updatedAt: string;
 };
+type BoardCategory = Category & { products: InvDto[] };
+type Board = {
+  organizationId: number;
+  version: string;
+  categories: BoardCategory[];
+};
+type BoardDelta = {
+  inventoryId: number;
+  productId: number;
+  quantity: number;
+  unitPrice: number;
+  updatedAt: string | null;
+};
 
 const money = (n: number) =>
   new Intl.NumberFormat("et-EE", {
@@ -39,68 +52,62 @@ export default function ClientProductsByCategory() {
   const [err, setErr] = useState<string | null>(null);
 
   useEffect(() => {
-    let alive = true;
+    const organizationId = 2;
+    setLoading(true);
 
-    const load = async () => {
-      setLoading(true);
-      try {
-        const organizationId = 2;
-
-        const cRes = await fetch(
-          `/api/backend/categories?organizationId=${organizationId}`,
-          {
-            cache: "no-store",
-            credentials: "include",
-          }
-        );
-        if (!cRes.ok) throw new Error(`Categories HTTP ${cRes.status}`);
-        const cJson = await cRes.json();
-        const categoryList: Category[] = Array.isArray(cJson)
-          ? cJson
-          : cJson?.items ?? cJson?.content ?? [];
-
-        if (!alive) return;
-        setCats(categoryList);
-
-        const fetches = categoryList.map(async (c) => {
-          const res = await fetch(
-            `/api/backend/inventory?categoryId=${c.id}&organizationId=${organizationId}`,
-            {
-              cache: "no-store",
-              credentials: "include",
-            }
-          );
-          if (!res.ok)
-            throw new Error(`Inventory HTTP ${res.status} (cat ${c.id})`);
-          const j = await res.json();
-          const arr: InvDto[] = Array.isArray(j)
-            ? j
-            : j?.items ?? j?.content ?? [];
-          return [c.name, arr] as const;
-        });
-
-        const results = await Promise.all(fetches);
-        if (!alive) return;
+    const applyBoard = (board: Board) => {
+      setCats(board.categories);
+      setGroups(
+        Object.fromEntries(
+          board.categories
+            .filter((c) => c.products.length > 0)
+            .map((c) => [c.name, c.products])
+        )
+      );
+      setErr(null);
+      setLoading(false);
+    };
 
-        const grouped = Object.fromEntries(
-          results.filter(([, arr]) => arr.length > 0)
-        );
-        setGroups(grouped);
-        setErr(null);
-      } catch (e) {
-        if (!alive) return;
-        setErr(e?.message || "Failed to load products");
-      } finally {
-        setLoading(false);
-      }
+    const applyDeltas = (deltas: BoardDelta[]) => {
+      const byProduct = new Map(deltas.map((d) => [d.productId, d]));
+      setGroups((prev) =>
+        Object.fromEntries(
+          Object.entries(prev).map(([name, items]) => [
+            name,
+            items.map((p) => {
+              const d = byProduct.get(p.productId);
+              return d
+                ? {
+                    ...p,
+                    quantity: d.quantity,
+                    unitPrice: d.unitPrice,
+                    updatedAt: d.updatedAt ?? p.updatedAt,
+                  }
+                : p;
+            }),
+          ])
+        )
+      );
     };
 
-    load();
-    const refreshInterval = setInterval(load, 1000 * 15);
-    return () => {
-      clearInterval(refreshInterval);
-      alive = false;
+    // The browser reconnects on its own and sends Last-Event-ID; the backend
+    // answers every (re)connect with a fresh snapshot
+    const source = new EventSource(
+      `/api/backend/organizations/${organizationId}/board/stream`
+    );
+    source.addEventListener("snapshot", (e) =>
+      applyBoard(JSON.parse((e as MessageEvent).data))
+    );
+    source.addEventListener("delta", (e) =>
+      applyDeltas(JSON.parse((e as MessageEvent).data))
+    );
+    source.onopen = () => setErr(null);
+    source.onerror = () => {
+      setLoading(false);
+      setErr("Live prices disconnected, reconnecting…");
     };
+
+    return () => source.close();
   }, []);
 
   const totalItems = Object.values(groups).reduce(
@@ -15,20 +15,26 @@ export async function POST(request: NextRequest) {
       body: JSON.stringify(body),
     });
 
+    // The backend re-issues the token (now with the organization) when onboarding succeeds
+    const setCookie = response.headers.get('set-cookie');
+    const respond = (res: NextResponse) => {
+      if (setCookie) res.headers.append('Set-Cookie', setCookie);
+      return res;
+    };
+
     // Handle 204 No Content before reading response body
     if (response.status === 204) {
-      return NextResponse.json({ success: true }, { status: 200 });
+      return respond(NextResponse.json({ success: true }, { status: 200 }));
     }
 
     const text = await response.text();
     
-    return new NextResponse(text, { 
+    return respond(new NextResponse(text, { 
       status: response.status,
       headers: {
         'Content-Type': response.headers.get('content-type') || 'application/json',
-        'Set-Cookie': response.headers.get('set-cookie') || '',
       }
-    });
+    }));
   } catch (error) {
     console.error('Proxy error:', error);
     return NextResponse.json(
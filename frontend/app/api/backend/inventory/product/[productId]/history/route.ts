@@ -6,8 +6,10 @@ export async function GET(
     { params }: { params: Promise<{ productId: string }> }
 ) {
     try {
+        // Forward paging (since, cursor, limit) as-is
+        const { search } = new URL(request.url);
         const response = await fetch(
-            `${backendUrl}/api/inventory/product/${(await params).productId}/history`,
+            `${backendUrl}/api/inventory/product/${(await params).productId}/history${search}`,
             {
                 method: "GET",
                 headers: {
@@ -3,7 +3,17 @@ import { backendUrl } from "@/utils/constants";
 
 export async function GET(request: NextRequest) {
     try {
-        const response = await fetch(`${backendUrl}/api/inventory/station-sales-stats`, {
+        // Forward the optional from/to window (ISO date-times)
+        const { searchParams } = new URL(request.url);
+        const url = new URL(`${backendUrl}/api/inventory/station-sales-stats`);
+        for (const param of ["from", "to"]) {
+            const value = searchParams.get(param);
+            if (value) {
+                url.searchParams.append(param, value);
+            }
+        }
+
+        const response = await fetch(url.toString(), {
             method: "GET",
             headers: {
                 Cookie: request.headers.get("cookie") || "",
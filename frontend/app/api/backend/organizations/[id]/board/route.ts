@@ -0,0 +1,47 @@
+import { NextRequest, NextResponse } from "next/server";
+import { backendUrl } from "@/utils/constants";
+
+// Proxy for the public price board; forwards the ETag handshake so unchanged
+// boards come back as an empty 304, and the backend's Cache-Control so shared
+// caches can serve every screen from one response
+export async function GET(
+  request: NextRequest,
+  { params }: { params: Promise<{ id: string }> }
+) {
+  const { id } = await params;
+  try {
+    const ifNoneMatch = request.headers.get("if-none-match");
+    const response = await fetch(
+      `${backendUrl}/api/public/organizations/${encodeURIComponent(id)}/board`,
+      {
+        method: "GET",
+        headers: ifNoneMatch ? { "If-None-Match": ifNoneMatch } : {},
+        cache: "no-store",
+      }
+    );
+
+    const etag = response.headers.get("etag");
+    const cacheControl = response.headers.get("cache-control");
+    const headers: Record<string, string> = {
+      ...(etag ? { ETag: etag } : {}),
+      ...(cacheControl ? { "Cache-Control": cacheControl } : {}),
+    };
+    if (response.status === 304) {
+      return new NextResponse(null, { status: 304, headers });
+    }
+
+    if (!response.ok) {
+      const text = await response.text();
+      return new NextResponse(text, { status: response.status });
+    }
+
+    const data = await response.json();
+    return NextResponse.json(data, { status: response.status, headers });
+  } catch (error) {
+    console.error("Proxy error (organization board):", error);
+    return NextResponse.json(
+      { error: "Failed to fetch price board" },
+      { status: 500 }
+    );
+  }
+}
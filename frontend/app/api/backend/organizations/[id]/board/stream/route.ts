@@ -0,0 +1,49 @@
+import { NextRequest, NextResponse } from "next/server";
+import { backendUrl } from "@/utils/constants";
+
+export const dynamic = "force-dynamic";
+
+// Streaming proxy for the live price board. The body is piped through as-is;
+// Last-Event-ID is forwarded so the backend knows this is a reconnect
+export async function GET(
+  request: NextRequest,
+  { params }: { params: Promise<{ id: string }> }
+) {
+  const { id } = await params;
+  try {
+    const lastEventId = request.headers.get("last-event-id");
+    const response = await fetch(
+      `${backendUrl}/api/public/organizations/${encodeURIComponent(id)}/board/stream`,
+      {
+        method: "GET",
+        headers: {
+          Accept: "text/event-stream",
+          ...(lastEventId ? { "Last-Event-ID": lastEventId } : {}),
+        },
+        cache: "no-store",
+        signal: request.signal,
+      }
+    );
+
+    if (!response.ok || !response.body) {
+      const text = await response.text();
+      return new NextResponse(text, { status: response.status });
+    }
+
+    return new Response(response.body, {
+      status: 200,
+      headers: {
+        "Content-Type": "text/event-stream",
+        "Cache-Control": "no-cache, no-transform",
+        Connection: "keep-alive",
+        "X-Accel-Buffering": "no",
+      },
+    });
+  } catch (error) {
+    console.error("Proxy error (organization board stream):", error);
+    return NextResponse.json(
+      { error: "Failed to open price board stream" },
+      { status: 500 }
+    );
+  }
+}
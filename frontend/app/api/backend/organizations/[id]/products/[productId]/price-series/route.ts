@@ -0,0 +1,36 @@
+import { NextRequest, NextResponse } from "next/server";
+import { backendUrl } from "@/utils/constants";
+
+// Public price series for the display chart: no cookies, and the backend's
+// Cache-Control is passed on so shared caches can answer every screen
+export async function GET(
+  request: NextRequest,
+  { params }: { params: Promise<{ id: string; productId: string }> }
+) {
+  const { id, productId } = await params;
+  try {
+    const { search } = new URL(request.url);
+    const response = await fetch(
+      `${backendUrl}/api/public/organizations/${encodeURIComponent(id)}/products/${encodeURIComponent(productId)}/price-series${search}`,
+      { method: "GET", cache: "no-store" }
+    );
+
+    if (!response.ok) {
+      const text = await response.text();
+      return new NextResponse(text, { status: response.status });
+    }
+
+    const cacheControl = response.headers.get("cache-control");
+    const data = await response.json();
+    return NextResponse.json(data, {
+      status: response.status,
+      headers: cacheControl ? { "Cache-Control": cacheControl } : {},
+    });
+  } catch (error) {
+    console.error("Proxy error (public price series):", error);
+    return NextResponse.json(
+      { error: "Failed to fetch price series" },
+      { status: 500 }
+    );
+  }
+}
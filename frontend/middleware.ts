@@ -5,19 +5,22 @@ import { NextResponse } from "next/server";
 // This avoids going through nginx and Next.js API routes
 const backendUrl = process.env.BACKEND_URL || "http://localhost:8080";
 
+// The backend answers an expired (but still in-session) token with a fresh
+// one in Set-Cookie; it is handed on to the browser so later requests carry it
 async function fetchUser(req: NextRequest) {
   try {
     const res = await fetch(`${backendUrl}/api/account`, {
       headers: { cookie: req.headers.get("cookie") || "" },
       cache: "no-store",
     });
-    if (res.status === 401) return null;
-    if (!res.ok) return null;
+    const setCookie = res.headers.get("set-cookie");
+    if (res.status === 401) return { user: null, setCookie: null };
+    if (!res.ok) return { user: null, setCookie };
     const ct = res.headers.get("content-type") || "";
-    if (!ct.includes("application/json")) return null;
-    return await res.json();
+    if (!ct.includes("application/json")) return { user: null, setCookie };
+    return { user: await res.json(), setCookie };
   } catch {
-    return null;
+    return { user: null, setCookie: null };
   }
 }
 
@@ -31,35 +34,41 @@ export async function middleware(req: NextRequest) {
     return NextResponse.next();
   }
 
-  const user = await fetchUser(req);
+  const { user, setCookie } = await fetchUser(req);
+  const respond = (res: NextResponse) => {
+    if (setCookie) res.headers.append("Set-Cookie", setCookie);
+    return res;
+  };
 
   // /login redirects if authenticated
   if (pathname.startsWith("/login")) {
     if (user) {
-      return NextResponse.redirect(
-        new URL(user.needsOnboarding ? "/onboarding" : "/dashboard", req.url)
+      return respond(
+        NextResponse.redirect(
+          new URL(user.needsOnboarding ? "/onboarding" : "/dashboard", req.url)
+        )
       );
     }
-    return NextResponse.next();
+    return respond(NextResponse.next());
   }
 
   // Protected routes: /dashboard, /onboarding, /pos
   if (!user) {
-    return NextResponse.redirect(new URL("/login", req.url));
+    return respond(NextResponse.redirect(new URL("/login", req.url)));
   }
 
   if (
     (pathname.startsWith("/dashboard") || pathname.startsWith("/pos")) &&
     user.needsOnboarding
   ) {
-    return NextResponse.redirect(new URL("/onboarding", req.url));
+    return respond(NextResponse.redirect(new URL("/onboarding", req.url)));
   }
 
   if (pathname.startsWith("/onboarding") && user.needsOnboarding === false) {
-    return NextResponse.redirect(new URL("/dashboard", req.url));
+    return respond(NextResponse.redirect(new URL("/dashboard", req.url)));
   }
 
-  return NextResponse.next();
+  return respond(NextResponse.next());
 }
 
 export const config = {
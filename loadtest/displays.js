@@ -0,0 +1,51 @@
+// 50 price screens polling one organization's display data, the way a
+// display without the live stream does: the board (revalidated with its
+// ETag), the categories and the inventory, every POLL_SECONDS.
+//
+//   BASE_URL        e.g. http://loadtest-proxy:8081/sb (set by run.sh)
+//   ORGANIZATION_ID organization to read (default 1)
+//   DISPLAYS        simulated screens (default 50)
+//   DURATION        how long to run (default 60s)
+//   POLL_SECONDS    pause between polls per screen (default 1)
+import http from "k6/http";
+import { check, sleep } from "k6";
+
+const BASE_URL = __ENV.BASE_URL || "http://localhost:8082/sb";
+const ORGANIZATION_ID = __ENV.ORGANIZATION_ID || "1";
+const POLL_SECONDS = Number(__ENV.POLL_SECONDS || 1);
+
+export const options = {
+  vus: Number(__ENV.DISPLAYS || 50),
+  duration: __ENV.DURATION || "60s",
+  thresholds: {
+    http_req_failed: ["rate<0.01"],
+  },
+};
+
+let etag = null;
+
+export default function () {
+  const board = http.get(
+    `${BASE_URL}/api/public/organizations/${ORGANIZATION_ID}/board`,
+    { headers: etag ? { "If-None-Match": etag } : {}, tags: { name: "board" } }
+  );
+  check(board, { "board 200/304": (r) => r.status === 200 || r.status === 304 });
+  if (board.headers["Etag"]) {
+    etag = board.headers["Etag"];
+  }
+
+  const categories = http.get(
+    `${BASE_URL}/api/public/organizations/${ORGANIZATION_ID}/categories`,
+    { tags: { name: "categories" } }
+  );
+  check(categories, { "categories 200": (r) => r.status === 200 });
+
+  // Older screens still read with ?organizationId=
+  const inventory = http.get(
+    `${BASE_URL}/api/inventory?organizationId=${ORGANIZATION_ID}`,
+    { tags: { name: "inventory" } }
+  );
+  check(inventory, { "inventory 200": (r) => r.status === 200 });
+
+  sleep(POLL_SECONDS);
+}
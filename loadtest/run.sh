@@ -0,0 +1,37 @@
+#!/usr/bin/env bash
+# Backend load from 50 display screens, without and with the nginx
+# micro-cache. Needs the dev stack's .env and an organization with products
+# (ORGANIZATION_ID, default 1).
+#
+#   ./loadtest/run.sh            # 60s per run
+#   DURATION=30s ./loadtest/run.sh
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+DURATION=${DURATION:-60s}
+seconds=${DURATION%s}
+compose="docker compose --profile loadtest"
+
+$compose up -d postgres backend loadtest-proxy
+echo "Waiting for the backend..."
+until $compose exec -T loadtest-proxy wget -qO /dev/null \
+    "http://localhost:8081/sb/api/public/organizations/${ORGANIZATION_ID:-1}/categories" 2>/dev/null; do
+  sleep 2
+done
+
+run() {
+  local port=$1 label=$2
+  $compose exec -T loadtest-proxy sh -c "rm -f /var/log/nginx/backend-$port.log && nginx -s reopen"
+  $compose run --rm -e BASE_URL="http://loadtest-proxy:$port/sb" -e DURATION="$DURATION" \
+    -e ORGANIZATION_ID="${ORGANIZATION_ID:-1}" -e DISPLAYS="${DISPLAYS:-50}" \
+    k6 run --quiet /scripts/displays.js
+  sleep 1
+  local hits
+  hits=$($compose exec -T loadtest-proxy sh -c "cat /var/log/nginx/backend-$port.log 2>/dev/null | wc -l")
+  printf '%-12s %8d backend requests, %8.1f req/s\n' "$label" "$hits" "$(echo "$hits / $seconds" | bc -l)"
+}
+
+echo "== before: every display request reaches the backend =="
+run 8081 "no cache"
+echo "== after: nginx micro-cache =="
+run 8082 "micro-cache"